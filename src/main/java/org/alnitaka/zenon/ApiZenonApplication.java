@@ -2,8 +2,10 @@ package org.alnitaka.zenon;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ApiZenonApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,75 @@
+package org.alnitaka.zenon.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Sources de données primaire et réplica, actives seulement si {@code datasource.replica.url} est renseigné.
+ * <p>
+ * Le primaire reste configuré par {@code spring.datasource.*}, le réplica par {@code datasource.replica.*}
+ * (dont {@code datasource.replica.hikari.*} pour le pool). Sans réplica, la source auto-configurée
+ * par Spring Boot est utilisée telle quelle.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.replica", name = "url")
+public class DataSourceConfig {
+
+	@Bean
+	@Primary
+	@ConfigurationProperties("spring.datasource")
+	public DataSourceProperties primaryDataSourceProperties() {
+		return new DataSourceProperties();
+	}
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties primaryDataSourceProperties) {
+		return primaryDataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	@Bean
+	@ConfigurationProperties("datasource.replica")
+	public DataSourceProperties replicaDataSourceProperties() {
+		return new DataSourceProperties();
+	}
+
+	@Bean
+	@ConfigurationProperties("datasource.replica.hikari")
+	public HikariDataSource replicaDataSource(@Qualifier("replicaDataSourceProperties") DataSourceProperties properties) {
+		HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		replica.setReadOnly(true);
+		return replica;
+	}
+
+	/**
+	 * Enregistré auprès du gestionnaire de transactions par Spring Boot, comme tout
+	 * {@link org.springframework.transaction.TransactionExecutionListener}.
+	 */
+	@Bean
+	public ReadYourWritesTracker readYourWritesTracker(
+		@Value("${datasource.replica.read-your-writes-ms:5000}") long windowMs,
+		@Value("${datasource.replica.read-your-writes-maximum-users:100000}") long maximumUsers
+	) {
+		return new ReadYourWritesTracker(Duration.ofMillis(windowMs), maximumUsers);
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(
+		@Qualifier("primaryDataSource") DataSource primary,
+		@Qualifier("replicaDataSource") DataSource replica,
+		ReadYourWritesTracker readYourWritesTracker
+	) {
+		return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, readYourWritesTracker));
+	}
+}
@@ -0,0 +1,19 @@
+package org.alnitaka.zenon.config;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+	/**
+	 * Les DTO annotés {@code @JsonFilter} sont sérialisés en entier lorsque la réponse ne fournit
+	 * pas de filtre (cf. {@code ResponseFields} pour {@code ?fields=} et {@code ?expand=}).
+	 */
+	@Bean
+	public Jackson2ObjectMapperBuilderCustomizer defaultPropertyFilters() {
+		return builder -> builder.filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+	}
+}
@@ -1,30 +1,64 @@
 package org.alnitaka.zenon.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.alnitaka.zenon.security.Argon2Calibrator;
+import org.alnitaka.zenon.security.Argon2Settings;
+import org.alnitaka.zenon.security.BoundedPasswordEncoder;
+import org.alnitaka.zenon.security.TunedArgon2PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 public class PasswordConfig {
 
 	/**
-	 * Configure un encodeur Argon2 avec des paramètres raisonnables par défaut
-	 * pour Spring Security 5.8+.
+	 * Paramètres Argon2 de l'application.
+	 * <p>
+	 * Par défaut ceux de Spring Security 5.8+ (saltLength=16, hashLength=32, parallelism=1,
+	 * memory=1<<12 KB (4 096 KB), iterations=3), surchargeables par configuration. Avec
+	 * {@code security.argon2.calibrate=true} (ou {@code --security.argon2.calibrate=true} en ligne de
+	 * commande), les paramètres sont mesurés au démarrage et le réglage le plus robuste tenant dans
+	 * {@code security.argon2.latency-budget-ms} est retenu. La calibration dépend de la machine : sur
+	 * plusieurs instances, fixer plutôt les mêmes paramètres partout.
 	 */
 	@Bean
-	public PasswordEncoder passwordEncoder() {
-		// Constructeur par défaut adapté à Spring Security v5.8 :
-		// saltLength=16, hashLength=32, parallelism=1, memory=1<<12 KB (4 096 KB), iterations=3
-		return Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8();
+	public Argon2Settings argon2Settings(
+		@Value("${security.argon2.memory-kb:4096}") int memoryKb,
+		@Value("${security.argon2.iterations:3}") int iterations,
+		@Value("${security.argon2.parallelism:1}") int parallelism,
+		@Value("${security.argon2.calibrate:false}") boolean calibrate,
+		@Value("${security.argon2.latency-budget-ms:250}") long latencyBudgetMs,
+		@Value("${security.argon2.max-memory-kb:65536}") int maxMemoryKb,
+		@Value("${security.argon2.max-iterations:10}") int maxIterations
+	) {
+		Argon2Settings defaults = Argon2Settings.SPRING_V5_8_DEFAULTS;
+		Argon2Settings configured = new Argon2Settings(
+			defaults.saltLength(), defaults.hashLength(), parallelism, memoryKb, iterations);
+		if (!calibrate) {
+			return configured;
+		}
+		return new Argon2Calibrator(Duration.ofMillis(latencyBudgetMs), maxMemoryKb, maxIterations)
+			.calibrate(configured);
+	}
 
-		/*Si vous voulez personnaliser les paramètres, utilisez :
-		return new Argon2PasswordEncoder(
-			saltLength,    // longueur du sel en octets (ex.16)
-			hashLength,    // taille du hash en octets (ex.32)
-			parallelism,   // nombre de threads (ex.1)
-			memory,        // mémoire en KB (ex.1<<12 = 4096 KB)
-			iterations     // nombre d’itérations (ex.3)
-		);*/
+	/**
+	 * Configure l'encodeur Argon2 des mots de passe.
+	 * <p>
+	 * Les calculs Argon2 sont exécutés sur un pool dédié et borné plutôt que sur les threads Tomcat ;
+	 * lorsque sa file d'attente est pleine, la requête est refusée en 429. Un hash stocké avec des
+	 * paramètres plus faibles que les paramètres courants est recalculé à la connexion suivante.
+	 */
+	@Bean
+	public BoundedPasswordEncoder passwordEncoder(
+		Argon2Settings argon2Settings,
+		MeterRegistry meterRegistry,
+		@Value("${security.argon2.executor.threads:2}") int threads,
+		@Value("${security.argon2.executor.queue-capacity:32}") int queueCapacity,
+		@Value("${security.argon2.executor.retry-after-seconds:1}") long retryAfterSeconds
+	) {
+		return new BoundedPasswordEncoder(
+			new TunedArgon2PasswordEncoder(argon2Settings), threads, queueCapacity, retryAfterSeconds, meterRegistry);
 	}
 }
@@ -0,0 +1,60 @@
+package org.alnitaka.zenon.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import java.time.Duration;
+import java.util.Optional;
+import org.springframework.lang.Nullable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+/**
+ * Garantit qu'un utilisateur relit ses propres écritures malgré le retard de réplication.
+ * <p>
+ * Chaque transaction en écriture validée marque l'utilisateur courant pendant {@code window} ;
+ * tant que la marque existe, ses transactions en lecture seule sont envoyées au primaire
+ * (cf. {@link ReplicaRoutingDataSource}). La fenêtre doit couvrir le retard habituel des réplicas.
+ * Le suivi est propre à chaque instance : derrière un répartiteur sans affinité, un utilisateur
+ * peut lire sur un réplica depuis une autre instance juste après une écriture.
+ */
+public class ReadYourWritesTracker implements TransactionExecutionListener {
+
+	private final Cache<String, Boolean> recentWriters;
+
+	public ReadYourWritesTracker(Duration window, long maximumSize) {
+		this(window, maximumSize, Ticker.systemTicker());
+	}
+
+	ReadYourWritesTracker(Duration window, long maximumSize, Ticker ticker) {
+		this.recentWriters = Caffeine.newBuilder()
+			.expireAfterWrite(window)
+			.maximumSize(maximumSize)
+			.ticker(ticker)
+			.build();
+	}
+
+	@Override
+	public void afterCommit(TransactionExecution transaction, @Nullable Throwable commitFailure) {
+		if (commitFailure == null && !transaction.isReadOnly()) {
+			currentUser().ifPresent(user -> recentWriters.put(user, Boolean.TRUE));
+		}
+	}
+
+	/**
+	 * @return {@code true} si l'utilisateur courant a écrit dans la fenêtre et doit lire sur le primaire
+	 */
+	public boolean mustReadFromPrimary() {
+		return currentUser().map(user -> recentWriters.getIfPresent(user) != null).orElse(false);
+	}
+
+	private static Optional<String> currentUser() {
+		Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+		if (auth == null || !auth.isAuthenticated()) {
+			return Optional.empty();
+		}
+		return Optional.ofNullable(auth.getName());
+	}
+}
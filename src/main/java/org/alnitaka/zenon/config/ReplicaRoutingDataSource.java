@@ -0,0 +1,37 @@
+package org.alnitaka.zenon.config;
+
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Envoie les transactions en lecture seule au réplica et tout le reste au primaire.
+ * <p>
+ * La décision dépend de la transaction courante : la source doit donc être enveloppée dans une
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, pour que la connexion
+ * physique ne soit obtenue qu'à la première requête, une fois la transaction démarrée.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+	enum Target {
+		PRIMARY,
+		REPLICA
+	}
+
+	private final ReadYourWritesTracker readYourWrites;
+
+	public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReadYourWritesTracker readYourWrites) {
+		this.readYourWrites = readYourWrites;
+		setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+		setDefaultTargetDataSource(primary);
+		afterPropertiesSet();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !readYourWrites.mustReadFromPrimary()
+			? Target.REPLICA
+			: Target.PRIMARY;
+	}
+}
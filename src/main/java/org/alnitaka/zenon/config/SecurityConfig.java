@@ -1,10 +1,12 @@
 package org.alnitaka.zenon.config;
 
-import java.util.List;
-import java.util.stream.Collectors;
-import org.alnitaka.zenon.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
 import org.alnitaka.zenon.repository.UserRepository;
+import org.alnitaka.zenon.security.CachedUserDetailsService;
 import org.alnitaka.zenon.security.JwtAuthenticationFilter;
+import org.alnitaka.zenon.security.UserPrincipal;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -13,7 +15,6 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.SecurityFilterChain;
@@ -29,7 +30,10 @@ public class SecurityConfig {
 				.sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
 				.cors(Customizer.withDefaults())
 				.authorizeHttpRequests(auth -> auth
-						.requestMatchers("/api/auth/**", "/swagger-ui/**", "/v3/api-docs/**", "/actuator/**").permitAll()
+						.requestMatchers("/api/auth/**", "/swagger-ui/**", "/v3/api-docs/**").permitAll()
+						.requestMatchers("/actuator/health/**", "/actuator/info").permitAll()
+						// Compteurs JWT, limitation des connexions, caches, Hibernate : réservés aux administrateurs
+						.requestMatchers("/actuator/**").hasRole("ADMIN")
 						.anyRequest().authenticated()
 				).addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
 
@@ -42,24 +46,18 @@ public class SecurityConfig {
 	}
 
 	@Bean
-	public UserDetailsService userDetailsService(UserRepository userRepository) {
-		return email -> userRepository.findUserByEmail(email)
-				.map((User u) -> {
-					List<SimpleGrantedAuthority> authorities = u.getRoles().stream()
-							.map(role -> new SimpleGrantedAuthority(role.name()))
-							.collect(Collectors.toList());
-					return org.springframework.security.core.userdetails.User
-							.withUsername(u.getEmail())
-							.password(u.getPassword())
-							.authorities(authorities)
-							.accountExpired(false)
-							.accountLocked(false)
-							.credentialsExpired(false)
-							.disabled(!u.isActive())
-							.build();
-				})
+	public CachedUserDetailsService userDetailsService(
+			UserRepository userRepository,
+			MeterRegistry meterRegistry,
+			@Value("${security.user-cache.maximum-size:10000}") long maximumSize,
+			@Value("${security.user-cache.ttl-ms:300000}") long ttlMs
+	) {
+		// Le principal porte l'id et la version du compte, reportés dans les claims du JWT
+		UserDetailsService loader = email -> userRepository.findUserByEmail(email)
+				.map(UserPrincipal::from)
 				.orElseThrow(() ->
 						new UsernameNotFoundException("Utilisateur non trouvé pour email : " + email)
 				);
+		return new CachedUserDetailsService(loader, meterRegistry, maximumSize, Duration.ofMillis(ttlMs));
 	}
 }
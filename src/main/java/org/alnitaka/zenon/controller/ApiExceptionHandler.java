@@ -0,0 +1,47 @@
+package org.alnitaka.zenon.controller;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.alnitaka.zenon.exception.ConflictException;
+import org.alnitaka.zenon.exception.InvalidCursorException;
+import org.alnitaka.zenon.exception.InvalidFieldsException;
+import org.alnitaka.zenon.exception.PreconditionFailedException;
+import org.alnitaka.zenon.exception.TooManyRequestsException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+	@ExceptionHandler(TooManyRequestsException.class)
+	public ResponseEntity<Void> tooManyRequests(TooManyRequestsException e) {
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+			.header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+			.build();
+	}
+
+	// Absent ou appartenant à un autre utilisateur : même réponse, pour ne rien divulguer
+	@ExceptionHandler(EntityNotFoundException.class)
+	public ResponseEntity<Void> notFound(EntityNotFoundException e) {
+		return ResponseEntity.notFound().build();
+	}
+
+	// Modifié entre-temps par une autre écriture : le client doit relire avant de réessayer
+	@ExceptionHandler(PreconditionFailedException.class)
+	public ResponseEntity<Void> preconditionFailed(PreconditionFailedException e) {
+		return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+	}
+
+	// Nom pris par une écriture concurrente entre la vérification et l'insertion
+	@ExceptionHandler(ConflictException.class)
+	public ResponseEntity<Void> conflict(ConflictException e) {
+		return ResponseEntity.status(HttpStatus.CONFLICT).build();
+	}
+
+	@ExceptionHandler({InvalidCursorException.class, InvalidFieldsException.class})
+	public ResponseEntity<Void> badRequest(RuntimeException e) {
+		return ResponseEntity.badRequest().build();
+	}
+}
@@ -2,6 +2,7 @@ package org.alnitaka.zenon.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import java.util.Set;
 import lombok.RequiredArgsConstructor;
@@ -9,9 +10,13 @@ import org.alnitaka.zenon.entity.User;
 import org.alnitaka.zenon.entity.request.JwtResponse;
 import org.alnitaka.zenon.entity.request.LoginRequest;
 import org.alnitaka.zenon.entity.request.RegisterRequest;
+import org.alnitaka.zenon.exception.UniqueConstraints;
 import org.alnitaka.zenon.repository.UserRepository;
 import org.alnitaka.zenon.security.JwtTokenProvider;
+import org.alnitaka.zenon.security.LoginRateLimiter;
 import org.alnitaka.zenon.security.Role;
+import org.alnitaka.zenon.security.UserPrincipal;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -33,10 +38,13 @@ public class AuthController {
 	private final JwtTokenProvider tokenProvider;
 	private final UserRepository userRepository;
 	private final PasswordEncoder passwordEncoder;
+	private final LoginRateLimiter loginRateLimiter;
 
 	@PostMapping("/login")
 	@Operation(summary = "Connecte l'utilisateur et renvoie un token JWT")
-	public ResponseEntity<JwtResponse> login(@RequestBody @Valid LoginRequest req) {
+	public ResponseEntity<JwtResponse> login(@RequestBody @Valid LoginRequest req, HttpServletRequest request) {
+		// Refus en 429 avant toute vérification Argon2
+		loginRateLimiter.check(request.getRemoteAddr(), req.getEmail());
 		Authentication auth = authManager.authenticate(new UsernamePasswordAuthenticationToken(req.getEmail(), req.getPassword()));
 		String jwt = tokenProvider.generateToken(auth);
 		return ResponseEntity.ok(new JwtResponse(jwt));
@@ -45,11 +53,8 @@ public class AuthController {
 	@PostMapping("/register")
 	@Operation(summary = "Inscrit un nouvelle utilisateur et renvoie un token JWT")
 	public ResponseEntity<JwtResponse> register(@RequestBody @Valid RegisterRequest req) {
-		// Vérifier si l'utilisateur existe déjà
-		if (userRepository.findUserByEmail(req.getEmail()).isPresent()) {
-			return ResponseEntity.status(HttpStatus.CONFLICT).build();
-		}
-		// Créer et sauvegarder le nouvel utilisateur
+		// Créer et sauvegarder le nouvel utilisateur ;
+		// l'unicité de l'email est garantie par la contrainte en base, sans requête préalable
 		User newUser = new User();
 		newUser.setEmail(req.getEmail());
 		newUser.setPassword(passwordEncoder.encode(req.getPassword()));
@@ -57,12 +62,19 @@ public class AuthController {
 		newUser.setLastname(req.getLastname());
 		newUser.setActive(true);
 		newUser.setRoles(Set.of(Role.ROLE_USER));
-		userRepository.save(newUser);
+		try {
+			newUser = userRepository.saveAndFlush(newUser);
+		} catch (DataIntegrityViolationException e) {
+			// Seule l'unicité de l'email donne 409 ; toute autre violation reste une erreur serveur
+			if (!UniqueConstraints.isViolated(e, "email")) {
+				throw e;
+			}
+			return ResponseEntity.status(HttpStatus.CONFLICT).build();
+		}
 
-		// Authentifier l'utilisateur pour générer le JWT
-		Authentication auth = authManager.authenticate(
-				new UsernamePasswordAuthenticationToken(req.getEmail(), req.getPassword())
-		);
+		// Le JWT est émis depuis l'utilisateur persisté : pas de seconde vérification Argon2 du mot de passe
+		UserPrincipal principal = UserPrincipal.from(newUser);
+		Authentication auth = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
 		String jwt = tokenProvider.generateToken(auth);
 		return ResponseEntity.ok(new JwtResponse(jwt));
 	}
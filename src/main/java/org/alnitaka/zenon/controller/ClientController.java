@@ -1,38 +1,51 @@
 package org.alnitaka.zenon.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
-import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.alnitaka.zenon.dto.ClientDto;
+import org.alnitaka.zenon.dto.CursorPage;
+import org.alnitaka.zenon.dto.Versioned;
 import org.alnitaka.zenon.mapper.ClientMapper;
 import org.alnitaka.zenon.service.ClientService;
+import org.alnitaka.zenon.service.OwnerVersionService;
+import org.alnitaka.zenon.service.UserService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @Tag(name = "Client")
 @RequiredArgsConstructor
 @RequestMapping("/api/clients")
 public class ClientController {
+	private static final String FIELDS_DOC = "Propriétés à renvoyer parmi id, nom, email, owner (toutes par défaut)";
+	private static final String EXPAND_DOC = "Associations à lire et embarquer : owner (par défaut)";
+
 	private final ClientService clientService;
 	private final ClientMapper clientMapper;
+	private final OwnerVersionService ownerVersionService;
+	private final UserService userService;
 
 	@GetMapping
 	@Operation(summary = "Liste les clients de l'utilisateur courant")
@@ -41,12 +54,22 @@ public class ClientController {
 			responseCode = "200",
 			description = "Operation successful",
 			content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
-				array = @ArraySchema(schema = @Schema(implementation = ClientDto.class))
+				schema = @Schema(implementation = CursorPage.class)
 			)
 		)
 	})
-	public List<ClientDto> getMyClients() {
-		return clientMapper.toDto(clientService.listMyClients());
+	public MappingJacksonValue getMyClients(
+		@Parameter(description = "Curseur `next` de la page précédente") @RequestParam(required = false) String cursor,
+		@Parameter(description = "Nombre maximal d'éléments (500 au plus)") @RequestParam(defaultValue = "50") int limit,
+		@Parameter(description = FIELDS_DOC) @RequestParam(required = false) String fields,
+		@Parameter(description = EXPAND_DOC) @RequestParam(required = false) String expand,
+		WebRequest request
+	) {
+		ResponseFields.Selection selection = ResponseFields.forClients(fields, expand);
+		if (request.checkNotModified(ownerVersionService.currentETag())) {
+			return null;
+		}
+		return selection.clients(clientService.listMyClients(cursor, limit, selection.expand()));
 	}
 
 	@GetMapping("/{id}")
@@ -58,8 +81,17 @@ public class ClientController {
 			content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ClientDto.class))
 		)
 	})
-	public ClientDto getMyClients(@PathVariable Long id) {
-		return clientMapper.toDto(clientService.getClient(id));
+	public MappingJacksonValue getMyClients(
+		@PathVariable Long id,
+		@Parameter(description = FIELDS_DOC) @RequestParam(required = false) String fields,
+		@Parameter(description = EXPAND_DOC) @RequestParam(required = false) String expand,
+		WebRequest request
+	) {
+		ResponseFields.Selection selection = ResponseFields.forClients(fields, expand);
+		if (request.checkNotModified(EntityTags.of(ownerVersionService.currentETag(), clientService.getVersion(id)))) {
+			return null;
+		}
+		return selection.clients(clientService.getClient(id, selection.expand()));
 	}
 
 	@PostMapping
@@ -70,9 +102,15 @@ public class ClientController {
 	}
 
 	@PutMapping
-	@Operation(summary = "Met à jour un client existant")
-	public ClientDto update(@RequestBody @Valid ClientDto client) {
-		return clientMapper.toDto(clientService.update(client));
+	@Operation(summary = "Met à jour un client existant ; avec If-Match, seulement s'il n'a pas changé depuis la lecture")
+	@ApiResponse(responseCode = "412", description = "Client modifié depuis l'ETag fourni par If-Match")
+	public ResponseEntity<ClientDto> update(
+		@RequestBody @Valid ClientDto client,
+		@Parameter(description = "ETag de la dernière lecture du client") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+	) {
+		Versioned<ClientDto> updated = clientService.update(client, EntityTags.expectedVersion(ifMatch, userService.getCurrentUserId().orElse(null)));
+		// Nouvel ETag : la requête suivante peut poser If-Match sans relire le client
+		return ResponseEntity.ok().eTag(EntityTags.of(updated.ownerTag(), updated.version())).body(updated.value());
 	}
 
 	@DeleteMapping("/{id}")
@@ -0,0 +1,49 @@
+package org.alnitaka.zenon.controller;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.alnitaka.zenon.exception.PreconditionFailedException;
+
+/**
+ * ETags des lectures unitaires et lecture de {@code If-Match} pour les écritures conditionnelles.
+ * <p>
+ * L'ETag d'un client, d'un projet ou d'une tâche est {@code "<utilisateur>.<version des données>.<version de l'entité>"} :
+ * la version des données de l'utilisateur couvre ce que la représentation embarque (tâches, client,
+ * propriétaire), la version de l'entité couvre ses propres colonnes. {@code If-Match} ne compare que
+ * cette dernière : une écriture n'échoue que si l'entité elle-même a changé depuis la lecture.
+ */
+final class EntityTags {
+	// "<utilisateur>.<version des données>.<version de l'entité>", tel que produit par of()
+	private static final Pattern TAG = Pattern.compile("\"(\\d+)\\.(\\d+)\\.(\\d+)\"");
+
+	private EntityTags() {
+	}
+
+	static String of(String ownerTag, long version) {
+		return ownerTag + "." + version;
+	}
+
+	/**
+	 * @param ifMatch la valeur de l'en-tête {@code If-Match}, éventuellement absente
+	 * @param userId l'utilisateur courant, seul à qui l'ETag peut avoir été émis
+	 * @return la version attendue, ou {@code null} pour une écriture inconditionnelle (en-tête absent ou {@code *})
+	 * @throws PreconditionFailedException si l'en-tête n'est pas un ETag fort émis par {@link #of(String, long)}
+	 *                                     pour {@code userId}
+	 */
+	static Long expectedVersion(String ifMatch, Long userId) {
+		if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+			return null;
+		}
+		// Comparaison forte : un ETag faible ou une liste de plusieurs ETags ne peut pas correspondre
+		Matcher tag = TAG.matcher(ifMatch.strip());
+		if (!tag.matches() || !tag.group(1).equals(String.valueOf(userId))) {
+			throw new PreconditionFailedException("If-Match invalide : " + ifMatch);
+		}
+		try {
+			return Long.parseLong(tag.group(3));
+		} catch (NumberFormatException e) {
+			// Version hors des bornes d'un long
+			throw new PreconditionFailedException("If-Match invalide : " + ifMatch);
+		}
+	}
+}
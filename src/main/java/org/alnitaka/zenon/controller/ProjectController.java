@@ -1,43 +1,112 @@
 package org.alnitaka.zenon.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.alnitaka.zenon.dto.CursorPage;
 import org.alnitaka.zenon.dto.ProjectDto;
+import org.alnitaka.zenon.dto.ProjectSummaryDto;
+import org.alnitaka.zenon.dto.Versioned;
 import org.alnitaka.zenon.mapper.ProjectMapper;
+import org.alnitaka.zenon.service.OwnerVersionService;
 import org.alnitaka.zenon.service.ProjectService;
+import org.alnitaka.zenon.service.UserService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @Tag(name = "Project")
 @RequiredArgsConstructor
 @RequestMapping("/api/project")
 public class ProjectController {
+	private static final String FIELDS_DOC = "Propriétés à renvoyer parmi id, nom, owner, client, tasks (toutes par défaut)";
+	private static final String EXPAND_DOC = "Associations à lire et embarquer parmi owner, client, tasks (toutes par défaut)";
+
 	private final ProjectService projectService;
 	private final ProjectMapper projectMapper;
+	private final OwnerVersionService ownerVersionService;
+	private final UserService userService;
 
 	@GetMapping
 	@Operation(summary = "Liste les projets de l'utilisateur courant")
-	public List<ProjectDto> getMyProjects() {
-		return projectMapper.toDto(projectService.listProjects());
+	@ApiResponses(value = {
+		@ApiResponse(
+			responseCode = "200",
+			description = "Operation successful",
+			content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+				schema = @Schema(implementation = CursorPage.class)
+			)
+		)
+	})
+	public MappingJacksonValue getMyProjects(
+		@Parameter(description = "Curseur `next` de la page précédente") @RequestParam(required = false) String cursor,
+		@Parameter(description = "Nombre maximal d'éléments (500 au plus)") @RequestParam(defaultValue = "50") int limit,
+		@Parameter(description = FIELDS_DOC) @RequestParam(required = false) String fields,
+		@Parameter(description = EXPAND_DOC) @RequestParam(required = false) String expand,
+		WebRequest request
+	) {
+		ResponseFields.Selection selection = ResponseFields.forProjects(fields, expand);
+		// Version lue avant les données ; 304 sans requête de liste ni mapping si If-None-Match correspond
+		if (request.checkNotModified(ownerVersionService.currentETag())) {
+			return null;
+		}
+		return selection.projects(projectService.listProjects(cursor, limit, selection.expand()));
+	}
+
+	@GetMapping("/summary")
+	@Operation(summary = "Liste les projets de l'utilisateur courant avec leurs compteurs de tâches, sans les tâches")
+	public CursorPage<ProjectSummaryDto> getMyProjectSummaries(
+		@Parameter(description = "Curseur `next` de la page précédente") @RequestParam(required = false) String cursor,
+		@Parameter(description = "Nombre maximal d'éléments (500 au plus)") @RequestParam(defaultValue = "50") int limit,
+		WebRequest request
+	) {
+		if (request.checkNotModified(ownerVersionService.currentETag())) {
+			return null;
+		}
+		return projectService.listSummaries(cursor, limit);
 	}
 
 	@GetMapping("/{id}")
 	@Operation(summary = "Récupère un projet par son ID")
-	public ProjectDto getMyProjects(@PathVariable Long id) {
-		return projectMapper.toDto(projectService.getProject(id));
+	@ApiResponses(value = {
+		@ApiResponse(
+			responseCode = "200",
+			description = "Operation successful",
+			content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ProjectDto.class))
+		)
+	})
+	public MappingJacksonValue getMyProjects(
+		@PathVariable Long id,
+		@Parameter(description = FIELDS_DOC) @RequestParam(required = false) String fields,
+		@Parameter(description = EXPAND_DOC) @RequestParam(required = false) String expand,
+		WebRequest request
+	) {
+		ResponseFields.Selection selection = ResponseFields.forProjects(fields, expand);
+		if (request.checkNotModified(EntityTags.of(ownerVersionService.currentETag(), projectService.getVersion(id)))) {
+			return null;
+		}
+		return selection.projects(projectService.getProject(id, selection.expand()));
 	}
 
 	@PostMapping
@@ -48,9 +117,15 @@ public class ProjectController {
 	}
 
 	@PutMapping
-	@Operation(summary = "Met à jour un projet existant")
-	public ProjectDto update(@RequestBody @Valid ProjectDto project) {
-		return projectMapper.toDto(projectService.update(project));
+	@Operation(summary = "Met à jour un projet existant ; avec If-Match, seulement s'il n'a pas changé depuis la lecture")
+	@ApiResponse(responseCode = "412", description = "Projet modifié depuis l'ETag fourni par If-Match")
+	public ResponseEntity<ProjectDto> update(
+		@RequestBody @Valid ProjectDto project,
+		@Parameter(description = "ETag de la dernière lecture du projet") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+	) {
+		Versioned<ProjectDto> updated = projectService.update(project, EntityTags.expectedVersion(ifMatch, userService.getCurrentUserId().orElse(null)));
+		// Nouvel ETag : la requête suivante peut poser If-Match sans relire le projet
+		return ResponseEntity.ok().eTag(EntityTags.of(updated.ownerTag(), updated.version())).body(updated.value());
 	}
 
 	@DeleteMapping("/{id}")
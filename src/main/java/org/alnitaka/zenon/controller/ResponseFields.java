@@ -0,0 +1,93 @@
+package org.alnitaka.zenon.controller;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+import org.alnitaka.zenon.dto.ClientDto;
+import org.alnitaka.zenon.dto.Expand;
+import org.alnitaka.zenon.dto.ProjectDto;
+import org.alnitaka.zenon.exception.InvalidFieldsException;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+/**
+ * Traduit {@code ?fields=} et {@code ?expand=} en associations à lire et en filtres Jackson.
+ * <p>
+ * {@code fields} restreint les propriétés de premier niveau de la ressource ; {@code expand} choisit
+ * les associations embarquées. Une association est lue seulement si elle est à la fois demandée par
+ * {@code expand} (toutes par défaut) et retenue par {@code fields} (toutes par défaut) ; sinon elle
+ * est absente du JSON.
+ */
+final class ResponseFields {
+
+	private ResponseFields() {
+	}
+
+	static Selection forProjects(String fields, String expand) {
+		return select(fields, expand, ProjectDto.FIELDS, EnumSet.allOf(Expand.class));
+	}
+
+	static Selection forClients(String fields, String expand) {
+		return select(fields, expand, ClientDto.FIELDS, EnumSet.of(Expand.OWNER));
+	}
+
+	private static Selection select(String fields, String expand, Set<String> allowedFields, Set<Expand> allowedExpand) {
+		Set<String> selected = parseFields(fields, allowedFields);
+		Set<Expand> expanded = Expand.parse(expand, allowedExpand);
+		expanded.removeIf(association -> !selected.contains(association.field()));
+		// Les associations non lues disparaissent du JSON plutôt que d'y figurer à null
+		allowedExpand.stream()
+			.filter(association -> !expanded.contains(association))
+			.forEach(association -> selected.remove(association.field()));
+		return new Selection(selected, expanded);
+	}
+
+	private static Set<String> parseFields(String fields, Set<String> allowed) {
+		if (fields == null) {
+			return new HashSet<>(allowed);
+		}
+		Set<String> selected = new HashSet<>();
+		for (String token : fields.split(",")) {
+			String name = token.strip();
+			if (name.isEmpty()) {
+				continue;
+			}
+			if (!allowed.contains(name)) {
+				throw new InvalidFieldsException("fields", name);
+			}
+			selected.add(name);
+		}
+		return selected;
+	}
+
+	/**
+	 * @param fields propriétés de premier niveau à sérialiser
+	 * @param expand associations à lire
+	 */
+	record Selection(Set<String> fields, Set<Expand> expand) {
+
+		/** Enveloppe une réponse de projets ; le client embarqué perd son propriétaire s'il n'est pas lu */
+		MappingJacksonValue projects(Object body) {
+			Set<String> clientFields = new HashSet<>(ClientDto.FIELDS);
+			if (!expand.contains(Expand.OWNER)) {
+				clientFields.remove(Expand.OWNER.field());
+			}
+			return wrap(body, new SimpleFilterProvider()
+				.addFilter(ProjectDto.FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(fields))
+				.addFilter(ClientDto.FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(clientFields)));
+		}
+
+		/** Enveloppe une réponse de clients */
+		MappingJacksonValue clients(Object body) {
+			return wrap(body, new SimpleFilterProvider()
+				.addFilter(ClientDto.FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(fields)));
+		}
+
+		private static MappingJacksonValue wrap(Object body, SimpleFilterProvider filters) {
+			MappingJacksonValue value = new MappingJacksonValue(body);
+			value.setFilters(filters);
+			return value;
+		}
+	}
+}
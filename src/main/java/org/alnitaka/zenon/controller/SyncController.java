@@ -0,0 +1,30 @@
+package org.alnitaka.zenon.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.alnitaka.zenon.dto.SyncPage;
+import org.alnitaka.zenon.service.SyncService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@Tag(name = "Sync")
+@RequiredArgsConstructor
+@RequestMapping("/api/sync")
+public class SyncController {
+	private final SyncService syncService;
+
+	@GetMapping
+	@Operation(summary = "Renvoie les clients, projets et tâches modifiés ou supprimés depuis le curseur")
+	public SyncPage changesSince(
+		@Parameter(description = "Curseur `cursor` de la synchronisation précédente (absent : tout synchroniser)")
+		@RequestParam(required = false) String since,
+		@Parameter(description = "Nombre maximal de changements (500 au plus)") @RequestParam(defaultValue = "50") int limit
+	) {
+		return syncService.changesSince(since, limit);
+	}
+}
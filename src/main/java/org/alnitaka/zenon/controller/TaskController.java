@@ -0,0 +1,108 @@
+package org.alnitaka.zenon.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.alnitaka.zenon.dto.BulkResult;
+import org.alnitaka.zenon.dto.TaskDto;
+import org.alnitaka.zenon.dto.TaskStatusChange;
+import org.alnitaka.zenon.dto.Versioned;
+import org.alnitaka.zenon.mapper.TaskMapper;
+import org.alnitaka.zenon.service.OwnerVersionService;
+import org.alnitaka.zenon.service.TaskService;
+import org.alnitaka.zenon.service.UserService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+@RestController
+@Tag(name = "Task")
+@RequiredArgsConstructor
+@RequestMapping("/api/project/{projectId}/tasks")
+public class TaskController {
+	// Taille maximale d'une requête groupée
+	private static final int MAX_BULK = 1000;
+
+	private final TaskService taskService;
+	private final TaskMapper taskMapper;
+	private final OwnerVersionService ownerVersionService;
+	private final UserService userService;
+
+	@GetMapping("/{id}")
+	@Operation(summary = "Récupère une tâche du projet par son ID")
+	public TaskDto getTask(@PathVariable Long projectId, @PathVariable Long id, WebRequest request) {
+		if (request.checkNotModified(EntityTags.of(ownerVersionService.currentETag(), taskService.getVersion(projectId, id)))) {
+			return null;
+		}
+		return taskService.getTask(projectId, id);
+	}
+
+	@PostMapping
+	@Operation(summary = "Ajoute une tâche au projet")
+	public ResponseEntity<TaskDto> create(@PathVariable Long projectId, @RequestBody @Valid TaskDto task) {
+		TaskDto saved = taskMapper.toDto(taskService.create(task, projectId));
+		return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+	}
+
+	@PostMapping("/bulk")
+	@Operation(summary = "Ajoute plusieurs tâches au projet en une transaction")
+	public List<BulkResult> createAll(
+		@PathVariable Long projectId,
+		@RequestBody @Valid @Size(max = MAX_BULK) List<TaskDto> tasks
+	) {
+		return taskService.createAll(projectId, tasks);
+	}
+
+	@PatchMapping("/bulk")
+	@Operation(summary = "Active ou désactive plusieurs tâches du projet en une transaction")
+	public List<BulkResult> updateStatus(
+		@PathVariable Long projectId,
+		@RequestBody @Valid @Size(max = MAX_BULK) List<TaskStatusChange> changes
+	) {
+		return taskService.updateStatus(projectId, changes);
+	}
+
+	@PutMapping("/{id}")
+	@Operation(summary = "Met à jour une tâche du projet ; avec If-Match, seulement si elle n'a pas changé depuis la lecture")
+	@ApiResponse(responseCode = "412", description = "Tâche modifiée depuis l'ETag fourni par If-Match")
+	public ResponseEntity<TaskDto> update(
+		@PathVariable Long projectId,
+		@PathVariable Long id,
+		@RequestBody @Valid TaskDto task,
+		@Parameter(description = "ETag de la dernière lecture de la tâche") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+	) {
+		Versioned<TaskDto> updated = taskService.update(projectId, new TaskDto(id, task.nom(), task.active()),
+			EntityTags.expectedVersion(ifMatch, userService.getCurrentUserId().orElse(null)));
+		// Nouvel ETag : la requête suivante peut poser If-Match sans relire la tâche
+		return ResponseEntity.ok().eTag(EntityTags.of(updated.ownerTag(), updated.version())).body(updated.value());
+	}
+
+	@DeleteMapping("/{id}")
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	@Operation(summary = "Supprime une tâche du projet ; avec If-Match, seulement si elle n'a pas changé depuis la lecture")
+	@ApiResponse(responseCode = "412", description = "Tâche modifiée depuis l'ETag fourni par If-Match")
+	public void delete(
+		@PathVariable Long projectId,
+		@PathVariable Long id,
+		@Parameter(description = "ETag de la dernière lecture de la tâche") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+	) {
+		taskService.delete(projectId, id, EntityTags.expectedVersion(ifMatch, userService.getCurrentUserId().orElse(null)));
+	}
+}
@@ -0,0 +1,26 @@
+package org.alnitaka.zenon.dto;
+
+import java.io.Serializable;
+
+/**
+ * Résultat d'un élément d'une opération groupée, dans l'ordre de la requête.
+ *
+ * @param index position de l'élément dans la requête
+ * @param id identifiant de la tâche créée ou modifiée, {@code null} si l'élément a été rejeté
+ * @param status issue de l'élément
+ */
+public record BulkResult(
+	int index,
+	Long id,
+	Status status
+) implements Serializable {
+
+	public enum Status {
+		CREATED,
+		UPDATED,
+		/** Nom déjà utilisé, en base ou plus haut dans la même requête */
+		DUPLICATE,
+		/** Tâche absente du projet */
+		NOT_FOUND
+	}
+}
@@ -1,15 +1,24 @@
 package org.alnitaka.zenon.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import jakarta.validation.constraints.NotNull;
 import java.io.Serializable;
+import java.util.Set;
 
 /**
  * DTO for {@link org.alnitaka.zenon.entity.Client}
+ * <p>
+ * Les propriétés sérialisées peuvent être restreintes par le filtre Jackson {@value #FILTER}
+ * (paramètres {@code ?fields=} et {@code ?expand=}).
  */
+@JsonFilter(ClientDto.FILTER)
 public record ClientDto(
 	Long id,
 	@NotNull String nom,
 	String email,
 	UserDto owner
 ) implements Serializable {
+
+	public static final String FILTER = "client";
+	public static final Set<String> FIELDS = Set.of("id", "nom", "email", "owner");
 }
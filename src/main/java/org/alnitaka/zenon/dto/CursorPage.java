@@ -0,0 +1,79 @@
+package org.alnitaka.zenon.dto;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import org.alnitaka.zenon.exception.InvalidCursorException;
+
+/**
+ * Page d'une liste parcourue par curseur (pagination « keyset » sur l'identifiant).
+ * <p>
+ * {@code next} est un jeton opaque à renvoyer tel quel pour obtenir la page suivante ; il vaut
+ * {@code null} sur la dernière page. Aucun {@code COUNT(*)} n'est calculé.
+ *
+ * @param items éléments de la page, triés par identifiant croissant
+ * @param next curseur de la page suivante, ou {@code null}
+ */
+public record CursorPage<T>(
+	List<T> items,
+	String next
+) implements Serializable {
+
+	public static final int DEFAULT_LIMIT = 50;
+	public static final int MAX_LIMIT = 500;
+
+	/**
+	 * Construit une page à partir de {@code limit + 1} lignes au plus : la ligne en trop, si elle existe,
+	 * indique seulement qu'une page suivante existe.
+	 */
+	public static <T> CursorPage<T> of(List<T> rows, int limit, ToLongFunction<T> idOf) {
+		if (rows.size() <= limit) {
+			return new CursorPage<>(rows, null);
+		}
+		List<T> items = rows.subList(0, limit);
+		return new CursorPage<>(List.copyOf(items), encode(idOf.applyAsLong(items.get(limit - 1))));
+	}
+
+	public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+		return new CursorPage<>(items.stream().<R>map(mapper).toList(), next);
+	}
+
+	/**
+	 * @return la taille de page demandée, ramenée entre 1 et {@link #MAX_LIMIT}
+	 */
+	public static int clampLimit(int limit) {
+		return Math.clamp(limit, 1, MAX_LIMIT);
+	}
+
+	/**
+	 * @return l'identifiant après lequel reprendre, ou 0 pour la première page
+	 * @throws InvalidCursorException si le curseur n'a pas été produit par {@link #of}
+	 */
+	public static long decode(String cursor) {
+		if (cursor == null || cursor.isBlank()) {
+			return 0L;
+		}
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+			long afterId = Long.parseLong(raw);
+			if (afterId < 0) {
+				throw new InvalidCursorException(cursor);
+			}
+			return afterId;
+		} catch (IllegalArgumentException e) {
+			// Couvre aussi NumberFormatException
+			throw new InvalidCursorException(cursor);
+		}
+	}
+
+	/**
+	 * @return le curseur opaque désignant la position juste après {@code afterId}
+	 */
+	public static String encode(long afterId) {
+		return Base64.getUrlEncoder().withoutPadding()
+			.encodeToString(Long.toString(afterId).getBytes(StandardCharsets.US_ASCII));
+	}
+}
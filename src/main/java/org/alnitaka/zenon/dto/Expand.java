@@ -0,0 +1,46 @@
+package org.alnitaka.zenon.dto;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import org.alnitaka.zenon.exception.InvalidFieldsException;
+
+/**
+ * Associations qu'une réponse peut embarquer (paramètre {@code ?expand=}). Une association non
+ * demandée n'est pas lue en base.
+ */
+public enum Expand {
+	OWNER,
+	CLIENT,
+	TASKS;
+
+	/** Nom de l'association dans le paramètre et dans le JSON */
+	public String field() {
+		return name().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * @param expand valeur du paramètre, liste séparée par des virgules ; {@code null} demande toutes
+	 *               les associations permises, une valeur vide aucune
+	 * @param allowed associations proposées par la ressource
+	 * @throws InvalidFieldsException si une association est inconnue ou non proposée
+	 */
+	public static Set<Expand> parse(String expand, Set<Expand> allowed) {
+		if (expand == null) {
+			return EnumSet.copyOf(allowed);
+		}
+		Set<Expand> result = EnumSet.noneOf(Expand.class);
+		for (String token : expand.split(",")) {
+			String name = token.strip();
+			if (name.isEmpty()) {
+				continue;
+			}
+			Expand value = allowed.stream()
+				.filter(candidate -> candidate.field().equalsIgnoreCase(name))
+				.findFirst()
+				.orElseThrow(() -> new InvalidFieldsException("expand", name));
+			result.add(value);
+		}
+		return result;
+	}
+}
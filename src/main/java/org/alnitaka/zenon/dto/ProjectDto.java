@@ -1,13 +1,19 @@
 package org.alnitaka.zenon.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import jakarta.validation.constraints.NotNull;
 import java.io.Serializable;
 import java.util.List;
+import java.util.Set;
 import org.alnitaka.zenon.entity.Project;
 
 /**
  * DTO for {@link Project}
+ * <p>
+ * Les propriétés sérialisées peuvent être restreintes par le filtre Jackson {@value #FILTER}
+ * (paramètres {@code ?fields=} et {@code ?expand=}).
  */
+@JsonFilter(ProjectDto.FILTER)
 public record ProjectDto(
 	Long id,
 	@NotNull String nom,
@@ -15,4 +21,7 @@ public record ProjectDto(
 	ClientDto client,
 	List<TaskDto> tasks
 ) implements Serializable {
+
+	public static final String FILTER = "project";
+	public static final Set<String> FIELDS = Set.of("id", "nom", "owner", "client", "tasks");
 }
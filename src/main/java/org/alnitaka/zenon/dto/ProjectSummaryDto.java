@@ -0,0 +1,14 @@
+package org.alnitaka.zenon.dto;
+
+import java.io.Serializable;
+
+/**
+ * Résumé d'un {@link org.alnitaka.zenon.entity.Project} : ses compteurs de tâches, sans les tâches.
+ */
+public record ProjectSummaryDto(
+	Long id,
+	String nom,
+	int taskCount,
+	int activeTaskCount
+) implements Serializable {
+}
@@ -0,0 +1,39 @@
+package org.alnitaka.zenon.dto;
+
+import java.io.Serializable;
+import java.util.List;
+import org.alnitaka.zenon.entity.Tombstone;
+
+/**
+ * Page de la synchronisation différentielle : lignes écrites et supprimées depuis le curseur.
+ * <p>
+ * Les lignes sont plates (les associations sont données par leur id) et doivent être appliquées
+ * par l'appareil comme des remplacements, après les suppressions de la même page : un projet cédé
+ * puis rendu figure dans les deux. Une suppression de projet emporte ses tâches.
+ * {@code cursor} est à conserver et à renvoyer à la prochaine synchronisation, même sur la dernière
+ * page ; {@code hasMore} indique qu'il faut redemander immédiatement la suite.
+ *
+ * @param cursor position après le dernier changement renvoyé, jamais {@code null}
+ * @param hasMore {@code true} si d'autres changements suivent déjà
+ */
+public record SyncPage(
+	List<Client> clients,
+	List<Project> projects,
+	List<Task> tasks,
+	List<Deletion> deleted,
+	String cursor,
+	boolean hasMore
+) implements Serializable {
+
+	public record Client(Long id, String nom, String email) implements Serializable {
+	}
+
+	public record Project(Long id, String nom, Long clientId) implements Serializable {
+	}
+
+	public record Task(Long id, Long projectId, String nom, boolean active) implements Serializable {
+	}
+
+	public record Deletion(Tombstone.Type type, Long id) implements Serializable {
+	}
+}
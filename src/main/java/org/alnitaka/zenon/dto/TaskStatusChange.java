@@ -0,0 +1,16 @@
+package org.alnitaka.zenon.dto;
+
+import jakarta.validation.constraints.NotNull;
+import java.io.Serializable;
+
+/**
+ * Changement d'état d'une tâche dans une mise à jour groupée.
+ *
+ * @param id identifiant de la tâche
+ * @param active nouvel état
+ */
+public record TaskStatusChange(
+	@NotNull Long id,
+	boolean active
+) implements Serializable {
+}
@@ -0,0 +1,15 @@
+package org.alnitaka.zenon.dto;
+
+/**
+ * Représentation écrite par une mise à jour, avec de quoi construire son nouvel ETag sans relecture.
+ *
+ * @param value la représentation écrite
+ * @param ownerTag l'ETag des données de l'utilisateur courant après l'écriture
+ * @param version la nouvelle version de l'entité
+ */
+public record Versioned<T>(
+	T value,
+	String ownerTag,
+	long version
+) {
+}
@@ -1,5 +1,6 @@
 package org.alnitaka.zenon.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -8,18 +9,25 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "client")
 @Getter
 @Setter
 @Table
 public class Client {
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "client_seq")
+	@SequenceGenerator(name = "client_seq", sequenceName = "client_seq", allocationSize = 50)
 	private Long id;
 
 	@Column(nullable = false)
@@ -32,4 +40,13 @@ public class Client {
 	@ManyToOne(optional = false, fetch = FetchType.LAZY)
 	@JoinColumn(name = "user_id", nullable = false)
 	private User owner;
+
+	// Verrouillage optimiste ; les mises à jour en une requête l'incrémentent elles-mêmes
+	@Version
+	@Column(nullable = false)
+	private long version;
+
+	// Version des données du propriétaire lors de la dernière écriture, curseur de la synchronisation
+	@Column(nullable = false)
+	private long changeVersion;
 }
@@ -0,0 +1,25 @@
+package org.alnitaka.zenon.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Bail d'un job planifié, tenu par une seule instance de l'application à la fois.
+ * Écrit uniquement par {@code JobLockRepository#acquire}.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "job_lock")
+public class JobLock {
+	@Id
+	private String name;
+
+	// Fin du bail, en millisecondes depuis l'époque
+	@Column(name = "locked_until", nullable = false)
+	private long lockedUntil;
+}
@@ -0,0 +1,25 @@
+package org.alnitaka.zenon.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Version des clients, projets et tâches d'un utilisateur, incrémentée par chaque écriture.
+ * Écrite uniquement par {@code OwnerVersionRepository#bump}.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "owner_version")
+public class OwnerVersion {
+	@Id
+	@Column(name = "user_id")
+	private Long userId;
+
+	@Column(nullable = false)
+	private long version;
+}
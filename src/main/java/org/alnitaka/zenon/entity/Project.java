@@ -1,5 +1,6 @@
 package org.alnitaka.zenon.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -10,15 +11,22 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotNull;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "project")
 @Getter
 @Setter
 @Table
@@ -26,7 +34,8 @@ import lombok.Setter;
 public class Project {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "project_seq")
+	@SequenceGenerator(name = "project_seq", sequenceName = "project_seq", allocationSize = 50)
 	private Long id;
 
 	@Column(nullable = false)
@@ -37,10 +46,30 @@ public class Project {
 	@JoinColumn(name = "user_id", nullable = false)
 	private User owner;
 
-	@ManyToOne(optional = false, fetch = FetchType.LAZY)
+	// Le client est facultatif (colonne nullable) : une jointure de chargement doit rester externe
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "client_id")
 	private Client client;
 
+	// Compteurs dénormalisés : écrits uniquement par les requêtes de ProjectRepository, jamais par l'entité
+	@Column(nullable = false, insertable = false, updatable = false)
+	private int taskCount;
+
+	@Column(nullable = false, insertable = false, updatable = false)
+	private int activeTaskCount;
+
+	// Chargées par lots de projets lors des listes, au lieu d'une requête par projet
+	@BatchSize(size = 100)
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "project-tasks")
 	@OneToMany(mappedBy = "project", cascade = CascadeType.ALL, orphanRemoval = true)
 	private List<Task> tasks = new ArrayList<>();
+
+	// Verrouillage optimiste ; les mises à jour en une requête l'incrémentent elles-mêmes
+	@Version
+	@Column(nullable = false)
+	private long version;
+
+	// Version des données du propriétaire lors de la dernière écriture, curseur de la synchronisation
+	@Column(nullable = false)
+	private long changeVersion;
 }
@@ -1,5 +1,6 @@
 package org.alnitaka.zenon.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -7,18 +8,25 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "task")
 @Getter
 @Setter
 @Table
 public class Task {
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_seq")
+	@SequenceGenerator(name = "task_seq", sequenceName = "task_seq", allocationSize = 50)
 	private Long id;
 
 	@Column(nullable = false)
@@ -31,4 +39,17 @@ public class Task {
 	@ManyToOne
 	@JoinColumn(name = "project_id", nullable = false)
 	private Project project;
+
+	// Propriétaire du projet, recopié pour que la synchronisation lise les tâches d'un utilisateur sur un seul index
+	@Column(name = "user_id", nullable = false)
+	private Long ownerId;
+
+	// Verrouillage optimiste ; les mises à jour en une requête l'incrémentent elles-mêmes
+	@Version
+	@Column(nullable = false)
+	private long version;
+
+	// Version des données du propriétaire lors de la dernière écriture, curseur de la synchronisation
+	@Column(nullable = false)
+	private long changeVersion;
 }
@@ -0,0 +1,51 @@
+package org.alnitaka.zenon.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Trace d'un client, projet ou tâche disparu des données d'un utilisateur (supprimé ou cédé à un
+ * autre utilisateur), pour que la synchronisation différentielle le retire aussi côté appareil.
+ * La pierre tombale d'un projet vaut pour toutes ses tâches.
+ */
+@Entity
+@Getter
+@Table
+@NoArgsConstructor
+public class Tombstone {
+	public enum Type { CLIENT, PROJECT, TASK }
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tombstone_seq")
+	@SequenceGenerator(name = "tombstone_seq", sequenceName = "tombstone_seq", allocationSize = 50)
+	private Long id;
+
+	@Column(name = "user_id", nullable = false)
+	private Long ownerId;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "entity_type", nullable = false, length = 16)
+	private Type entityType;
+
+	@Column(nullable = false)
+	private Long entityId;
+
+	@Column(nullable = false)
+	private long changeVersion;
+
+	public Tombstone(Long ownerId, Type entityType, Long entityId, long changeVersion) {
+		this.ownerId = ownerId;
+		this.entityType = entityType;
+		this.entityId = entityId;
+		this.changeVersion = changeVersion;
+	}
+}
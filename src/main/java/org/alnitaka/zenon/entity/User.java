@@ -1,38 +1,50 @@
 package org.alnitaka.zenon.entity;
 
-import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
-import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
-import jakarta.persistence.FetchType;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.JoinColumn;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.validation.constraints.NotNull;
 import java.util.Date;
-import java.util.HashSet;
+import java.util.EnumSet;
+import java.util.Objects;
 import java.util.Set;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.alnitaka.zenon.entity.converter.RoleSetConverter;
 import org.alnitaka.zenon.security.Role;
+import org.alnitaka.zenon.security.UserAccountListener;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.data.annotation.CreatedDate;
 
 import static jakarta.persistence.TemporalType.TIMESTAMP;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
+@NaturalIdCache(region = "user-email")
 @Getter
 @Setter
 @Table
 @NoArgsConstructor
+@EntityListeners(UserAccountListener.class)
 public class User {
 
 	@Id
 	@Column
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+	@SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 50)
 	private Long id;
 
 	@CreatedDate
@@ -40,6 +52,8 @@ public class User {
 	@Column(name = "date_creation", nullable = false, length = 19)
 	private Date dateCreation = new Date();
 
+	// Identifiant naturel : findUserByEmail passe par le cache email -> id puis le cache d'entités
+	@NaturalId(mutable = true)
 	@Column(nullable = false)
 	@NotNull
 	private String email;
@@ -56,10 +70,21 @@ public class User {
 	@Column(nullable = false)
 	private boolean active = true;
 
-	@ElementCollection(fetch = FetchType.EAGER)
-	@CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
-	@Column(name = "role")
-	private Set<Role> roles = new HashSet<>();
+	/**
+	 * Rôles stockés en masque de bits dans la colonne {@code roles}, voir {@link RoleSetConverter}.
+	 * L'ensemble doit être remplacé via {@link #setRoles(Set)} et non modifié en place.
+	 */
+	@Convert(converter = RoleSetConverter.class)
+	@Column(nullable = false)
+	private Set<Role> roles = EnumSet.noneOf(Role.class);
+
+	/**
+	 * Version de l'état du compte, embarquée dans les JWT émis.
+	 * Elle est incrémentée à chaque changement de mot de passe, d'activation ou de rôles,
+	 * ce qui invalide les jetons émis auparavant lorsque la revalidation est active.
+	 */
+	@Column(name = "token_version", nullable = false)
+	private int tokenVersion;
 
 	public User(String email, String password, String lastname, String firstname) {
 		this.email = email;
@@ -76,4 +101,25 @@ public class User {
 	public User(String email) {
 		this.email = email;
 	}
+
+	public void setPassword(String password) {
+		if (!Objects.equals(this.password, password)) {
+			this.password = password;
+			this.tokenVersion++;
+		}
+	}
+
+	public void setActive(boolean active) {
+		if (this.active != active) {
+			this.active = active;
+			this.tokenVersion++;
+		}
+	}
+
+	public void setRoles(Set<Role> roles) {
+		if (!Objects.equals(this.roles, roles)) {
+			this.roles = roles;
+			this.tokenVersion++;
+		}
+	}
 }
@@ -0,0 +1,43 @@
+package org.alnitaka.zenon.entity.converter;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import java.util.EnumSet;
+import java.util.Set;
+import org.alnitaka.zenon.security.Role;
+
+/**
+ * Stocke un ensemble de {@link Role} dans une seule colonne entière.
+ * <p>
+ * Chaque rôle occupe le bit correspondant à son ordinal ({@code ROLE_USER} = 1, {@code ROLE_ADMIN} = 2, …) :
+ * le chargement d'un utilisateur reste ainsi une lecture d'une seule ligne, sans table de jointure.
+ */
+@Converter
+public class RoleSetConverter implements AttributeConverter<Set<Role>, Integer> {
+
+	private static final Role[] ROLES = Role.values();
+
+	@Override
+	public Integer convertToDatabaseColumn(Set<Role> roles) {
+		int mask = 0;
+		if (roles != null) {
+			for (Role role : roles) {
+				mask |= 1 << role.ordinal();
+			}
+		}
+		return mask;
+	}
+
+	@Override
+	public Set<Role> convertToEntityAttribute(Integer mask) {
+		EnumSet<Role> roles = EnumSet.noneOf(Role.class);
+		if (mask != null) {
+			for (Role role : ROLES) {
+				if ((mask & (1 << role.ordinal())) != 0) {
+					roles.add(role);
+				}
+			}
+		}
+		return roles;
+	}
+}
@@ -0,0 +1,12 @@
+package org.alnitaka.zenon.exception;
+
+/**
+ * Levée lorsqu'une écriture se heurte à une contrainte d'unicité prise entre-temps par une autre
+ * transaction ; traduite en réponse 409.
+ */
+public class ConflictException extends RuntimeException {
+
+	public ConflictException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,11 @@
+package org.alnitaka.zenon.exception;
+
+/**
+ * Levée lorsqu'un curseur de pagination est illisible ; traduite en réponse 400.
+ */
+public class InvalidCursorException extends RuntimeException {
+
+	public InvalidCursorException(String cursor) {
+		super("Curseur de pagination invalide : " + cursor);
+	}
+}
@@ -0,0 +1,11 @@
+package org.alnitaka.zenon.exception;
+
+/**
+ * Levée lorsqu'un champ inconnu est demandé dans {@code ?fields=} ou {@code ?expand=} ; traduite en réponse 400.
+ */
+public class InvalidFieldsException extends RuntimeException {
+
+	public InvalidFieldsException(String parameter, String field) {
+		super("Champ inconnu dans " + parameter + " : " + field);
+	}
+}
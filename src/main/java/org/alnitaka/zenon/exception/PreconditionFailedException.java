@@ -0,0 +1,12 @@
+package org.alnitaka.zenon.exception;
+
+/**
+ * Levée lorsqu'une écriture conditionnelle ({@code If-Match}) vise une version périmée ou
+ * illisible ; traduite en réponse 412.
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+	public PreconditionFailedException(String message) {
+		super(message);
+	}
+}
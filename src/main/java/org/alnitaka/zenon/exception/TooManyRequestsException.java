@@ -0,0 +1,18 @@
+package org.alnitaka.zenon.exception;
+
+import lombok.Getter;
+
+/**
+ * Levée lorsqu'une requête est refusée faute de capacité ; traduite en réponse 429 avec l'en-tête
+ * {@code Retry-After}.
+ */
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+
+	private final long retryAfterSeconds;
+
+	public TooManyRequestsException(String message, long retryAfterSeconds) {
+		super(message);
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+}
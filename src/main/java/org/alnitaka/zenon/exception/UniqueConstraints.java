@@ -0,0 +1,33 @@
+package org.alnitaka.zenon.exception;
+
+import java.util.Locale;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Reconnaît, parmi les erreurs d'intégrité, la violation de l'unicité d'une colonne donnée.
+ * <p>
+ * Les contraintes d'unicité des changelogs ne sont pas nommées : le nom rapporté par le moteur
+ * désigne la colonne (index {@code email} sous MariaDB, {@code ... ON PUBLIC.USER(EMAIL ...)} sous H2).
+ */
+public final class UniqueConstraints {
+
+	private UniqueConstraints() {
+	}
+
+	/**
+	 * @param e l'erreur levée par l'écriture
+	 * @param column la colonne dont l'unicité est attendue
+	 * @return {@code true} seulement si {@code e} vient de la contrainte d'unicité portant sur {@code column}
+	 */
+	public static boolean isViolated(DataIntegrityViolationException e, String column) {
+		for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+			if (cause instanceof ConstraintViolationException violation) {
+				return violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE
+					&& violation.getConstraintName() != null
+					&& violation.getConstraintName().toLowerCase(Locale.ROOT).contains(column.toLowerCase(Locale.ROOT));
+			}
+		}
+		return false;
+	}
+}
@@ -3,14 +3,61 @@ package org.alnitaka.zenon.repository;
 import java.util.List;
 import java.util.Optional;
 import org.alnitaka.zenon.entity.Client;
+import org.alnitaka.zenon.entity.User;
+import org.alnitaka.zenon.repository.projection.ClientChange;
+import org.alnitaka.zenon.repository.projection.ClientRow;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ClientRepository extends JpaRepository<Client, Long> {
-	// Récupère tous les clients de cet utilisateur
-	List<Client> findByOwnerEmail(String email);
+	// Page de clients de cet utilisateur après l'id donné (pagination par curseur, sans OFFSET),
+	// lue en projection : aucune entité n'entre dans le contexte de persistance
+	@Query("""
+		select new org.alnitaka.zenon.repository.projection.ClientRow(c.id, c.nom, c.email, c.owner.id)
+		from Client c
+		where c.owner.id = :ownerId and c.id > :afterId
+		order by c.id""")
+	List<ClientRow> findRowsByOwnerIdAfter(@Param("ownerId") Long ownerId, @Param("afterId") Long afterId, Limit limit);
 
-	// Pour update/delete, charger en une fois
-	Optional<Client> findByIdAndOwnerId(Long id, Long ownerId);
+	@Query("""
+		select new org.alnitaka.zenon.repository.projection.ClientRow(c.id, c.nom, c.email, c.owner.id)
+		from Client c
+		where c.id = :id and c.owner.id = :ownerId""")
+	Optional<ClientRow> findRowByIdAndOwnerId(@Param("id") Long id, @Param("ownerId") Long ownerId);
+
+	// Version seule, pour l'ETag d'une lecture
+	@Query("select c.version from Client c where c.id = :id and c.owner.id = :ownerId")
+	Optional<Long> findVersionByIdAndOwnerId(@Param("id") Long id, @Param("ownerId") Long ownerId);
+
+	boolean existsByIdAndOwnerId(Long id, Long ownerId);
+
+	// Mise à jour en une requête, restreinte au propriétaire et, si elle est donnée, à la version attendue ;
+	// 0 si le client n'est pas à lui ou a changé depuis
+	@Modifying
+	@Query("""
+		update Client c set c.nom = :nom, c.email = :email, c.owner = :newOwner,
+			c.version = c.version + 1, c.changeVersion = :changeVersion
+		where c.id = :id and c.owner.id = :ownerId and (:version is null or c.version = :version)""")
+	int updateByIdAndOwnerId(@Param("id") Long id, @Param("ownerId") Long ownerId,
+		@Param("nom") String nom, @Param("email") String email, @Param("newOwner") User newOwner,
+		@Param("version") Long version, @Param("changeVersion") long changeVersion);
+
+	// Synchronisation : clients écrits après la position (version, id), dans cet ordre
+	@Query("""
+		select new org.alnitaka.zenon.repository.projection.ClientChange(c.changeVersion, c.id, c.nom, c.email)
+		from Client c
+		where c.owner.id = :ownerId
+		and (c.changeVersion > :changeVersion or (c.changeVersion = :changeVersion and c.id > :afterId))
+		order by c.changeVersion, c.id""")
+	List<ClientChange> findChangesByOwnerIdAfter(@Param("ownerId") Long ownerId,
+		@Param("changeVersion") long changeVersion, @Param("afterId") long afterId, Limit limit);
+
+	@Modifying
+	@Query("delete from Client c where c.id = :id and c.owner.id = :ownerId")
+	int deleteByIdAndOwnerId(@Param("id") Long id, @Param("ownerId") Long ownerId);
 }
@@ -0,0 +1,16 @@
+package org.alnitaka.zenon.repository;
+
+import org.alnitaka.zenon.entity.JobLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+	// Prend le bail s'il a expiré, en une requête : 1 pour la seule instance qui l'obtient, 0 pour les autres
+	@Modifying
+	@Query("update JobLock l set l.lockedUntil = :until where l.name = :name and l.lockedUntil <= :now")
+	int acquire(@Param("name") String name, @Param("now") long now, @Param("until") long until);
+}
@@ -0,0 +1,28 @@
+package org.alnitaka.zenon.repository;
+
+import jakarta.persistence.QueryHint;
+import java.util.Optional;
+import org.alnitaka.zenon.entity.OwnerVersion;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OwnerVersionRepository extends JpaRepository<OwnerVersion, Long> {
+	// Une seule clé primaire lue, sans entité
+	@Query("select v.version from OwnerVersion v where v.userId = :ownerId")
+	Optional<Long> findVersionByUserId(@Param("ownerId") Long ownerId);
+
+	// Upsert en une requête, atomique même au premier appel concurrent. L'espace de requête limite
+	// l'invalidation du cache de second niveau à cette table, au lieu de toutes les régions.
+	@Modifying
+	@QueryHints(@QueryHint(name = AvailableHints.HINT_NATIVE_SPACES, value = "owner_version"))
+	@Query(nativeQuery = true, value = """
+		insert into owner_version (user_id, version) values (:ownerId, 1)
+		on duplicate key update version = version + 1""")
+	int bump(@Param("ownerId") Long ownerId);
+}
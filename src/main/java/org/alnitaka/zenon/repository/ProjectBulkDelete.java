@@ -0,0 +1,13 @@
+package org.alnitaka.zenon.repository;
+
+/**
+ * Suppression d'un projet en une requête : ses tâches sont supprimées par la base
+ * ({@code ON DELETE CASCADE} de {@code fk_task_project}), sans être chargées.
+ */
+public interface ProjectBulkDelete {
+
+	/**
+	 * @return le nombre de projets supprimés, 0 si le projet n'existe pas ou n'appartient pas à {@code ownerId}
+	 */
+	int deleteByIdAndOwnerId(Long id, Long ownerId);
+}
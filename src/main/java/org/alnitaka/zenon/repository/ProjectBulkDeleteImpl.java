@@ -0,0 +1,27 @@
+package org.alnitaka.zenon.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.alnitaka.zenon.entity.Task;
+import org.springframework.transaction.annotation.Transactional;
+
+public class ProjectBulkDeleteImpl implements ProjectBulkDelete {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	@Transactional
+	public int deleteByIdAndOwnerId(Long id, Long ownerId) {
+		int deleted = entityManager.createQuery("delete from Project p where p.id = :id and p.owner.id = :ownerId")
+			.setParameter("id", id)
+			.setParameter("ownerId", ownerId)
+			.executeUpdate();
+		if (deleted > 0) {
+			// Hibernate ignore les tâches supprimées par la cascade SQL : le cache de second niveau
+			// pourrait encore les servir
+			entityManager.getEntityManagerFactory().getCache().evict(Task.class);
+		}
+		return deleted;
+	}
+}
@@ -1,16 +1,108 @@
 package org.alnitaka.zenon.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import org.alnitaka.zenon.dto.ProjectSummaryDto;
+import org.alnitaka.zenon.entity.Client;
 import org.alnitaka.zenon.entity.Project;
+import org.alnitaka.zenon.entity.User;
+import org.alnitaka.zenon.repository.projection.ProjectChange;
+import org.alnitaka.zenon.repository.projection.ProjectRow;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface ProjectRepository extends JpaRepository<Project, Long> {
-	// Récupère tous les projets de cet utilisateur
-	List<Project> findByOwnerEmail(String ownerEmail);
+public interface ProjectRepository extends JpaRepository<Project, Long>, ProjectBulkDelete, ProjectTaskCounters {
+	// Page de projets de cet utilisateur après l'id donné (pagination par curseur, sans OFFSET),
+	// lue en projection avec le client ; les tâches sont lues à part, cf. TaskRepository#findRowsByProjectIdIn
+	@Query("""
+		select new org.alnitaka.zenon.repository.projection.ProjectRow(
+			p.id, p.nom, p.owner.id, c.id, c.nom, c.email, c.owner.id)
+		from Project p left join p.client c
+		where p.owner.id = :ownerId and p.id > :afterId
+		order by p.id""")
+	List<ProjectRow> findRowsByOwnerIdAfter(@Param("ownerId") Long ownerId, @Param("afterId") Long afterId, Limit limit);
 
-	// Pour update/delete, charger en une fois
-	Optional<Project> findByIdAndOwnerId(Long id, Long ownerId);
+	@Query("""
+		select new org.alnitaka.zenon.repository.projection.ProjectRow(
+			p.id, p.nom, p.owner.id, c.id, c.nom, c.email, c.owner.id)
+		from Project p left join p.client c
+		where p.id = :id and p.owner.id = :ownerId""")
+	Optional<ProjectRow> findRowByIdAndOwnerId(@Param("id") Long id, @Param("ownerId") Long ownerId);
+
+	// Mêmes lectures sans jointure sur le client, lorsqu'il n'est pas demandé (?expand=)
+	@Query("""
+		select new org.alnitaka.zenon.repository.projection.ProjectRow(p.id, p.nom, p.owner.id)
+		from Project p
+		where p.owner.id = :ownerId and p.id > :afterId
+		order by p.id""")
+	List<ProjectRow> findHeadRowsByOwnerIdAfter(@Param("ownerId") Long ownerId, @Param("afterId") Long afterId, Limit limit);
+
+	@Query("""
+		select new org.alnitaka.zenon.repository.projection.ProjectRow(p.id, p.nom, p.owner.id)
+		from Project p
+		where p.id = :id and p.owner.id = :ownerId""")
+	Optional<ProjectRow> findHeadRowByIdAndOwnerId(@Param("id") Long id, @Param("ownerId") Long ownerId);
+
+	// Contrôle d'appartenance seul, sans charger le projet ni ses tâches
+	boolean existsByIdAndOwnerId(Long id, Long ownerId);
+
+	// Version seule, pour l'ETag d'une lecture
+	@Query("select p.version from Project p where p.id = :id and p.owner.id = :ownerId")
+	Optional<Long> findVersionByIdAndOwnerId(@Param("id") Long id, @Param("ownerId") Long ownerId);
+
+	// Mise à jour en une requête, restreinte au propriétaire et, si elle est donnée, à la version attendue ;
+	// 0 si le projet n'est pas à lui ou a changé depuis
+	@Modifying
+	@Query("""
+		update Project p set p.nom = :nom, p.owner = :newOwner, p.client = :client,
+			p.version = p.version + 1, p.changeVersion = :changeVersion
+		where p.id = :id and p.owner.id = :ownerId and (:version is null or p.version = :version)""")
+	int updateByIdAndOwnerId(@Param("id") Long id, @Param("ownerId") Long ownerId, @Param("nom") String nom,
+		@Param("newOwner") User newOwner, @Param("client") Client client, @Param("version") Long version,
+		@Param("changeVersion") long changeVersion);
+
+	// Synchronisation : projets écrits après la position (version, id), dans cet ordre
+	@Query("""
+		select new org.alnitaka.zenon.repository.projection.ProjectChange(p.changeVersion, p.id, p.nom, p.client.id)
+		from Project p
+		where p.owner.id = :ownerId
+		and (p.changeVersion > :changeVersion or (p.changeVersion = :changeVersion and p.id > :afterId))
+		order by p.changeVersion, p.id""")
+	List<ProjectChange> findChangesByOwnerIdAfter(@Param("ownerId") Long ownerId,
+		@Param("changeVersion") long changeVersion, @Param("afterId") long afterId, Limit limit);
+
+	// Résumés d'une page de projets : compteurs dénormalisés, aucune ligne de tâche lue
+	@Query("""
+		select new org.alnitaka.zenon.dto.ProjectSummaryDto(p.id, p.nom, p.taskCount, p.activeTaskCount)
+		from Project p
+		where p.owner.id = :ownerId and p.id > :afterId
+		order by p.id""")
+	List<ProjectSummaryDto> findSummariesByOwnerIdAfter(@Param("ownerId") Long ownerId, @Param("afterId") Long afterId, Limit limit);
+
+	// Propriétaires dont les projets embarquent ce client, pour invalider leurs ETags
+	@Query("select distinct p.owner.id from Project p where p.client.id = :clientId")
+	List<Long> findOwnerIdsByClientId(@Param("clientId") Long clientId);
+
+	@Query("select distinct p.owner.id from Project p where p.id in :ids")
+	List<Long> findOwnerIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+	// Réparation : projets d'une tranche d'ids ]afterId, untilId] dont les compteurs divergent des tâches,
+	// en un seul GROUP BY parcouru dans l'ordre de la clé primaire
+	@Query("""
+		select p.id from Project p left join p.tasks t
+		where p.id > :afterId and p.id <= :untilId
+		group by p.id, p.taskCount, p.activeTaskCount
+		having p.taskCount <> count(t)
+			or p.activeTaskCount <> coalesce(sum(case when t.active = true then 1 else 0 end), 0)""")
+	List<Long> findIdsWithDriftedTaskCounts(@Param("afterId") long afterId, @Param("untilId") long untilId);
+
+	// Borne du parcours de la réparation ; null sans aucun projet
+	@Query("select max(p.id) from Project p")
+	Long findMaxId();
 }
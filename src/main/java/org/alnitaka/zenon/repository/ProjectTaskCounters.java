@@ -0,0 +1,35 @@
+package org.alnitaka.zenon.repository;
+
+import java.util.Collection;
+
+/**
+ * Compteurs de tâches dénormalisés du projet, tenus à jour par TaskService dans la transaction de
+ * l'écriture et réparés par TaskCounterRepairJob.
+ * <p>
+ * Requêtes SQL natives : une mise à jour HQL en masse viderait, à chaque écriture de tâche, toutes les
+ * régions du cache de second niveau liées au projet et le cache de requêtes. Seul le projet modifié
+ * est ici retiré du cache.
+ */
+public interface ProjectTaskCounters {
+
+	/**
+	 * Ajoute {@code total} au nombre de tâches du projet et {@code active} au nombre de tâches actives.
+	 *
+	 * @return 1, ou 0 si le projet n'existe pas
+	 */
+	int incrementTaskCounts(Long id, int total, int active);
+
+	/**
+	 * À appeler avant la mise à jour des tâches : seules celles dont l'état change sont comptées.
+	 *
+	 * @return 1, ou 0 si le projet n'existe pas
+	 */
+	int adjustActiveTaskCount(Long id, Collection<Long> taskIds, boolean active, int delta);
+
+	/**
+	 * Recompte les tâches du projet, pour la réparation.
+	 *
+	 * @return 1, ou 0 si le projet n'existe pas
+	 */
+	int recountTasks(Long id);
+}
@@ -0,0 +1,64 @@
+package org.alnitaka.zenon.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import java.util.Collection;
+import org.alnitaka.zenon.entity.Project;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+public class ProjectTaskCountersImpl implements ProjectTaskCounters {
+
+	// Espace de requête propre aux compteurs, qui ne correspond à aucune table mappée : Hibernate
+	// n'invalide alors aucune région d'entité ou de collection, et aucune requête en cache (les
+	// compteurs ne sont lus que par des projections non cachées). Le projet est retiré à la main.
+	private static final String QUERY_SPACE = "project_task_counts";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	@Transactional
+	public int incrementTaskCounts(Long id, int total, int active) {
+		return execute(id, entityManager.createNativeQuery("""
+			update project set task_count = task_count + :total, active_task_count = active_task_count + :active
+			where id = :id""")
+			.setParameter("total", total)
+			.setParameter("active", active));
+	}
+
+	@Override
+	@Transactional
+	public int adjustActiveTaskCount(Long id, Collection<Long> taskIds, boolean active, int delta) {
+		return execute(id, entityManager.createNativeQuery("""
+			update project set active_task_count = active_task_count + :delta * (
+				select count(*) from task t where t.project_id = :id and t.id in (:taskIds) and t.active <> :active)
+			where id = :id""")
+			.setParameter("taskIds", taskIds)
+			.setParameter("active", active)
+			.setParameter("delta", delta));
+	}
+
+	@Override
+	@Transactional
+	public int recountTasks(Long id) {
+		return execute(id, entityManager.createNativeQuery("""
+			update project set
+				task_count = (select count(*) from task t where t.project_id = :id),
+				active_task_count = (select count(*) from task t where t.project_id = :id and t.active = true)
+			where id = :id"""));
+	}
+
+	private int execute(Long id, Query query) {
+		int updated = query.setParameter("id", id)
+			.unwrap(NativeQuery.class)
+			.addSynchronizedQuerySpace(QUERY_SPACE)
+			.executeUpdate();
+		if (updated > 0) {
+			// Les compteurs font partie de l'état du projet en cache : seul celui-ci est retiré
+			entityManager.getEntityManagerFactory().getCache().evict(Project.class, id);
+		}
+		return updated;
+	}
+}
@@ -1,9 +1,92 @@
 package org.alnitaka.zenon.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import org.alnitaka.zenon.entity.Task;
+import org.alnitaka.zenon.repository.projection.TaskChange;
+import org.alnitaka.zenon.repository.projection.TaskRow;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface TaskRepository extends JpaRepository<Task, Long> {
+	// Tâches d'une page de projets, en une requête
+	@Query("""
+		select new org.alnitaka.zenon.repository.projection.TaskRow(t.project.id, t.id, t.nom, t.active)
+		from Task t
+		where t.project.id in :projectIds
+		order by t.id""")
+	List<TaskRow> findRowsByProjectIdIn(@Param("projectIds") Collection<Long> projectIds);
+
+	// Noms déjà pris parmi ceux donnés (le nom d'une tâche est unique)
+	@Query("select t.nom from Task t where t.nom in :noms")
+	Set<String> findNomsByNomIn(@Param("noms") Collection<String> noms);
+
+	// Tâches du projet parmi les ids donnés
+	@Query("select t.id from Task t where t.project.id = :projectId and t.id in :ids")
+	Set<Long> findIdsByProjectIdAndIdIn(@Param("projectId") Long projectId, @Param("ids") Collection<Long> ids);
+
+	// Mise à jour ensembliste, restreinte aux projets du propriétaire
+	@Modifying
+	@Query("""
+		update Task t set t.active = :active, t.version = t.version + 1, t.changeVersion = :changeVersion
+		where t.id in :ids and t.project.id = :projectId
+		and exists (select 1 from Project p where p.id = :projectId and p.owner.id = :ownerId)""")
+	int updateActive(@Param("projectId") Long projectId, @Param("ownerId") Long ownerId,
+		@Param("ids") Collection<Long> ids, @Param("active") boolean active, @Param("changeVersion") long changeVersion);
+
+	// Projet cédé à un autre utilisateur : ses tâches passent au nouveau propriétaire, à la version de ses données
+	@Modifying
+	@Query("update Task t set t.ownerId = :ownerId, t.changeVersion = :changeVersion where t.project.id = :projectId")
+	int updateOwnerIdByProjectId(@Param("projectId") Long projectId, @Param("ownerId") Long ownerId,
+		@Param("changeVersion") long changeVersion);
+
+	// Version d'une tâche d'un projet du propriétaire, sans charger la tâche
+	@Query("select t.version from Task t where t.id = :id and t.project.id = :projectId and t.project.owner.id = :ownerId")
+	Optional<Long> findVersionByIdAndProjectIdAndOwnerId(@Param("id") Long id, @Param("projectId") Long projectId,
+		@Param("ownerId") Long ownerId);
+
+	// Tâche d'un projet du propriétaire, avec l'id de ce projet
+	@Query("""
+		select new org.alnitaka.zenon.repository.projection.TaskRow(t.project.id, t.id, t.nom, t.active)
+		from Task t
+		where t.id = :id and t.project.owner.id = :ownerId""")
+	Optional<TaskRow> findRowByIdAndOwnerId(@Param("id") Long id, @Param("ownerId") Long ownerId);
+
+	// Mise à jour et suppression en une requête, restreintes aux projets du propriétaire et à l'état
+	// actuel de la tâche (et, si elle est donnée, à sa version attendue) : l'état est vérifié sous le
+	// verrou de la ligne, ce qui permet d'ajuster les compteurs du projet sans relecture
+	@Modifying
+	@Query("""
+		update Task t set t.nom = :nom, t.active = :active, t.version = t.version + 1, t.changeVersion = :changeVersion
+		where t.id = :id and t.project.id = :projectId and t.active = :wasActive and (:version is null or t.version = :version)
+		and exists (select 1 from Project p where p.id = :projectId and p.owner.id = :ownerId)""")
+	int updateByIdAndOwnerId(@Param("id") Long id, @Param("projectId") Long projectId, @Param("ownerId") Long ownerId,
+		@Param("nom") String nom, @Param("active") boolean active, @Param("wasActive") boolean wasActive,
+		@Param("version") Long version, @Param("changeVersion") long changeVersion);
+
+	@Modifying
+	@Query("""
+		delete from Task t
+		where t.id = :id and t.active = :active and (:version is null or t.version = :version)
+		and exists (select 1 from Project p where p.id = t.project.id and p.owner.id = :ownerId)""")
+	int deleteByIdAndOwnerId(@Param("id") Long id, @Param("ownerId") Long ownerId, @Param("active") boolean active,
+		@Param("version") Long version);
+
+	// Synchronisation : tâches du propriétaire écrites après la position (version, id), dans cet ordre ;
+	// filtre et tri lus tels quels dans idx_task_user_id_change_version, sans jointure ni tri
+	@Query("""
+		select new org.alnitaka.zenon.repository.projection.TaskChange(t.changeVersion, t.id, t.project.id, t.nom, t.active)
+		from Task t
+		where t.ownerId = :ownerId
+		and (t.changeVersion > :changeVersion or (t.changeVersion = :changeVersion and t.id > :afterId))
+		order by t.changeVersion, t.id""")
+	List<TaskChange> findChangesByOwnerIdAfter(@Param("ownerId") Long ownerId,
+		@Param("changeVersion") long changeVersion, @Param("afterId") long afterId, Limit limit);
 }
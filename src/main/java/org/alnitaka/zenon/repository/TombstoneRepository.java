@@ -0,0 +1,23 @@
+package org.alnitaka.zenon.repository;
+
+import java.util.List;
+import org.alnitaka.zenon.entity.Tombstone;
+import org.alnitaka.zenon.repository.projection.TombstoneChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TombstoneRepository extends JpaRepository<Tombstone, Long> {
+	// Synchronisation : pierres tombales posées après la position (version, id), dans cet ordre
+	@Query("""
+		select new org.alnitaka.zenon.repository.projection.TombstoneChange(t.changeVersion, t.id, t.entityType, t.entityId)
+		from Tombstone t
+		where t.ownerId = :ownerId
+		and (t.changeVersion > :changeVersion or (t.changeVersion = :changeVersion and t.id > :afterId))
+		order by t.changeVersion, t.id""")
+	List<TombstoneChange> findChangesByOwnerIdAfter(@Param("ownerId") Long ownerId,
+		@Param("changeVersion") long changeVersion, @Param("afterId") long afterId, Limit limit);
+}
@@ -0,0 +1,13 @@
+package org.alnitaka.zenon.repository;
+
+import java.util.Optional;
+import org.alnitaka.zenon.entity.User;
+
+/**
+ * Recherche d'un utilisateur par son identifiant naturel (l'email), qui profite du cache
+ * d'identifiants naturels et du cache d'entités lorsque le cache de second niveau est actif.
+ */
+public interface UserNaturalIdLookup {
+
+	Optional<User> findUserByEmail(String email);
+}
@@ -0,0 +1,23 @@
+package org.alnitaka.zenon.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.Optional;
+import org.alnitaka.zenon.entity.User;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+public class UserNaturalIdLookupImpl implements UserNaturalIdLookup {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	// La session doit rester ouverte pendant le chargement, d'où la transaction
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<User> findUserByEmail(String email) {
+		return entityManager.unwrap(Session.class)
+			.bySimpleNaturalId(User.class)
+			.loadOptional(email);
+	}
+}
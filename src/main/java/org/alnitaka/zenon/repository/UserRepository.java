@@ -1,12 +1,30 @@
 package org.alnitaka.zenon.repository;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
+import org.alnitaka.zenon.dto.UserDto;
 import org.alnitaka.zenon.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-	
-	Optional<User> findUserByEmail(String email);
+public interface UserRepository extends JpaRepository<User, Long>, UserNaturalIdLookup {
+	// findUserByEmail est fourni par UserNaturalIdLookupImpl (cache d'identifiant naturel)
+
+	// Propriétaires référencés par une page de lecture, directement en DTO
+	@Query("""
+		select new org.alnitaka.zenon.dto.UserDto(u.id, u.dateCreation, u.email, u.lastname, u.firstname, u.active, u.roles)
+		from User u
+		where u.id in :ids""")
+	List<UserDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+	// Réécriture du hash (rehash à la connexion) sans toucher à la version du compte
+	@Transactional
+	@Modifying
+	@Query("update User u set u.password = :password where u.id = :id")
+	int updatePasswordHash(@Param("id") Long id, @Param("password") String password);
 }
@@ -0,0 +1,11 @@
+package org.alnitaka.zenon.repository.projection;
+
+/**
+ * Ligne renvoyée par la synchronisation différentielle, positionnée par la version des données
+ * de son propriétaire lors de sa dernière écriture puis par son id.
+ */
+public interface ChangeRow {
+	long changeVersion();
+
+	Long id();
+}
@@ -0,0 +1,17 @@
+package org.alnitaka.zenon.repository.projection;
+
+import org.alnitaka.zenon.dto.SyncPage;
+
+/**
+ * Client modifié depuis un curseur de synchronisation.
+ */
+public record ClientChange(
+	long changeVersion,
+	Long id,
+	String nom,
+	String email
+) implements ChangeRow {
+	public SyncPage.Client toDto() {
+		return new SyncPage.Client(id, nom, email);
+	}
+}
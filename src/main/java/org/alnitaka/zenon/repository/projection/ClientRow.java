@@ -0,0 +1,18 @@
+package org.alnitaka.zenon.repository.projection;
+
+import org.alnitaka.zenon.dto.ClientDto;
+import org.alnitaka.zenon.dto.UserDto;
+
+/**
+ * Ligne plate d'un client lue par projection JPQL, sans entité gérée.
+ */
+public record ClientRow(
+	Long id,
+	String nom,
+	String email,
+	Long ownerId
+) {
+	public ClientDto toDto(UserDto owner) {
+		return new ClientDto(id, nom, email, owner);
+	}
+}
@@ -0,0 +1,17 @@
+package org.alnitaka.zenon.repository.projection;
+
+import org.alnitaka.zenon.dto.SyncPage;
+
+/**
+ * Projet modifié depuis un curseur de synchronisation, avec l'id de son client éventuel.
+ */
+public record ProjectChange(
+	long changeVersion,
+	Long id,
+	String nom,
+	Long clientId
+) implements ChangeRow {
+	public SyncPage.Project toDto() {
+		return new SyncPage.Project(id, nom, clientId);
+	}
+}
@@ -0,0 +1,37 @@
+package org.alnitaka.zenon.repository.projection;
+
+import java.util.List;
+import java.util.Map;
+import org.alnitaka.zenon.dto.ClientDto;
+import org.alnitaka.zenon.dto.ProjectDto;
+import org.alnitaka.zenon.dto.TaskDto;
+import org.alnitaka.zenon.dto.UserDto;
+
+/**
+ * Ligne plate d'un projet et de son client éventuel, lue par projection JPQL, sans entité gérée.
+ */
+public record ProjectRow(
+	Long id,
+	String nom,
+	Long ownerId,
+	Long clientId,
+	String clientNom,
+	String clientEmail,
+	Long clientOwnerId
+) {
+	// Ligne lue sans jointure sur le client, lorsqu'il n'est pas demandé
+	public ProjectRow(Long id, String nom, Long ownerId) {
+		this(id, nom, ownerId, null, null, null, null);
+	}
+
+	/**
+	 * @param users utilisateurs référencés par la ligne, indexés par id
+	 * @param tasks tâches du projet, {@code null} si elles ne sont pas demandées
+	 */
+	public ProjectDto toDto(Map<Long, UserDto> users, List<TaskDto> tasks) {
+		ClientDto client = clientId == null
+			? null
+			: new ClientDto(clientId, clientNom, clientEmail, users.get(clientOwnerId));
+		return new ProjectDto(id, nom, users.get(ownerId), client, tasks);
+	}
+}
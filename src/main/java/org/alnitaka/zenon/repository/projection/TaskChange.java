@@ -0,0 +1,18 @@
+package org.alnitaka.zenon.repository.projection;
+
+import org.alnitaka.zenon.dto.SyncPage;
+
+/**
+ * Tâche modifiée depuis un curseur de synchronisation, avec l'id de son projet.
+ */
+public record TaskChange(
+	long changeVersion,
+	Long id,
+	Long projectId,
+	String nom,
+	boolean active
+) implements ChangeRow {
+	public SyncPage.Task toDto() {
+		return new SyncPage.Task(id, projectId, nom, active);
+	}
+}
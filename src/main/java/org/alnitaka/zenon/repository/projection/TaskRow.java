@@ -0,0 +1,17 @@
+package org.alnitaka.zenon.repository.projection;
+
+import org.alnitaka.zenon.dto.TaskDto;
+
+/**
+ * Ligne plate d'une tâche, avec l'id de son projet pour le regroupement.
+ */
+public record TaskRow(
+	Long projectId,
+	Long id,
+	String nom,
+	boolean active
+) {
+	public TaskDto toDto() {
+		return new TaskDto(id, nom, active);
+	}
+}
@@ -0,0 +1,18 @@
+package org.alnitaka.zenon.repository.projection;
+
+import org.alnitaka.zenon.dto.SyncPage;
+import org.alnitaka.zenon.entity.Tombstone;
+
+/**
+ * Pierre tombale posée depuis un curseur de synchronisation ; {@code id} est celui de la pierre tombale.
+ */
+public record TombstoneChange(
+	long changeVersion,
+	Long id,
+	Tombstone.Type entityType,
+	Long entityId
+) implements ChangeRow {
+	public SyncPage.Deletion toDto() {
+		return new SyncPage.Deletion(entityType, entityId);
+	}
+}
@@ -0,0 +1,83 @@
+package org.alnitaka.zenon.security;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Choisit les paramètres Argon2 les plus robustes dont le temps de hachage tient dans un budget.
+ * <p>
+ * La mémoire est doublée à partir de celle de référence jusqu'à {@code maxMemoryKb} ; pour chaque
+ * palier, les itérations sont augmentées tant que la mesure reste sous le budget. Le réglage retenu
+ * est celui de plus grand {@link Argon2Settings#cost() coût} (à coût égal, le plus gourmand en mémoire).
+ */
+@Slf4j
+public class Argon2Calibrator {
+
+	private static final int SAMPLES = 3;
+
+	private final Duration latencyBudget;
+	private final int maxMemoryKb;
+	private final int maxIterations;
+	private final Function<Argon2Settings, Duration> timer;
+
+	public Argon2Calibrator(Duration latencyBudget, int maxMemoryKb, int maxIterations) {
+		this(latencyBudget, maxMemoryKb, maxIterations, Argon2Calibrator::measure);
+	}
+
+	Argon2Calibrator(Duration latencyBudget, int maxMemoryKb, int maxIterations, Function<Argon2Settings, Duration> timer) {
+		this.latencyBudget = latencyBudget;
+		this.maxMemoryKb = maxMemoryKb;
+		this.maxIterations = maxIterations;
+		this.timer = timer;
+	}
+
+	/**
+	 * @param baseline réglage de référence (sel, taille du hash, parallélisme et mémoire de départ)
+	 * @return le réglage le plus robuste sous le budget, ou {@code baseline} si aucun ne convient
+	 */
+	public Argon2Settings calibrate(Argon2Settings baseline) {
+		Argon2Settings best = null;
+		for (int memoryKb = baseline.memoryKb(); memoryKb <= maxMemoryKb; memoryKb *= 2) {
+			Argon2Settings fittest = null;
+			for (int iterations = 1; iterations <= maxIterations; iterations++) {
+				Argon2Settings candidate = baseline.withCost(memoryKb, iterations);
+				Duration elapsed = timer.apply(candidate);
+				log.debug("Calibration Argon2 : m={} t={} p={} -> {} ms",
+					memoryKb, iterations, candidate.parallelism(), elapsed.toMillis());
+				if (elapsed.compareTo(latencyBudget) > 0) {
+					break;
+				}
+				fittest = candidate;
+			}
+			if (fittest == null) {
+				// Même une seule itération dépasse le budget : inutile d'augmenter la mémoire
+				break;
+			}
+			if (best == null || fittest.cost() >= best.cost()) {
+				best = fittest;
+			}
+		}
+		if (best == null) {
+			log.warn("Calibration Argon2 : aucun réglage sous {} ms, conservation de {}", latencyBudget.toMillis(), baseline);
+			return baseline;
+		}
+		log.info("Calibration Argon2 : {} retenu pour un budget de {} ms", best, latencyBudget.toMillis());
+		return best;
+	}
+
+	// Médiane de quelques hachages, après un premier appel de chauffe
+	private static Duration measure(Argon2Settings settings) {
+		var encoder = settings.toEncoder();
+		encoder.encode("calibration");
+		long[] samples = new long[SAMPLES];
+		for (int i = 0; i < SAMPLES; i++) {
+			long start = System.nanoTime();
+			encoder.encode("calibration");
+			samples[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(samples);
+		return Duration.ofNanos(samples[SAMPLES / 2]);
+	}
+}
@@ -0,0 +1,58 @@
+package org.alnitaka.zenon.security;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+
+/**
+ * Paramètres Argon2 utilisés pour hacher les mots de passe.
+ *
+ * @param saltLength  longueur du sel en octets
+ * @param hashLength  taille du hash en octets
+ * @param parallelism nombre de voies
+ * @param memoryKb    mémoire en KB
+ * @param iterations  nombre d'itérations
+ */
+public record Argon2Settings(int saltLength, int hashLength, int parallelism, int memoryKb, int iterations) {
+
+	/**
+	 * Valeurs de {@link Argon2PasswordEncoder#defaultsForSpringSecurity_v5_8()}.
+	 */
+	public static final Argon2Settings SPRING_V5_8_DEFAULTS = new Argon2Settings(16, 32, 1, 1 << 12, 3);
+
+	// Paramètres de coût d'un hash Argon2 encodé, toujours dans l'ordre m, t, p
+	private static final Pattern ENCODED_COST = Pattern.compile("^\\$argon2(?:id|i|d)\\$(?:v=\\d+\\$)?m=(\\d{1,9}),t=(\\d{1,9}),p=(\\d{1,9})\\$");
+
+	public Argon2Settings withCost(int memoryKb, int iterations) {
+		return new Argon2Settings(saltLength, hashLength, parallelism, memoryKb, iterations);
+	}
+
+	/**
+	 * Coût relatif d'un hachage, utilisé pour comparer la robustesse de deux réglages.
+	 */
+	public long cost() {
+		return (long) memoryKb * iterations * parallelism;
+	}
+
+	public Argon2PasswordEncoder toEncoder() {
+		return new Argon2PasswordEncoder(saltLength, hashLength, parallelism, memoryKb, iterations);
+	}
+
+	/**
+	 * Indique si un hash encodé ({@code $argon2id$v=19$m=4096,t=3,p=1$sel$hash}) a été produit avec
+	 * une mémoire, un nombre d'itérations ou un parallélisme inférieur à ces paramètres. Un hash plus
+	 * coûteux sur un paramètre et moins sur un autre est donc recalculé.
+	 *
+	 * @param encodedPassword le hash stocké
+	 * @return {@code true} si l'un des paramètres du hash est plus faible, ou si le hash n'est pas un hash Argon2
+	 */
+	public boolean isStrongerThan(String encodedPassword) {
+		Matcher cost = encodedPassword == null ? null : ENCODED_COST.matcher(encodedPassword);
+		if (cost == null || !cost.find()) {
+			return true;
+		}
+		return Integer.parseInt(cost.group(1)) < memoryKb
+			|| Integer.parseInt(cost.group(2)) < iterations
+			|| Integer.parseInt(cost.group(3)) < parallelism;
+	}
+}
@@ -0,0 +1,118 @@
+package org.alnitaka.zenon.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.alnitaka.zenon.exception.TooManyRequestsException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * {@link PasswordEncoder} qui exécute le hachage et la vérification sur un pool de threads dédié.
+ * <p>
+ * Le pool est de taille fixe et sa file d'attente est bornée : au-delà, l'appel est refusé
+ * immédiatement par une {@link TooManyRequestsException} (réponse 429) au lieu de mobiliser
+ * un thread Tomcat et du CPU. Les autres endpoints restent ainsi réactifs pendant un pic de connexions.
+ * <p>
+ * Métriques publiées : {@code security.argon2.queue.depth}, {@code security.argon2.active}
+ * et le temps de hachage {@code security.argon2.hash} (tag {@code operation}).
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+	private final PasswordEncoder delegate;
+
+	private final ThreadPoolExecutor executor;
+
+	private final long retryAfterSeconds;
+
+	private final Timer encodeTimer;
+
+	private final Timer matchesTimer;
+
+	public BoundedPasswordEncoder(
+		PasswordEncoder delegate,
+		int threads,
+		int queueCapacity,
+		long retryAfterSeconds,
+		MeterRegistry meterRegistry
+	) {
+		this.delegate = delegate;
+		this.retryAfterSeconds = retryAfterSeconds;
+		AtomicInteger counter = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(
+			threads, threads, 0L, TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(queueCapacity),
+			runnable -> {
+				Thread thread = new Thread(runnable, "argon2-" + counter.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			},
+			new ThreadPoolExecutor.AbortPolicy()
+		);
+		Gauge.builder("security.argon2.queue.depth", executor, pool -> pool.getQueue().size())
+			.description("Hachages de mot de passe en attente")
+			.register(meterRegistry);
+		Gauge.builder("security.argon2.active", executor, ThreadPoolExecutor::getActiveCount)
+			.description("Hachages de mot de passe en cours")
+			.register(meterRegistry);
+		this.encodeTimer = Timer.builder("security.argon2.hash").tag("operation", "encode").register(meterRegistry);
+		this.matchesTimer = Timer.builder("security.argon2.hash").tag("operation", "matches").register(meterRegistry);
+	}
+
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return execute(encodeTimer, () -> delegate.encode(rawPassword));
+	}
+
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return execute(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+	}
+
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		// Simple lecture des paramètres du hash : pas besoin du pool
+		return delegate.upgradeEncoding(encodedPassword);
+	}
+
+	/**
+	 * @return le nombre de hachages en attente d'un thread du pool
+	 */
+	public int getQueueDepth() {
+		return executor.getQueue().size();
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdownNow();
+	}
+
+	private <T> T execute(Timer timer, Callable<T> task) {
+		Future<T> future;
+		try {
+			future = executor.submit(() -> timer.recordCallable(task));
+		} catch (RejectedExecutionException e) {
+			throw new TooManyRequestsException("Trop de demandes d'authentification simultanées", retryAfterSeconds);
+		}
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Hachage du mot de passe interrompu", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException runtime) {
+				throw runtime;
+			}
+			throw new IllegalStateException("Échec du hachage du mot de passe", e.getCause());
+		}
+	}
+}
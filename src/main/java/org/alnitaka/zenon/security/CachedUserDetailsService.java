@@ -0,0 +1,67 @@
+package org.alnitaka.zenon.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Décorateur de {@link UserDetailsService} qui conserve les comptes chargés en mémoire.
+ * <p>
+ * Le cache est borné en taille et en durée de vie ; il est invalidé par
+ * {@link UserAccountChangedEvent} dès qu'un utilisateur est modifié ou supprimé, de sorte qu'un
+ * compte désactivé ou dont le mot de passe a changé n'est plus servi depuis le cache.
+ * Les statistiques sont publiées sous le nom de cache {@code users}.
+ */
+public class CachedUserDetailsService implements UserDetailsService {
+
+	private final UserDetailsService delegate;
+
+	private final Cache<String, UserDetails> cache;
+
+	public CachedUserDetailsService(UserDetailsService delegate, MeterRegistry meterRegistry, long maximumSize, Duration ttl) {
+		this.delegate = delegate;
+		this.cache = Caffeine.newBuilder()
+			.maximumSize(maximumSize)
+			.expireAfterWrite(ttl)
+			.recordStats()
+			.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+	}
+
+	@Override
+	public UserDetails loadUserByUsername(String email) {
+		// Une UsernameNotFoundException levée par le délégué n'est pas mise en cache
+		return cache.get(email, delegate::loadUserByUsername);
+	}
+
+	/**
+	 * Retire du cache le compte concerné, après validation de la transaction qui l'a modifié.
+	 *
+	 * @param event l'événement de modification
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onUserAccountChanged(UserAccountChangedEvent event) {
+		evict(event.userId(), event.email());
+	}
+
+	/**
+	 * Retire un compte du cache, y compris sous un ancien email s'il a changé.
+	 *
+	 * @param userId l'identifiant de l'utilisateur
+	 * @param email  l'email courant de l'utilisateur
+	 */
+	public void evict(Long userId, String email) {
+		if (email != null) {
+			cache.invalidate(email);
+		}
+		if (userId != null) {
+			cache.asMap().values().removeIf(user -> user instanceof UserPrincipal principal
+				&& userId.equals(principal.getId()));
+		}
+	}
+}
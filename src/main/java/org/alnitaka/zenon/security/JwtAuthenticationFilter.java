@@ -1,15 +1,19 @@
 package org.alnitaka.zenon.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Optional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -20,21 +24,58 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
 	private final JwtTokenProvider tokenProvider;
 
+	private final VerifiedTokenCache tokenCache;
+
 	private final UserDetailsService userDetailsService;
 
+	/**
+	 * Si actif (par défaut), la version du compte portée par le jeton est comparée à celle du compte
+	 * courant, lu via le {@link UserDetailsService} en cache (invalidé à chaque modification du compte),
+	 * afin de rejeter immédiatement les comptes désactivés ou modifiés. Désactivé, un jeton émis avant
+	 * la désactivation ou le changement de mot de passe reste accepté jusqu'à son expiration.
+	 */
+	@Value("${jwt.revalidate:true}")
+	private boolean revalidate = true;
+
 	@Override
 	protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain) throws ServletException, IOException {
 		String header = req.getHeader("Authorization");
 		if (header != null && header.startsWith("Bearer ")) {
 			String token = header.substring(7);
-			if (tokenProvider.validateToken(token)) {
-				String username = tokenProvider.getUsernameFromJwt(token);
-				UserDetails user = userDetailsService.loadUserByUsername(username);
-				UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
-				auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
-				SecurityContextHolder.getContext().setAuthentication(auth);
+			if (tokenCache.verify(token) instanceof TokenVerification.Valid valid) {
+				UserDetails user = resolveUser(valid.claims());
+				if (user != null) {
+					UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+					auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
+					SecurityContextHolder.getContext().setAuthentication(auth);
+				}
 			}
 		}
 		chain.doFilter(req, res);
 	}
+
+	private UserDetails resolveUser(Claims claims) {
+		Optional<UserPrincipal> fromClaims = tokenProvider.getPrincipal(claims);
+		if (fromClaims.isEmpty()) {
+			// Jeton émis sans claims : on retombe sur la lecture complète de l'utilisateur
+			return userDetailsService.loadUserByUsername(claims.getSubject());
+		}
+		UserPrincipal principal = fromClaims.get();
+		if (revalidate && !isAccountUnchanged(principal)) {
+			return null;
+		}
+		return principal;
+	}
+
+	private boolean isAccountUnchanged(UserPrincipal principal) {
+		try {
+			UserDetails current = userDetailsService.loadUserByUsername(principal.getEmail());
+			return current.isEnabled()
+				&& current instanceof UserPrincipal account
+				&& account.getId().equals(principal.getId())
+				&& account.getTokenVersion() == principal.getTokenVersion();
+		} catch (UsernameNotFoundException e) {
+			return false;
+		}
+	}
 }
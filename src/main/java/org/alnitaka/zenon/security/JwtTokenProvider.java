@@ -1,9 +1,19 @@
 package org.alnitaka.zenon.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.crypto.SecretKey;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
@@ -13,11 +23,25 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class JwtTokenProvider {
 
-	@Value("${jwt.secret}")
-	private String jwtSecret;
+	static final String CLAIM_USER_ID = "uid";
+	static final String CLAIM_ROLES = "roles";
+	static final String CLAIM_VERSION = "ver";
 
-	@Value("${jwt.expiration-ms}")
-	private long jwtExpirationMs;
+	// Clé et parser construits une seule fois : le parser est immuable et thread-safe
+	private final SecretKey signingKey;
+
+	private final JwtParser parser;
+
+	private final long jwtExpirationMs;
+
+	public JwtTokenProvider(
+		@Value("${jwt.secret}") String jwtSecret,
+		@Value("${jwt.expiration-ms}") long jwtExpirationMs
+	) {
+		this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+		this.parser = Jwts.parser().verifyWith(signingKey).build();
+		this.jwtExpirationMs = jwtExpirationMs;
+	}
 
 	// 1. Génération du token
 	public String generateToken(Authentication authentication) {
@@ -25,35 +49,55 @@ public class JwtTokenProvider {
 		Date now = new Date();
 		Date expiry = new Date(now.getTime() + jwtExpirationMs);
 
-		return Jwts.builder()
+		JwtBuilder builder = Jwts.builder()
 				.subject(username)
 				.issuedAt(now)
-				.expiration(expiry)
-				.signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes()), Jwts.SIG.HS512)
+				.expiration(expiry);
+		// Les claims suffisent au filtre pour reconstruire le principal sans requête SQL
+		if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+			builder.claim(CLAIM_USER_ID, principal.getId())
+					.claim(CLAIM_ROLES, principal.getRoles().stream().map(Role::name).toList())
+					.claim(CLAIM_VERSION, principal.getTokenVersion());
+		}
+		return builder
+				.signWith(signingKey, Jwts.SIG.HS512)
 				.compact();
 	}
 
-	// 2. Lecture du username
-	public String getUsernameFromJwt(String token) {
-		return Jwts.parser()
-				.verifyWith(Keys.hmacShaKeyFor(jwtSecret.getBytes()))
-				.build()
-				.parseSignedClaims(token)
-				.getPayload()
-				.getSubject();
+	// 2. Vérification du token : une seule analyse et une seule vérification HMAC
+	public TokenVerification verify(String token) {
+		try {
+			return new TokenVerification.Valid(parser.parseSignedClaims(token).getPayload());
+		} catch (ExpiredJwtException e) {
+			return invalid(TokenVerification.Failure.EXPIRED, e);
+		} catch (io.jsonwebtoken.security.SecurityException e) {
+			return invalid(TokenVerification.Failure.BAD_SIGNATURE, e);
+		} catch (UnsupportedJwtException e) {
+			return invalid(TokenVerification.Failure.UNSUPPORTED, e);
+		} catch (JwtException e) {
+			return invalid(TokenVerification.Failure.MALFORMED, e);
+		} catch (IllegalArgumentException e) {
+			return invalid(TokenVerification.Failure.EMPTY, e);
+		}
 	}
 
-	// 3. Validation du token
-	public boolean validateToken(String token) {
-		try {
-			Jwts.parser()
-					.verifyWith(Keys.hmacShaKeyFor(jwtSecret.getBytes()))
-					.build()
-					.parseSignedClaims(token);
-			return true;
-		} catch (JwtException | IllegalArgumentException e) {
-			 log.warn("JWT invalide", e);
-			return false;
+	// 3. Lecture du principal embarqué dans les claims (vide pour un jeton sans claims)
+	public Optional<UserPrincipal> getPrincipal(Claims claims) {
+		Long userId = claims.get(CLAIM_USER_ID, Long.class);
+		Integer version = claims.get(CLAIM_VERSION, Integer.class);
+		if (userId == null || version == null) {
+			return Optional.empty();
 		}
+		List<?> roleNames = claims.get(CLAIM_ROLES, List.class);
+		Set<Role> roles = roleNames == null ? Set.of() : roleNames.stream()
+				.map(name -> Role.valueOf(name.toString()))
+				.collect(Collectors.toSet());
+		return Optional.of(new UserPrincipal(userId, claims.getSubject(), null, roles, version, true));
+	}
+
+	private static TokenVerification invalid(TokenVerification.Failure failure, Exception e) {
+		log.warn("JWT invalide ({}) : {}", failure, e.getMessage());
+		log.debug("Détail du rejet JWT", e);
+		return new TokenVerification.Invalid(failure);
 	}
 }
@@ -0,0 +1,186 @@
+package org.alnitaka.zenon.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.alnitaka.zenon.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limiteur de tentatives de connexion, par adresse IP et par compte (email normalisé).
+ * <p>
+ * Chaque clé dispose d'un seau de jetons de capacité {@code capacity}, rechargé d'un jeton toutes les
+ * {@code refill-period-ms}. Le seau est un simple {@link AtomicLong} (algorithme GCRA : on mémorise
+ * l'instant théorique de la prochaine arrivée) mis à jour par CAS, donc sans verrou. Les seaux sont
+ * conservés dans un cache Caffeine borné en taille et purgé des clés inactives.
+ * <p>
+ * Le contrôle a lieu avant toute vérification Argon2 : une rafale de tentatives est refusée en 429
+ * sans consommer de CPU de hachage. Les deux seaux sont consultés avant d'en débiter un : une tentative
+ * refusée pour l'un ne coûte rien à l'autre.
+ * <p>
+ * Le seau par compte ne dépend que de l'email saisi : quiconque connaît un email peut épuiser ses jetons
+ * et en bloquer la connexion, depuis n'importe quelle adresse, tant qu'il renouvelle ses tentatives.
+ * C'est le prix de la protection contre une recherche de mot de passe répartie sur plusieurs adresses ;
+ * garder {@code per-account.refill-period-ms} court, et surveiller {@code security.login.throttled{key=account}}.
+ */
+@Component
+public class LoginRateLimiter {
+
+	private final boolean enabled;
+	private final Limit perIp;
+	private final Limit perAccount;
+	private final LongSupplier clock;
+	private final Counter ipRejections;
+	private final Counter accountRejections;
+
+	@Autowired
+	public LoginRateLimiter(
+		MeterRegistry meterRegistry,
+		@Value("${security.login-rate-limit.enabled:true}") boolean enabled,
+		@Value("${security.login-rate-limit.per-ip.capacity:20}") int ipCapacity,
+		@Value("${security.login-rate-limit.per-ip.refill-period-ms:3000}") long ipRefillPeriodMs,
+		@Value("${security.login-rate-limit.per-account.capacity:5}") int accountCapacity,
+		@Value("${security.login-rate-limit.per-account.refill-period-ms:60000}") long accountRefillPeriodMs,
+		@Value("${security.login-rate-limit.maximum-keys:100000}") long maximumKeys
+	) {
+		this(meterRegistry, enabled, ipCapacity, ipRefillPeriodMs, accountCapacity, accountRefillPeriodMs,
+			maximumKeys, System::nanoTime);
+	}
+
+	LoginRateLimiter(
+		MeterRegistry meterRegistry,
+		boolean enabled,
+		int ipCapacity,
+		long ipRefillPeriodMs,
+		int accountCapacity,
+		long accountRefillPeriodMs,
+		long maximumKeys,
+		LongSupplier clock
+	) {
+		this.enabled = enabled;
+		this.clock = clock;
+		this.perIp = new Limit(ipCapacity, ipRefillPeriodMs, maximumKeys, clock);
+		this.perAccount = new Limit(accountCapacity, accountRefillPeriodMs, maximumKeys, clock);
+		this.ipRejections = Counter.builder("security.login.throttled")
+			.tag("key", "ip")
+			.register(meterRegistry);
+		this.accountRejections = Counter.builder("security.login.throttled")
+			.tag("key", "account")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * Consomme un jeton pour l'adresse et pour le compte visés, seulement si les deux seaux en ont un.
+	 *
+	 * @param clientIp adresse du client
+	 * @param email email saisi, normalisé avant usage
+	 * @throws TooManyRequestsException si l'un des deux seaux est vide ; aucun n'est alors débité
+	 */
+	public void check(String clientIp, String email) {
+		if (!enabled) {
+			return;
+		}
+		long now = clock.getAsLong();
+		String ip = String.valueOf(clientIp);
+		String account = normalize(email);
+		long ipWait = perIp.waitTime(ip, now);
+		long accountWait = perAccount.waitTime(account, now);
+		if (ipWait > 0 || accountWait > 0) {
+			if (ipWait > 0) {
+				ipRejections.increment();
+			}
+			if (accountWait > 0) {
+				accountRejections.increment();
+			}
+			throw rejection(Math.max(ipWait, accountWait));
+		}
+		// Un jeton a pu être pris entre-temps par une tentative concurrente : celui de l'adresse est alors rendu
+		ipWait = perIp.tryAcquire(ip, now);
+		if (ipWait > 0) {
+			ipRejections.increment();
+			throw rejection(ipWait);
+		}
+		accountWait = perAccount.tryAcquire(account, now);
+		if (accountWait > 0) {
+			perIp.release(ip);
+			accountRejections.increment();
+			throw rejection(accountWait);
+		}
+	}
+
+	static String normalize(String email) {
+		return email == null ? "" : email.strip().toLowerCase(Locale.ROOT);
+	}
+
+	private static TooManyRequestsException rejection(long waitNanos) {
+		long seconds = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+		return new TooManyRequestsException("Trop de tentatives de connexion", seconds);
+	}
+
+	/**
+	 * Ensemble de seaux partageant la même capacité et le même débit.
+	 */
+	private static final class Limit {
+
+		private final long intervalNanos;
+		private final long burstNanos;
+		private final Cache<String, AtomicLong> buckets;
+
+		Limit(int capacity, long refillPeriodMs, long maximumKeys, LongSupplier clock) {
+			this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(refillPeriodMs);
+			this.burstNanos = intervalNanos * capacity;
+			// Un seau inactif depuis une recharge complète est plein : il peut être oublié sans effet
+			this.buckets = Caffeine.newBuilder()
+				.maximumSize(maximumKeys)
+				.expireAfterAccess(burstNanos, TimeUnit.NANOSECONDS)
+				.ticker(clock::getAsLong)
+				.build();
+		}
+
+		/**
+		 * @return 0 si un jeton est disponible, sinon l'attente en nanosecondes avant le prochain jeton ; rien n'est pris
+		 */
+		long waitTime(String key, long now) {
+			AtomicLong theoreticalArrival = buckets.getIfPresent(key);
+			if (theoreticalArrival == null) {
+				return 0L;
+			}
+			return Math.max(0L, Math.max(theoreticalArrival.get(), now) + intervalNanos - now - burstNanos);
+		}
+
+		/**
+		 * Rend le jeton pris par le dernier {@link #tryAcquire(String, long)} réussi pour cette clé.
+		 */
+		void release(String key) {
+			AtomicLong theoreticalArrival = buckets.getIfPresent(key);
+			if (theoreticalArrival != null) {
+				theoreticalArrival.addAndGet(-intervalNanos);
+			}
+		}
+
+		/**
+		 * @return 0 si un jeton a été pris, sinon l'attente en nanosecondes avant le prochain jeton
+		 */
+		long tryAcquire(String key, long now) {
+			AtomicLong theoreticalArrival = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+			while (true) {
+				long current = theoreticalArrival.get();
+				long next = Math.max(current, now) + intervalNanos;
+				long excess = next - now - burstNanos;
+				if (excess > 0) {
+					return excess;
+				}
+				if (theoreticalArrival.compareAndSet(current, next)) {
+					return 0L;
+				}
+			}
+		}
+	}
+}
@@ -6,6 +6,6 @@ package org.alnitaka.zenon.security;
 public enum Role {
 	ROLE_USER,
 	ROLE_ADMIN
-	// /!\ → Il ne faut pas changer l'ordre des rôles, les valeurs en BDD en dépendent
+	// /!\ → Il ne faut pas changer l'ordre des rôles : l'ordinal donne le bit du masque stocké en BDD (RoleSetConverter)
 	// Ajoutez ici d’autres rôles si besoin, par ex. ROLE_MANAGER, ROLE_SUPPORT, etc.
 }
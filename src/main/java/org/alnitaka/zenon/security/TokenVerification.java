@@ -0,0 +1,38 @@
+package org.alnitaka.zenon.security;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Résultat d'une vérification de JWT : soit les claims du jeton valide, soit la cause de l'échec.
+ * <p>
+ * Produit par {@link JwtTokenProvider#verify(String)} en une seule analyse du jeton.
+ */
+public sealed interface TokenVerification permits TokenVerification.Valid, TokenVerification.Invalid {
+
+	/**
+	 * Jeton dont la signature et les dates ont été vérifiées.
+	 *
+	 * @param claims le contenu signé du jeton
+	 */
+	record Valid(Claims claims) implements TokenVerification {
+	}
+
+	/**
+	 * Jeton rejeté.
+	 *
+	 * @param failure la cause du rejet
+	 */
+	record Invalid(Failure failure) implements TokenVerification {
+	}
+
+	/**
+	 * Causes possibles de rejet d'un jeton.
+	 */
+	enum Failure {
+		EXPIRED,
+		BAD_SIGNATURE,
+		MALFORMED,
+		UNSUPPORTED,
+		EMPTY
+	}
+}
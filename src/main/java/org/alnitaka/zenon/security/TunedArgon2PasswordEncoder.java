@@ -0,0 +1,43 @@
+package org.alnitaka.zenon.security;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Encodeur Argon2 construit à partir d'{@link Argon2Settings}.
+ * <p>
+ * Un hash dont la mémoire, les itérations ou le parallélisme sont inférieurs aux paramètres courants
+ * est signalé via {@link #upgradeEncoding(String)} et sera recalculé à la prochaine connexion réussie ;
+ * un hash au moins aussi coûteux est conservé. Contrairement à {@link Argon2PasswordEncoder}, un hash
+ * qui n'est pas un hash Argon2 est lui aussi signalé, au lieu de faire échouer la vérification.
+ * <p>
+ * Sur plusieurs instances, les paramètres doivent être identiques partout ({@code security.argon2.*}
+ * fixés, sans {@code calibrate}) : deux réglages dont aucun ne domine l'autre feraient recalculer
+ * le même hash à chaque connexion, d'une instance à l'autre.
+ */
+public class TunedArgon2PasswordEncoder implements PasswordEncoder {
+
+	private final Argon2Settings settings;
+
+	private final Argon2PasswordEncoder delegate;
+
+	public TunedArgon2PasswordEncoder(Argon2Settings settings) {
+		this.settings = settings;
+		this.delegate = settings.toEncoder();
+	}
+
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return delegate.encode(rawPassword);
+	}
+
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return delegate.matches(rawPassword, encodedPassword);
+	}
+
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		return encodedPassword != null && !encodedPassword.isEmpty() && settings.isStrongerThan(encodedPassword);
+	}
+}
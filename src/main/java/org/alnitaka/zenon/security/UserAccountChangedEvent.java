@@ -0,0 +1,12 @@
+package org.alnitaka.zenon.security;
+
+/**
+ * Événement publié lorsqu'un utilisateur est modifié ou supprimé.
+ * <p>
+ * Il déclenche l'invalidation des données d'authentification mises en cache pour ce compte.
+ *
+ * @param userId l'identifiant de l'utilisateur
+ * @param email  l'email courant de l'utilisateur
+ */
+public record UserAccountChangedEvent(Long userId, String email) {
+}
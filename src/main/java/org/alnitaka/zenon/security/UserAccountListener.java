@@ -0,0 +1,25 @@
+package org.alnitaka.zenon.security;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.alnitaka.zenon.entity.User;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA de l'entité {@link User} : publie un {@link UserAccountChangedEvent} à chaque
+ * mise à jour (mot de passe, activation, rôles…) ou suppression d'un compte.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserAccountListener {
+
+	private final ApplicationEventPublisher publisher;
+
+	@PostUpdate
+	@PostRemove
+	public void onChange(User user) {
+		publisher.publishEvent(new UserAccountChangedEvent(user.getId(), user.getEmail()));
+	}
+}
@@ -0,0 +1,40 @@
+package org.alnitaka.zenon.security;
+
+import lombok.RequiredArgsConstructor;
+import org.alnitaka.zenon.repository.UserRepository;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.stereotype.Component;
+
+/**
+ * Réécrit le hash d'un mot de passe après une connexion réussie lorsque ses paramètres Argon2
+ * ne correspondent plus aux paramètres courants.
+ * <p>
+ * Appelé par le {@code DaoAuthenticationProvider} ; la mise à jour ne modifie pas la version du
+ * compte, les jetons déjà émis restent donc valides.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserPasswordUpgrader implements UserDetailsPasswordService {
+
+	private final UserRepository userRepository;
+
+	private final CachedUserDetailsService userDetailsService;
+
+	@Override
+	public UserDetails updatePassword(UserDetails user, String newPassword) {
+		if (!(user instanceof UserPrincipal principal)) {
+			return user;
+		}
+		userRepository.updatePasswordHash(principal.getId(), newPassword);
+		userDetailsService.evict(principal.getId(), principal.getEmail());
+		return new UserPrincipal(
+			principal.getId(),
+			principal.getEmail(),
+			newPassword,
+			principal.getRoles(),
+			principal.getTokenVersion(),
+			principal.isActive()
+		);
+	}
+}
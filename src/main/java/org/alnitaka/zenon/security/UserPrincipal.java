@@ -0,0 +1,70 @@
+package org.alnitaka.zenon.security;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+import lombok.Getter;
+import org.alnitaka.zenon.entity.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Principal authentifié placé dans le contexte de sécurité.
+ * <p>
+ * Il porte l'identifiant, l'email, les rôles et la version d'état du compte, ce qui permet de
+ * le reconstruire à partir des claims d'un JWT sans relire l'utilisateur en base.
+ */
+@Getter
+public class UserPrincipal implements UserDetails {
+
+	private final Long id;
+	private final String email;
+	private final String password;
+	private final Set<Role> roles;
+	private final int tokenVersion;
+	private final boolean active;
+
+	public UserPrincipal(Long id, String email, String password, Set<Role> roles, int tokenVersion, boolean active) {
+		this.id = id;
+		this.email = email;
+		this.password = password;
+		this.roles = roles == null || roles.isEmpty() ? EnumSet.noneOf(Role.class) : EnumSet.copyOf(roles);
+		this.tokenVersion = tokenVersion;
+		this.active = active;
+	}
+
+	/**
+	 * Construit le principal à partir de l'entité {@link User} chargée en base.
+	 *
+	 * @param user l'utilisateur persistant
+	 * @return le principal correspondant, mot de passe inclus
+	 */
+	public static UserPrincipal from(User user) {
+		return new UserPrincipal(
+			user.getId(),
+			user.getEmail(),
+			user.getPassword(),
+			user.getRoles(),
+			user.getTokenVersion(),
+			user.isActive()
+		);
+	}
+
+	@Override
+	public Collection<? extends GrantedAuthority> getAuthorities() {
+		return roles.stream()
+			.map(role -> new SimpleGrantedAuthority(role.name()))
+			.toList();
+	}
+
+	@Override
+	public String getUsername() {
+		return email;
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return active;
+	}
+}
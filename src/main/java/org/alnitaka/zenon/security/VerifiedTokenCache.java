@@ -0,0 +1,106 @@
+package org.alnitaka.zenon.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache optionnel des résultats de {@link JwtTokenProvider#verify(String)}.
+ * <p>
+ * Les entrées sont indexées par l'empreinte SHA-256 du jeton (le jeton lui-même n'est pas conservé).
+ * Un jeton valide reste en cache jusqu'à son {@code exp} ; un jeton rejeté est mis en cache négatif
+ * pour une courte durée afin qu'un flot du même jeton invalide ne soit ni revérifié ni journalisé à
+ * chaque requête. La taille est bornée (politique W-TinyLFU de Caffeine) et les statistiques sont
+ * publiées sous le nom de cache {@code jwt.tokens}.
+ */
+@Component
+public class VerifiedTokenCache {
+
+	private final JwtTokenProvider tokenProvider;
+
+	// null lorsque le cache est désactivé
+	private final Cache<String, TokenVerification> cache;
+
+	public VerifiedTokenCache(
+		JwtTokenProvider tokenProvider,
+		MeterRegistry meterRegistry,
+		@Value("${jwt.cache.enabled:false}") boolean enabled,
+		@Value("${jwt.cache.maximum-size:10000}") long maximumSize,
+		@Value("${jwt.cache.negative-ttl-ms:60000}") long negativeTtlMs
+	) {
+		this.tokenProvider = tokenProvider;
+		if (enabled) {
+			this.cache = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfter(new TokenExpiry(TimeUnit.MILLISECONDS.toNanos(negativeTtlMs)))
+				.recordStats()
+				.build();
+			CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.tokens");
+		} else {
+			this.cache = null;
+		}
+	}
+
+	/**
+	 * Vérifie le jeton, en réutilisant le résultat d'une vérification précédente s'il est encore valable.
+	 *
+	 * @param token le JWT brut
+	 * @return le résultat de la vérification
+	 */
+	public TokenVerification verify(String token) {
+		if (cache == null || token == null || token.isEmpty()) {
+			return tokenProvider.verify(token);
+		}
+		return cache.get(digest(token), key -> tokenProvider.verify(token));
+	}
+
+	private static String digest(String token) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+			return Base64.getEncoder().withoutPadding().encodeToString(hash);
+		} catch (NoSuchAlgorithmException e) {
+			// SHA-256 est garanti par toute JVM conforme
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Expiration par entrée : à l'{@code exp} du jeton pour un résultat valide, après le délai
+	 * de cache négatif pour un rejet.
+	 */
+	private record TokenExpiry(long negativeTtlNanos) implements Expiry<String, TokenVerification> {
+
+		@Override
+		public long expireAfterCreate(String key, TokenVerification value, long currentTime) {
+			if (value instanceof TokenVerification.Valid valid) {
+				Date expiration = valid.claims().getExpiration();
+				if (expiration == null) {
+					return 0L;
+				}
+				long remainingMs = expiration.getTime() - System.currentTimeMillis();
+				return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0L));
+			}
+			return negativeTtlNanos;
+		}
+
+		@Override
+		public long expireAfterUpdate(String key, TokenVerification value, long currentTime, long currentDuration) {
+			return expireAfterCreate(key, value, currentTime);
+		}
+
+		@Override
+		public long expireAfterRead(String key, TokenVerification value, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+	}
+}
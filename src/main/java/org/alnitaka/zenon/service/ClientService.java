@@ -1,56 +1,138 @@
 package org.alnitaka.zenon.service;
 
 import jakarta.persistence.EntityNotFoundException;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import org.alnitaka.zenon.dto.ClientDto;
+import org.alnitaka.zenon.dto.CursorPage;
+import org.alnitaka.zenon.dto.Expand;
+import org.alnitaka.zenon.dto.UserDto;
+import org.alnitaka.zenon.dto.Versioned;
 import org.alnitaka.zenon.entity.Client;
-import org.alnitaka.zenon.entity.User;
+import org.alnitaka.zenon.entity.Tombstone;
+import org.alnitaka.zenon.exception.PreconditionFailedException;
 import org.alnitaka.zenon.mapper.ClientMapper;
 import org.alnitaka.zenon.repository.ClientRepository;
+import org.alnitaka.zenon.repository.ProjectRepository;
+import org.alnitaka.zenon.repository.TombstoneRepository;
 import org.alnitaka.zenon.repository.UserRepository;
+import org.alnitaka.zenon.repository.projection.ClientRow;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
 public class ClientService {
 	private final ClientRepository clientRepo;
 	private final UserRepository userRepository;
+	private final ProjectRepository projectRepository;
+	private final TombstoneRepository tombstoneRepository;
 	private final UserService userService;
+	private final OwnerVersionService ownerVersionService;
 	private final ClientMapper clientMapper;
 	private static final String NO_AUTH = "Non authentifié";
 	private static final String NO_CLIENT = "Client introuvable";
+	private static final String STALE_CLIENT = "Client modifié entre-temps";
+	private static final String NO_USER = "Utilisateur introuvable";
 
 	/**
-	 * Retrieves all {@link Client} entities owned by the currently authenticated user.
+	 * Retrieves one page of the clients owned by the currently authenticated user.
 	 * <p>
-	 * The method obtains the current user's email via {@link UserService#getCurrentUser()}
-	 * and then queries {@link ClientRepository} for clients with that owner email.
+	 * The method obtains the current user's id via {@link UserService#getCurrentUserId()}
+	 * and then reads the clients with that owner id whose id follows the cursor, so the cost
+	 * of a page does not depend on how deep it is. Rows are projected straight into DTOs:
+	 * no entity is hydrated or snapshotted.
 	 *
-	 * @return a {@link List} of {@link Client} instances belonging to the authenticated user.
+	 * @param cursor the {@link CursorPage#next()} value of the previous page, or {@code null} for the first page
+	 * @param limit the maximum number of clients to return, clamped to {@link CursorPage#MAX_LIMIT}
+	 * @return a {@link CursorPage} of the clients belonging to the authenticated user.
 	 * @throws AccessDeniedException if no authenticated user is present.
 	 */
-	public List<Client> listMyClients() {
-		String email = userService.getCurrentUser()
-			.orElseThrow(() -> new AccessDeniedException(NO_AUTH))
-			.getEmail();
-		return clientRepo.findByOwnerEmail(email);
+	@Transactional(readOnly = true)
+	public CursorPage<ClientDto> listMyClients(String cursor, int limit) {
+		return listMyClients(cursor, limit, EnumSet.of(Expand.OWNER));
 	}
 
 	/**
-	 * Retrieves a {@link Client} entity identified by the specified {@code id} that belongs to the currently
-	 * authenticated user.
+	 * Retrieves one page of the clients owned by the currently authenticated user; without
+	 * {@link Expand#OWNER} the owners are not queried and {@link ClientDto#owner()} is {@code null}.
+	 *
+	 * @param cursor the {@link CursorPage#next()} value of the previous page, or {@code null} for the first page
+	 * @param limit the maximum number of clients to return, clamped to {@link CursorPage#MAX_LIMIT}
+	 * @param expand the associations to embed
+	 * @return a {@link CursorPage} of the clients belonging to the authenticated user.
+	 * @throws AccessDeniedException if no authenticated user is present.
+	 */
+	@Transactional(readOnly = true)
+	public CursorPage<ClientDto> listMyClients(String cursor, int limit, Set<Expand> expand) {
+		Long myId = userService.getCurrentUserId()
+			.orElseThrow(() -> new AccessDeniedException(NO_AUTH));
+		int size = CursorPage.clampLimit(limit);
+		// Une ligne de plus que demandé pour savoir s'il existe une page suivante
+		List<ClientRow> rows = clientRepo.findRowsByOwnerIdAfter(myId, CursorPage.decode(cursor), Limit.of(size + 1));
+		CursorPage<ClientRow> page = CursorPage.of(rows, size, ClientRow::id);
+		Map<Long, UserDto> owners = expand.contains(Expand.OWNER)
+			? userService.getUsersById(page.items().stream().map(ClientRow::ownerId).toList())
+			: Map.of();
+		return page.map(row -> row.toDto(owners.get(row.ownerId())));
+	}
+
+	/**
+	 * Retrieves the client identified by the specified {@code id} that belongs to the currently
+	 * authenticated user, projected straight into a {@link ClientDto}.
+	 *
+	 * @param id the unique identifier of the client to retrieve
+	 * @return the client associated with the given {@code id} and owned by the current user
+	 * @throws AccessDeniedException if there is no authenticated user in the security context
+	 * @throws EntityNotFoundException if no client with the specified {@code id} exists for the current user
+	 */
+	@Transactional(readOnly = true)
+	public ClientDto getClient(Long id) {
+		return getClient(id, EnumSet.of(Expand.OWNER));
+	}
+
+	/**
+	 * Retrieves the client identified by {@code id} that belongs to the currently authenticated
+	 * user; without {@link Expand#OWNER} the owner is not queried.
 	 *
 	 * @param id the unique identifier of the client to retrieve
-	 * @return the {@link Client} instance associated with the given {@code id} and owned by the current user
+	 * @param expand the associations to embed
+	 * @return the client associated with the given {@code id} and owned by the current user
+	 * @throws AccessDeniedException if there is no authenticated user in the security context
+	 * @throws EntityNotFoundException if no client with the specified {@code id} exists for the current user
+	 */
+	@Transactional(readOnly = true)
+	public ClientDto getClient(Long id, Set<Expand> expand) {
+		Long myId = userService.getCurrentUserId()
+			.orElseThrow(() -> new AccessDeniedException(NO_AUTH));
+		ClientRow row = clientRepo.findRowByIdAndOwnerId(id, myId)
+			.orElseThrow(() -> new EntityNotFoundException(NO_CLIENT));
+		if (!expand.contains(Expand.OWNER)) {
+			return row.toDto(null);
+		}
+		return row.toDto(userService.getUsersById(List.of(row.ownerId())).get(row.ownerId()));
+	}
+
+	/**
+	 * Returns the optimistic-locking version of a client of the currently authenticated user,
+	 * with a single primary-key lookup that loads nothing else.
+	 *
+	 * @param id the unique identifier of the client
+	 * @return the current version of the client
 	 * @throws AccessDeniedException if there is no authenticated user in the security context
 	 * @throws EntityNotFoundException if no client with the specified {@code id} exists for the current user
 	 */
-	public Client getClient(Long id) {
-		User me = userService.getCurrentUser()
+	@Transactional(readOnly = true)
+	public long getVersion(Long id) {
+		Long myId = userService.getCurrentUserId()
 			.orElseThrow(() -> new AccessDeniedException(NO_AUTH));
-		return clientRepo.findByIdAndOwnerId(id, me.getId())
+		return clientRepo.findVersionByIdAndOwnerId(id, myId)
 			.orElseThrow(() -> new EntityNotFoundException(NO_CLIENT));
 	}
 
@@ -60,57 +142,98 @@ public class ClientService {
 	 * @param dto the DTO containing the client data
 	 * @return the persisted {@link Client} instance
 	 */
+	@Transactional
 	public Client create(ClientDto dto) {
-		User me = userService.getCurrentUser()
+		Long myId = userService.getCurrentUserId()
 			.orElseThrow(() -> new AccessDeniedException(NO_AUTH));
 		Client newUser = clientMapper.toEntity(dto);
-		newUser.setOwner(me);
+		// Référence sans SELECT : seule la clé étrangère est écrite
+		newUser.setOwner(userRepository.getReferenceById(myId));
+		newUser.setChangeVersion(ownerVersionService.bump(myId));
 		return clientRepo.save(newUser);
 	}
 
 	/**
-	 * Updates the client identified by {@code id} with the values from the {@code update}
-	 * instance. Only the {@code nom} and {@code email} fields of the existing client are
-	 * modified. The method ensures that the client belongs to the currently authenticated
-	 * user and persists the changes via {@link ClientRepository}.
+	 * Updates the client identified by {@code dto.id()} with a single owner-scoped {@code UPDATE}:
+	 * the {@code nom} and {@code email} are replaced and, when {@code dto.owner()} names another
+	 * user, the client is handed over to that user. The client is never loaded.
 	 *
-	 * @param dto a {@link Client} containing the new {@code nom} and {@code email}
+	 * @param dto a {@link ClientDto} containing the new {@code nom}, {@code email} and optionally the new owner
 	 * @return the updated client represented as a {@link ClientDto}
 	 * @throws AccessDeniedException if no user is currently authenticated
 	 * @throws EntityNotFoundException if a client with the given {@code id} does not exist
 	 *                                 for the current user
 	 */
-	public Client update(ClientDto dto) {
-		User me = userService.getCurrentUser()
+	@Transactional
+	public ClientDto update(ClientDto dto) {
+		return update(dto, null).value();
+	}
+
+	/**
+	 * Updates the client identified by {@code dto.id()} if it is still at {@code expectedVersion}.
+	 * <p>
+	 * The version check is part of the single owner-scoped {@code UPDATE}, which also increments
+	 * the version: the client is not locked beforehand and nothing is read on success. Only when no row
+	 * matches is the client looked up, to tell a stale version from a missing client.
+	 *
+	 * @param dto a {@link ClientDto} containing the new {@code nom}, {@code email} and optionally the new owner
+	 * @param expectedVersion the version the caller last read, or {@code null} for an unconditional update
+	 * @return the updated client represented as a {@link ClientDto}, with its new version and the new
+	 *         version of the current user's data
+	 * @throws AccessDeniedException if no user is currently authenticated
+	 * @throws EntityNotFoundException if a client with the given {@code id} does not exist for the current user,
+	 *                                 or the new owner does not exist
+	 * @throws PreconditionFailedException if the client has been modified since {@code expectedVersion}
+	 */
+	@Transactional
+	public Versioned<ClientDto> update(ClientDto dto, Long expectedVersion) {
+		Long myId = userService.getCurrentUserId()
 			.orElseThrow(() -> new AccessDeniedException(NO_AUTH));
-		Client existing = clientRepo.findByIdAndOwnerId(dto.id(), me.getId())
-			.orElseThrow(() -> new EntityNotFoundException(NO_CLIENT));
-		User owner = existing.getOwner();
-		// Appliquer les changements voulus
-		existing.setNom(dto.nom());
-		existing.setEmail(dto.email());
-		if (
-			owner != null
-			&& dto.owner() != null
-			&& !dto.owner().id().equals(owner.getId())
-		) {
-			User newUser = userRepository.findById(dto.owner().id()).orElseThrow();
-			existing.setOwner(newUser);
+		Long ownerId = dto.owner() != null && dto.owner().id() != null ? dto.owner().id() : myId;
+		// La référence ci-dessous n'est pas chargée : un id inconnu ne serait vu que par la clé étrangère
+		if (!ownerId.equals(myId) && !userRepository.existsById(ownerId)) {
+			throw new EntityNotFoundException(NO_USER);
+		}
+		// Ancien et nouveau propriétaire, ainsi que ceux des projets qui embarquent ce client
+		Map<Long, Long> versions = ownerVersionService.bump(Stream.concat(Stream.of(myId, ownerId),
+			projectRepository.findOwnerIdsByClientId(dto.id()).stream()).toList());
+		int updated = clientRepo.updateByIdAndOwnerId(dto.id(), myId, dto.nom(), dto.email(),
+			userRepository.getReferenceById(ownerId), expectedVersion, versions.get(ownerId));
+		if (updated == 0) {
+			if (expectedVersion != null && clientRepo.existsByIdAndOwnerId(dto.id(), myId)) {
+				throw new PreconditionFailedException(STALE_CLIENT);
+			}
+			throw new EntityNotFoundException(NO_CLIENT);
+		}
+		if (!ownerId.equals(myId)) {
+			// Cédé : disparaît des données synchronisées de l'ancien propriétaire
+			tombstoneRepository.save(new Tombstone(myId, Tombstone.Type.CLIENT, dto.id(), versions.get(myId)));
 		}
-		return clientRepo.save(existing);
+		// Version attendue incrémentée par l'UPDATE ; relue sous le verrou de la ligne sinon
+		long version = expectedVersion != null
+			? expectedVersion + 1
+			: clientRepo.findVersionByIdAndOwnerId(dto.id(), ownerId).orElseThrow(() -> new EntityNotFoundException(NO_CLIENT));
+		ClientDto updated = new ClientDto(dto.id(), dto.nom(), dto.email(), userService.getUsersById(List.of(ownerId)).get(ownerId));
+		return new Versioned<>(updated, OwnerVersionService.eTag(myId, versions.get(myId)), version);
 	}
 
 	/**
 	 * Deletes the client identified by the given {@code id} belonging to the
-	 * currently authenticated user.
+	 * currently authenticated user, with a single owner-scoped {@code DELETE}.
 	 *
 	 * @param id the identifier of the client to delete
+	 * @throws AccessDeniedException if no user is currently authenticated
+	 * @throws EntityNotFoundException if a client with the given {@code id} does not exist
+	 *                                 for the current user
 	 */
+	@Transactional
 	public void delete(Long id) {
-		User me = userService.getCurrentUser()
+		Long myId = userService.getCurrentUserId()
 			.orElseThrow(() -> new AccessDeniedException(NO_AUTH));
-		Client existing = clientRepo.findByIdAndOwnerId(id, me.getId())
-			.orElseThrow(() -> new EntityNotFoundException(NO_CLIENT));
-		clientRepo.delete(existing);
+		long version = ownerVersionService.bump(myId);
+		if (clientRepo.deleteByIdAndOwnerId(id, myId) == 0) {
+			throw new EntityNotFoundException(NO_CLIENT);
+		}
+		tombstoneRepository.save(new Tombstone(myId, Tombstone.Type.CLIENT, id, version));
 	}
 }
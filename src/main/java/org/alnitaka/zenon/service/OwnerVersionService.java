@@ -0,0 +1,84 @@
+package org.alnitaka.zenon.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import lombok.RequiredArgsConstructor;
+import org.alnitaka.zenon.repository.OwnerVersionRepository;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class OwnerVersionService {
+	private final OwnerVersionRepository ownerVersionRepository;
+	private final UserService userService;
+	private static final String NO_AUTH = "Non authentifié";
+
+	/**
+	 * Returns the strong entity tag of the current user's clients, projects and tasks.
+	 * <p>
+	 * The tag combines the user id and the version bumped by every write of that user's data,
+	 * so it costs a single primary-key lookup. It must be read <em>before</em> the data it
+	 * describes: a write committed in between then yields a stale tag, never stale data under a fresh tag.
+	 *
+	 * @return the entity tag, without quotes
+	 * @throws AccessDeniedException if no user is authenticated
+	 */
+	@Transactional(readOnly = true)
+	public String currentETag() {
+		Long myId = userService.getCurrentUserId()
+			.orElseThrow(() -> new AccessDeniedException(NO_AUTH));
+		return eTag(myId, ownerVersionRepository.findVersionByUserId(myId).orElse(0L));
+	}
+
+	/**
+	 * @param userId the owner of the data
+	 * @param version a version of that owner's data, as read or as returned by {@link #bump(Long)}
+	 * @return the entity tag of the owner's data at that version, without quotes
+	 */
+	public static String eTag(Long userId, long version) {
+		return userId + "." + version;
+	}
+
+	/**
+	 * Bumps the version of the given owners within the caller's transaction, so that the new
+	 * version becomes visible together with the write it describes.
+	 * <p>
+	 * The bump locks the owner's row until the transaction ends, so writes of one owner are
+	 * serialized and commit in version order. Callers bump <em>before</em> writing and stamp the
+	 * rows they write with the returned version: synchronization cursors built on it never skip a row.
+	 * Owners are bumped in id order: two transactions touching the same owners lock their rows
+	 * in the same order and cannot deadlock.
+	 *
+	 * @param ownerIds the owners whose data changed; {@code null} values and duplicates are ignored
+	 * @return the new version of each owner
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public Map<Long, Long> bump(Collection<Long> ownerIds) {
+		Map<Long, Long> versions = new HashMap<>();
+		ownerIds.stream()
+			.filter(Objects::nonNull)
+			.distinct()
+			.sorted()
+			.forEach(ownerId -> versions.put(ownerId, bump(ownerId)));
+		return versions;
+	}
+
+	/**
+	 * Bumps the version of a single owner within the caller's transaction.
+	 *
+	 * @param ownerId the owner whose data changed
+	 * @return the new version of the owner
+	 * @see #bump(Collection)
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public long bump(Long ownerId) {
+		ownerVersionRepository.bump(ownerId);
+		// Ligne verrouillée par l'upsert : relue sans risque de concurrence
+		return ownerVersionRepository.findVersionByUserId(ownerId).orElseThrow();
+	}
+}
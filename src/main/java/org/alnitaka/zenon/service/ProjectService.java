@@ -1,18 +1,36 @@
 package org.alnitaka.zenon.service;
 
 import jakarta.persistence.EntityNotFoundException;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
+import org.alnitaka.zenon.dto.CursorPage;
+import org.alnitaka.zenon.dto.Expand;
 import org.alnitaka.zenon.dto.ProjectDto;
+import org.alnitaka.zenon.dto.ProjectSummaryDto;
+import org.alnitaka.zenon.dto.TaskDto;
+import org.alnitaka.zenon.dto.UserDto;
+import org.alnitaka.zenon.dto.Versioned;
 import org.alnitaka.zenon.entity.Client;
 import org.alnitaka.zenon.entity.Project;
-import org.alnitaka.zenon.entity.User;
+import org.alnitaka.zenon.entity.Tombstone;
+import org.alnitaka.zenon.exception.PreconditionFailedException;
 import org.alnitaka.zenon.mapper.ProjectMapper;
 import org.alnitaka.zenon.repository.ClientRepository;
 import org.alnitaka.zenon.repository.ProjectRepository;
+import org.alnitaka.zenon.repository.TaskRepository;
+import org.alnitaka.zenon.repository.TombstoneRepository;
 import org.alnitaka.zenon.repository.UserRepository;
+import org.alnitaka.zenon.repository.projection.ProjectRow;
+import org.alnitaka.zenon.repository.projection.TaskRow;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
@@ -20,41 +38,136 @@ public class ProjectService {
 	private final ProjectRepository projectRepo;
 	private final UserRepository userRepository;
 	private final ClientRepository clientRepository;
+	private final TaskRepository taskRepository;
+	private final TombstoneRepository tombstoneRepository;
 	private final ProjectMapper projectMapper;
 	private final UserService userService;
+	private final OwnerVersionService ownerVersionService;
 	private static final String NO_AUTH = "Non authentifié";
 	private static final String NO_PROJECT = "Projet introuvable";
+	private static final String STALE_PROJECT = "Projet modifié entre-temps";
+	private static final String NO_CLIENT = "Client introuvable";
+	private static final String NO_USER = "Utilisateur introuvable";
 
 	/**
-	 * Retrieves all projects owned by the currently authenticated user.
+	 * Retrieves one page of the projects owned by the currently authenticated user.
 	 * <p>
-	 * The method obtains the current user's email via {@link UserService#getCurrentUser()}.
+	 * The method obtains the current user's id via {@link UserService#getCurrentUserId()}.
 	 * If no user is authenticated, an {@link AccessDeniedException} is thrown.
-	 * Projects are fetched from {@link ProjectRepository#findByOwnerEmail(String)}.
+	 * Projects are read by id after the cursor from
+	 * {@link ProjectRepository#findRowsByOwnerIdAfter(Long, Long, Limit)} and assembled with their
+	 * tasks and users into {@link ProjectDto}s, without hydrating any entity.
 	 *
-	 * @return a list of {@link Project} instances belonging to the current user
+	 * @param cursor the {@link CursorPage#next()} value of the previous page, or {@code null} for the first page
+	 * @param limit the maximum number of projects to return, clamped to {@link CursorPage#MAX_LIMIT}
+	 * @return a page of the projects belonging to the current user
 	 */
-	public List<Project> listProjects() {
-		String email = userService.getCurrentUser()
-			.orElseThrow(() -> new AccessDeniedException(NO_AUTH))
-			.getEmail();
-		return projectRepo.findByOwnerEmail(email);
+	@Transactional(readOnly = true)
+	public CursorPage<ProjectDto> listProjects(String cursor, int limit) {
+		return listProjects(cursor, limit, EnumSet.allOf(Expand.class));
 	}
 
 	/**
-	 * Returns the {@link Project} identified by the given {@code id} that is owned by the
-	 * currently authenticated user.
+	 * Retrieves one page of the projects owned by the currently authenticated user, embedding only
+	 * the requested associations.
+	 * <p>
+	 * Associations that are not requested are not read at all: without {@link Expand#CLIENT} the
+	 * client is not joined, without {@link Expand#TASKS} no task is queried and without
+	 * {@link Expand#OWNER} no user is queried. The corresponding {@link ProjectDto} components are {@code null}.
+	 *
+	 * @param cursor the {@link CursorPage#next()} value of the previous page, or {@code null} for the first page
+	 * @param limit the maximum number of projects to return, clamped to {@link CursorPage#MAX_LIMIT}
+	 * @param expand the associations to embed
+	 * @return a page of the projects belonging to the current user
+	 */
+	@Transactional(readOnly = true)
+	public CursorPage<ProjectDto> listProjects(String cursor, int limit, Set<Expand> expand) {
+		Long myId = userService.getCurrentUserId()
+			.orElseThrow(() -> new AccessDeniedException(NO_AUTH));
+		int size = CursorPage.clampLimit(limit);
+		Long afterId = CursorPage.decode(cursor);
+		// Une ligne de plus que demandé pour savoir s'il existe une page suivante
+		List<ProjectRow> rows = expand.contains(Expand.CLIENT)
+			? projectRepo.findRowsByOwnerIdAfter(myId, afterId, Limit.of(size + 1))
+			: projectRepo.findHeadRowsByOwnerIdAfter(myId, afterId, Limit.of(size + 1));
+		CursorPage<ProjectRow> page = CursorPage.of(rows, size, ProjectRow::id);
+		return new CursorPage<>(toDtos(page.items(), expand), page.next());
+	}
+
+	/**
+	 * Retrieves one page of project summaries of the currently authenticated user.
+	 * <p>
+	 * Task counts come from the denormalized {@code task_count} and {@code active_task_count}
+	 * columns: the page is a single indexed read of {@code project} and no task row is touched.
+	 *
+	 * @param cursor the {@link CursorPage#next()} value of the previous page, or {@code null} for the first page
+	 * @param limit the maximum number of projects to return, clamped to {@link CursorPage#MAX_LIMIT}
+	 * @return a page of project summaries
+	 * @throws AccessDeniedException if no user is authenticated
+	 */
+	@Transactional(readOnly = true)
+	public CursorPage<ProjectSummaryDto> listSummaries(String cursor, int limit) {
+		Long myId = userService.getCurrentUserId()
+			.orElseThrow(() -> new AccessDeniedException(NO_AUTH));
+		int size = CursorPage.clampLimit(limit);
+		List<ProjectSummaryDto> rows = projectRepo.findSummariesByOwnerIdAfter(myId, CursorPage.decode(cursor), Limit.of(size + 1));
+		return CursorPage.of(rows, size, ProjectSummaryDto::id);
+	}
+
+	/**
+	 * Returns the project identified by the given {@code id} that is owned by the
+	 * currently authenticated user, projected straight into a {@link ProjectDto}.
+	 *
+	 * @param id the identifier of the project to retrieve
+	 * @return the project owned by the current user with the specified {@code id}
+	 * @throws AccessDeniedException if no user is authenticated
+	 * @throws EntityNotFoundException if the project with the specified {@code id} does not exist for the current user
+	 */
+	@Transactional(readOnly = true)
+	public ProjectDto getProject(Long id) {
+		return getProject(id, EnumSet.allOf(Expand.class));
+	}
+
+	/**
+	 * Returns the project identified by the given {@code id} that is owned by the currently
+	 * authenticated user, embedding only the requested associations
+	 * (see {@link #listProjects(String, int, Set)}).
 	 *
 	 * @param id the identifier of the project to retrieve
-	 * @return the {@link Project} owned by the current user with the specified {@code id}
+	 * @param expand the associations to embed
+	 * @return the project owned by the current user with the specified {@code id}
 	 * @throws AccessDeniedException if no user is authenticated
 	 * @throws EntityNotFoundException if the project with the specified {@code id} does not exist for the current user
 	 */
-	public Project getProject(Long id) {
-		User me = userService.getCurrentUser()
+	@Transactional(readOnly = true)
+	public ProjectDto getProject(Long id, Set<Expand> expand) {
+		Long myId = userService.getCurrentUserId()
 			.orElseThrow(() -> new AccessDeniedException(NO_AUTH));
-		return projectRepo.findByIdAndOwnerId(id, me.getId())
+		ProjectRow row = (expand.contains(Expand.CLIENT)
+			? projectRepo.findRowByIdAndOwnerId(id, myId)
+			: projectRepo.findHeadRowByIdAndOwnerId(id, myId))
 			.orElseThrow(() -> new EntityNotFoundException(NO_PROJECT));
+		return toDtos(List.of(row), expand).getFirst();
+	}
+
+	// Assemble les lignes avec leurs tâches (une requête) et leurs utilisateurs (une requête), s'ils sont demandés
+	private List<ProjectDto> toDtos(List<ProjectRow> rows, Set<Expand> expand) {
+		if (rows.isEmpty()) {
+			return List.of();
+		}
+		Map<Long, List<TaskDto>> tasks = expand.contains(Expand.TASKS)
+			? taskRepository.findRowsByProjectIdIn(rows.stream().map(ProjectRow::id).toList())
+				.stream()
+				.collect(Collectors.groupingBy(TaskRow::projectId, Collectors.mapping(TaskRow::toDto, Collectors.toList())))
+			: null;
+		Map<Long, UserDto> users = expand.contains(Expand.OWNER)
+			? userService.getUsersById(rows.stream()
+				.flatMap(row -> Stream.of(row.ownerId(), row.clientOwnerId()))
+				.toList())
+			: Map.of();
+		return rows.stream()
+			.map(row -> row.toDto(users, tasks == null ? null : tasks.getOrDefault(row.id(), List.of())))
+			.toList();
 	}
 
 	/**
@@ -64,67 +177,128 @@ public class ProjectService {
 	 * @return the persisted {@link Project} instance with an assigned identifier and owner
 	 * @throws AccessDeniedException if no authenticated user is found
 	 */
+	@Transactional
 	public Project create(ProjectDto dto) {
-		User me = userService.getCurrentUser()
+		Long myId = userService.getCurrentUserId()
 			.orElseThrow(() -> new AccessDeniedException(NO_AUTH));
 		Project newProject = projectMapper.toEntity(dto);
-		newProject.setOwner(me);
+		// Référence sans SELECT : seule la clé étrangère est écrite
+		newProject.setOwner(userRepository.getReferenceById(myId));
 
 		if (dto.client()!= null && dto.client().id() != null) {
 			Client newClient = clientRepository.findById(dto.client().id()).orElseThrow();
 			newProject.setClient(newClient);
 		}
+		newProject.setChangeVersion(ownerVersionService.bump(myId));
 		return projectRepo.save(newProject);
 	}
 
 	/**
-	 * Updates an existing {@link Project} identified by the specified {@code id}
-	 * with the data provided in {@link ProjectDto}. The method verifies that the
-	 * current user is authenticated and owns the project; if not, an
-	 * {@link AccessDeniedException} is thrown. The project’s name is set to
-	 * {@code dto.nom()}. If the owner or client referenced in {@code dto} differs
-	 * from the current values, the corresponding {@link User} or {@link Client}
-	 * entities are retrieved and assigned. The updated project is persisted and
-	 * returned.
+	 * Updates the project identified by {@code dto.id()} unconditionally.
 	 *
-	 * @param dto  the data transfer object containing the new values
-	 * @return the updated {@link Project} instance
+	 * @param dto the data transfer object containing the new values
+	 * @return the updated project
+	 * @see #update(ProjectDto, Long)
 	 */
-	public Project update(ProjectDto dto) {
-		User me = userService.getCurrentUser()
+	@Transactional
+	public ProjectDto update(ProjectDto dto) {
+		return update(dto, null).value();
+	}
+
+	/**
+	 * Updates the project identified by {@code dto.id()} if it is still at {@code expectedVersion}.
+	 * <p>
+	 * The name is set to {@code dto.nom()}, the client to {@code dto.client()} (none if {@code null})
+	 * and, when {@code dto.owner()} names another user, the project is handed over to that user.
+	 * Everything, including the version check and increment, is a single owner-scoped {@code UPDATE}:
+	 * the project is neither loaded nor locked beforehand. Only when no row matches is the
+	 * project looked up, to tell a stale version from a missing project.
+	 *
+	 * @param dto the data transfer object containing the new values
+	 * @param expectedVersion the version the caller last read, or {@code null} for an unconditional update
+	 * @return the updated project, with all its associations, its new version and the new version of
+	 *         the current user's data
+	 * @throws AccessDeniedException if no user is authenticated
+	 * @throws EntityNotFoundException if the project does not exist for the current user,
+	 *                                 or the new owner or client does not exist
+	 * @throws PreconditionFailedException if the project has been modified since {@code expectedVersion}
+	 */
+	@Transactional
+	public Versioned<ProjectDto> update(ProjectDto dto, Long expectedVersion) {
+		Long myId = userService.getCurrentUserId()
 			.orElseThrow(() -> new AccessDeniedException(NO_AUTH));
-		Project existing = projectRepo.findByIdAndOwnerId(dto.id(), me.getId())
-			.orElseThrow(() -> new EntityNotFoundException(NO_PROJECT));
-		// Appliquer les changements voulus
-		existing.setNom(dto.nom());
-		if (
-			dto.owner() != null
-			&& existing.getOwner() != null
-			&& !dto.owner().id().equals(existing.getOwner().getId())
-		) {
-			User newUser = userRepository.findById(dto.owner().id()).orElseThrow();
-			existing.setOwner(newUser);
+		Long ownerId = dto.owner() != null && dto.owner().id() != null ? dto.owner().id() : myId;
+		Long clientId = dto.client() != null ? dto.client().id() : null;
+		// Références sans SELECT : seules les clés étrangères sont écrites, un id inconnu ne serait vu
+		// que par leur contrainte ; un test d'existence par clé primaire le signale avant toute écriture
+		if (!ownerId.equals(myId) && !userRepository.existsById(ownerId)) {
+			throw new EntityNotFoundException(NO_USER);
 		}
-		if (dto.client() != null) {
-			Client newClient = clientRepository.findById(dto.client().id()).orElseThrow();
-			existing.setClient(newClient);
-		} else {
-			existing.setClient(null);
+		if (clientId != null && !clientRepository.existsById(clientId)) {
+			throw new EntityNotFoundException(NO_CLIENT);
 		}
-		return projectRepo.save(existing);
+		Client client = clientId != null ? clientRepository.getReferenceById(clientId) : null;
+		// Le projet a pu changer de propriétaire : les deux voient leurs données changer
+		Map<Long, Long> versions = ownerVersionService.bump(List.of(myId, ownerId));
+		int updated = projectRepo.updateByIdAndOwnerId(dto.id(), myId, dto.nom(),
+			userRepository.getReferenceById(ownerId), client, expectedVersion, versions.get(ownerId));
+		if (updated == 0) {
+			if (expectedVersion != null && projectRepo.existsByIdAndOwnerId(dto.id(), myId)) {
+				throw new PreconditionFailedException(STALE_PROJECT);
+			}
+			throw new EntityNotFoundException(NO_PROJECT);
+		}
+		if (!ownerId.equals(myId)) {
+			// Cédé avec ses tâches : elles entrent dans la synchronisation du nouveau propriétaire,
+			// le projet et donc ses tâches sortent de celle de l'ancien
+			taskRepository.updateOwnerIdByProjectId(dto.id(), ownerId, versions.get(ownerId));
+			tombstoneRepository.save(new Tombstone(myId, Tombstone.Type.PROJECT, dto.id(), versions.get(myId)));
+		}
+		ProjectRow row = projectRepo.findRowByIdAndOwnerId(dto.id(), ownerId)
+			.orElseThrow(() -> new EntityNotFoundException(NO_PROJECT));
+		// Version attendue incrémentée par l'UPDATE ; relue sous le verrou de la ligne sinon
+		long version = expectedVersion != null
+			? expectedVersion + 1
+			: projectRepo.findVersionByIdAndOwnerId(dto.id(), ownerId).orElseThrow(() -> new EntityNotFoundException(NO_PROJECT));
+		return new Versioned<>(toDtos(List.of(row), EnumSet.allOf(Expand.class)).getFirst(),
+			OwnerVersionService.eTag(myId, versions.get(myId)), version);
+	}
+
+	/**
+	 * Returns the optimistic-locking version of a project of the currently authenticated user,
+	 * with a single primary-key lookup that loads nothing else.
+	 *
+	 * @param id the identifier of the project
+	 * @return the current version of the project
+	 * @throws AccessDeniedException if no user is authenticated
+	 * @throws EntityNotFoundException if the project does not exist for the current user
+	 */
+	@Transactional(readOnly = true)
+	public long getVersion(Long id) {
+		Long myId = userService.getCurrentUserId()
+			.orElseThrow(() -> new AccessDeniedException(NO_AUTH));
+		return projectRepo.findVersionByIdAndOwnerId(id, myId)
+			.orElseThrow(() -> new EntityNotFoundException(NO_PROJECT));
 	}
 
 	/**
 	 * Deletes the project with the specified {@code id} that belongs to the currently authenticated user.
-	 * The method first retrieves the current user via {@link UserService#getCurrentUser()}. If no user is
-	 * authenticated, an {@link AccessDeniedException} is thrown. It then attempts to locate the project
-	 * by {@code id} and the current user’s identifier; if the project does not exist for this user,
-	 * an {@link EntityNotFoundException} is*/
+	 * The project is removed with a single owner-scoped {@code DELETE}; its tasks are removed by the
+	 * database through the {@code ON DELETE CASCADE} foreign key rather than one by one.
+	 *
+	 * @param id the identifier of the project to delete
+	 * @throws AccessDeniedException if no user is currently authenticated
+	 * @throws EntityNotFoundException if the project does not exist for the current user
+	 */
+	@Transactional
 	public void delete(Long id) {
-		User me = userService.getCurrentUser()
+		Long myId = userService.getCurrentUserId()
 			.orElseThrow(() -> new AccessDeniedException(NO_AUTH));
-		Project existing = projectRepo.findByIdAndOwnerId(id, me.getId())
-			.orElseThrow(() -> new EntityNotFoundException(NO_PROJECT));
-		projectRepo.delete(existing);
+		long version = ownerVersionService.bump(myId);
+		if (projectRepo.deleteByIdAndOwnerId(id, myId) == 0) {
+			throw new EntityNotFoundException(NO_PROJECT);
+		}
+		// Vaut aussi pour les tâches supprimées par la cascade
+		tombstoneRepository.save(new Tombstone(myId, Tombstone.Type.PROJECT, id, version));
 	}
 }
@@ -0,0 +1,155 @@
+package org.alnitaka.zenon.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import org.alnitaka.zenon.dto.CursorPage;
+import org.alnitaka.zenon.dto.SyncPage;
+import org.alnitaka.zenon.exception.InvalidCursorException;
+import org.alnitaka.zenon.repository.ClientRepository;
+import org.alnitaka.zenon.repository.ProjectRepository;
+import org.alnitaka.zenon.repository.TaskRepository;
+import org.alnitaka.zenon.repository.TombstoneRepository;
+import org.alnitaka.zenon.repository.projection.ChangeRow;
+import org.alnitaka.zenon.repository.projection.ClientChange;
+import org.alnitaka.zenon.repository.projection.ProjectChange;
+import org.alnitaka.zenon.repository.projection.TaskChange;
+import org.alnitaka.zenon.repository.projection.TombstoneChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class SyncService {
+	private final ClientRepository clientRepository;
+	private final ProjectRepository projectRepository;
+	private final TaskRepository taskRepository;
+	private final TombstoneRepository tombstoneRepository;
+	private final UserService userService;
+	private static final String NO_AUTH = "Non authentifié";
+
+	// Ordre des sources à version égale : fait partie du curseur, ne pas réordonner
+	private enum Kind { CLIENT, PROJECT, TASK, TOMBSTONE }
+
+	private static final Comparator<Change> ORDER = Comparator
+		.comparingLong((Change change) -> change.row().changeVersion())
+		.thenComparing(Change::kind)
+		.thenComparingLong(change -> change.row().id());
+
+	/**
+	 * Returns the changes made to the data of the currently authenticated user since the given cursor:
+	 * clients, projects and tasks written since then, and those deleted or handed over to another user.
+	 * <p>
+	 * Every write stamps its rows with the new version of its owner's data (see {@link OwnerVersionService}),
+	 * and writes of one owner commit in version order; the cursor is the position
+	 * {@code (version, kind, id)} of the last change returned, so a change committed after a sync is
+	 * never skipped by the next one. Each source is read with one indexed range query of
+	 * {@code limit + 1} rows, and the sources are merged in that order.
+	 *
+	 * @param since the {@link SyncPage#cursor()} of the previous sync, or {@code null} for a full sync
+	 * @param limit the maximum number of changes to return, clamped to {@link CursorPage#MAX_LIMIT}
+	 * @return the changes following {@code since}, with the cursor to resume from
+	 * @throws AccessDeniedException if no authenticated user is present
+	 * @throws InvalidCursorException if {@code since} was not produced by this method
+	 */
+	@Transactional(readOnly = true)
+	public SyncPage changesSince(String since, int limit) {
+		Long myId = userService.getCurrentUserId()
+			.orElseThrow(() -> new AccessDeniedException(NO_AUTH));
+		int size = CursorPage.clampLimit(limit);
+		Position from = Position.decode(since);
+		// Une ligne de plus que demandé par source pour savoir s'il reste des changements
+		Limit fetch = Limit.of(size + 1);
+
+		List<Change> changes = new ArrayList<>();
+		add(changes, Kind.CLIENT, clientRepository.findChangesByOwnerIdAfter(
+			myId, from.version(), from.afterId(Kind.CLIENT), fetch));
+		add(changes, Kind.PROJECT, projectRepository.findChangesByOwnerIdAfter(
+			myId, from.version(), from.afterId(Kind.PROJECT), fetch));
+		add(changes, Kind.TASK, taskRepository.findChangesByOwnerIdAfter(
+			myId, from.version(), from.afterId(Kind.TASK), fetch));
+		add(changes, Kind.TOMBSTONE, tombstoneRepository.findChangesByOwnerIdAfter(
+			myId, from.version(), from.afterId(Kind.TOMBSTONE), fetch));
+		changes.sort(ORDER);
+
+		boolean hasMore = changes.size() > size;
+		List<Change> page = hasMore ? changes.subList(0, size) : changes;
+		// Sans changement, le curseur reçu reste valable
+		Position to = page.isEmpty() ? from : page.getLast().position();
+		return new SyncPage(
+			rowsOf(page, ClientChange.class, ClientChange::toDto),
+			rowsOf(page, ProjectChange.class, ProjectChange::toDto),
+			rowsOf(page, TaskChange.class, TaskChange::toDto),
+			rowsOf(page, TombstoneChange.class, TombstoneChange::toDto),
+			to.encode(),
+			hasMore
+		);
+	}
+
+	private static void add(List<Change> changes, Kind kind, List<? extends ChangeRow> rows) {
+		rows.forEach(row -> changes.add(new Change(kind, row)));
+	}
+
+	private static <R extends ChangeRow, D> List<D> rowsOf(List<Change> page, Class<R> type, Function<R, D> toDto) {
+		return page.stream().map(Change::row).filter(type::isInstance).map(type::cast).map(toDto).toList();
+	}
+
+	private record Change(Kind kind, ChangeRow row) {
+		Position position() {
+			return new Position(row.changeVersion(), kind, row.id());
+		}
+	}
+
+	/**
+	 * Position dans le flux des changements d'un propriétaire, trié par (version, source, id).
+	 */
+	private record Position(long version, Kind kind, long id) {
+		// Avant toute ligne : les lignes antérieures à la synchronisation sont à la version 0
+		private static final Position START = new Position(0L, Kind.CLIENT, 0L);
+
+		/**
+		 * @return l'id après lequel reprendre la source {@code source} à la version {@link #version}
+		 */
+		long afterId(Kind source) {
+			int order = source.compareTo(kind);
+			if (order < 0) {
+				// Source déjà parcourue en entier à cette version
+				return Long.MAX_VALUE;
+			}
+			return order == 0 ? id : 0L;
+		}
+
+		String encode() {
+			String raw = version + "." + kind.ordinal() + "." + id;
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+		}
+
+		static Position decode(String cursor) {
+			if (cursor == null || cursor.isBlank()) {
+				return START;
+			}
+			try {
+				String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII).split("\\.");
+				if (parts.length != 3) {
+					throw new InvalidCursorException(cursor);
+				}
+				long version = Long.parseLong(parts[0]);
+				int kind = Integer.parseInt(parts[1]);
+				long id = Long.parseLong(parts[2]);
+				if (version < 0 || kind < 0 || kind >= Kind.values().length || id < 0) {
+					throw new InvalidCursorException(cursor);
+				}
+				return new Position(version, Kind.values()[kind], id);
+			} catch (IllegalArgumentException e) {
+				// Couvre aussi NumberFormatException
+				throw new InvalidCursorException(cursor);
+			}
+		}
+	}
+}
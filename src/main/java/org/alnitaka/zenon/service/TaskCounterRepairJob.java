@@ -0,0 +1,81 @@
+package org.alnitaka.zenon.service;
+
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.alnitaka.zenon.repository.JobLockRepository;
+import org.alnitaka.zenon.repository.ProjectRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Recalcule périodiquement les compteurs de tâches des projets qui divergent de leurs tâches.
+ * <p>
+ * Les compteurs sont maintenus de façon incrémentale par {@link TaskService} ; ce job rattrape
+ * les écritures faites hors application. Désactivé par défaut ({@code projects.task-counters.repair.enabled}).
+ * <p>
+ * Les projets sont parcourus par tranches d'ids, chacune dans sa propre transaction : un
+ * {@code GROUP BY} par tranche trouve les projets en écart, puis seuls ceux-là sont recomptés.
+ * Activé sur plusieurs instances, le job ne tourne que sur celle qui prend le bail {@value #LOCK}
+ * en base ; le bail n'est pas rendu à la fin et espace ainsi les passages de toutes les instances.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "projects.task-counters.repair", name = "enabled", havingValue = "true", matchIfMissing = false)
+public class TaskCounterRepairJob {
+	static final String LOCK = "task-counter-repair";
+
+	private final ProjectRepository projectRepository;
+	private final OwnerVersionService ownerVersionService;
+	private final JobLockRepository jobLockRepository;
+	private final TransactionTemplate transactionTemplate;
+
+	// Nombre d'ids de projet parcourus par transaction
+	@Value("${projects.task-counters.repair.batch-size:1000}")
+	private long batchSize = 1000;
+
+	// Durée du bail : un peu moins que l'intervalle, pour un seul passage par intervalle sur l'ensemble des instances
+	@Value("${projects.task-counters.repair.lock-ms:3000000}")
+	private long lockMs = 3000000;
+
+	/**
+	 * @return le nombre de projets corrigés, 0 si une autre instance tient le bail
+	 */
+	@Scheduled(
+		initialDelayString = "${projects.task-counters.repair.initial-delay-ms:60000}",
+		fixedDelayString = "${projects.task-counters.repair.interval-ms:3600000}"
+	)
+	public int repair() {
+		long now = System.currentTimeMillis();
+		// Bail pris dans sa propre transaction : validé avant le parcours, les autres instances le voient aussitôt
+		Integer acquired = transactionTemplate.execute(status -> jobLockRepository.acquire(LOCK, now, now + lockMs));
+		if (acquired == null || acquired == 0) {
+			log.debug("Réparation des compteurs de tâches déjà faite ou en cours sur une autre instance");
+			return 0;
+		}
+		Long maxId = projectRepository.findMaxId();
+		int repaired = 0;
+		for (long afterId = 0; maxId != null && afterId < maxId; afterId += batchSize) {
+			long from = afterId;
+			Integer batch = transactionTemplate.execute(status -> repair(from, from + batchSize));
+			repaired += batch != null ? batch : 0;
+		}
+		return repaired;
+	}
+
+	private int repair(long afterId, long untilId) {
+		List<Long> drifted = projectRepository.findIdsWithDriftedTaskCounts(afterId, untilId);
+		if (!drifted.isEmpty()) {
+			// Les résumés de ces projets changent : invalider les ETags de leurs propriétaires,
+			// avant de toucher aux projets comme le font les autres écritures
+			ownerVersionService.bump(projectRepository.findOwnerIdsByIdIn(drifted));
+			drifted.forEach(projectRepository::recountTasks);
+			log.warn("Compteurs de tâches corrigés pour {} projet(s) : {}", drifted.size(), drifted);
+		}
+		return drifted.size();
+	}
+}
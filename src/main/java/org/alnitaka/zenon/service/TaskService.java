@@ -1,28 +1,48 @@
 package org.alnitaka.zenon.service;
 
 import jakarta.persistence.EntityNotFoundException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.alnitaka.zenon.dto.BulkResult;
 import org.alnitaka.zenon.dto.TaskDto;
+import org.alnitaka.zenon.dto.TaskStatusChange;
+import org.alnitaka.zenon.dto.Versioned;
 import org.alnitaka.zenon.entity.Project;
 import org.alnitaka.zenon.entity.Task;
-import org.alnitaka.zenon.entity.User;
+import org.alnitaka.zenon.entity.Tombstone;
+import org.alnitaka.zenon.exception.ConflictException;
+import org.alnitaka.zenon.exception.PreconditionFailedException;
+import org.alnitaka.zenon.exception.UniqueConstraints;
 import org.alnitaka.zenon.mapper.TaskMapper;
 import org.alnitaka.zenon.repository.ProjectRepository;
 import org.alnitaka.zenon.repository.TaskRepository;
+import org.alnitaka.zenon.repository.TombstoneRepository;
+import org.alnitaka.zenon.repository.projection.TaskRow;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
 public class TaskService {
 	private final TaskRepository taskRepository;
 	private final ProjectRepository projectRepository;
+	private final TombstoneRepository tombstoneRepository;
 	private final TaskMapper taskMapper;
 	private final UserService userService;
+	private final OwnerVersionService ownerVersionService;
 	private static final String NO_TASK = "Tâche introuvable";
+	private static final String STALE_TASK = "Tâche modifiée entre-temps";
 	private static final String NO_AUTH = "Non authentifié";
 	private static final String NO_PROJECT = "Projet introuvable";
+	private static final String TAKEN_NAME = "Nom de tâche pris entre-temps";
 
 	/**
 	 * Retrieves a {@link Task} by its identifier.
@@ -31,6 +51,7 @@ public class TaskService {
 	 * @return the {@link Task} with the specified id
 	 * @throws EntityNotFoundException if no task with the given id exists
 	 */
+	@Transactional(readOnly = true)
 	public Task getTask(Long id) {
 		return taskRepository.findById(id)
 			.orElseThrow(() -> new EntityNotFoundException(NO_TASK));
@@ -38,47 +59,298 @@ public class TaskService {
 
 	/**
 	 * Creates a new task in the specified project.
+	 * <p>
+	 * Only the ownership of the project is checked; the task is then inserted against a
+	 * reference to the project, so neither the project nor its existing tasks are loaded and
+	 * the cost does not depend on the size of the project.
 	 *
 	 * @param dto the data transfer object containing the task details
 	 * @param projectId the identifier of the project to which the task will be added
-	 * @return the list of all tasks belonging to the project after the new task has been added
+	 * @return the created task
 	 * @throws AccessDeniedException if the current user is not authenticated
 	 * @throws EntityNotFoundException if the project with the given id does not exist or does not belong to the current user
 	 */
-	public List<Task> create(TaskDto dto, Long projectId) {
-		User me = userService.getCurrentUser()
+	@Transactional
+	public Task create(TaskDto dto, Long projectId) {
+		Long myId = userService.getCurrentUserId()
 			.orElseThrow(() -> new AccessDeniedException(NO_AUTH));
-		Project project = projectRepository.findByIdAndOwnerId(projectId, me.getId())
-			.orElseThrow(() -> new EntityNotFoundException(NO_PROJECT));
+		if (!projectRepository.existsByIdAndOwnerId(projectId, myId)) {
+			throw new EntityNotFoundException(NO_PROJECT);
+		}
 		Task task = taskMapper.toEntity(dto);
-		task.setProject(project);
-		project.getTasks().add(task);
-		project = projectRepository.save(project);
-		return project.getTasks();
+		// Référence sans SELECT : la collection project.tasks n'est ni chargée ni modifiée
+		task.setProject(projectRepository.getReferenceById(projectId));
+		task.setOwnerId(myId);
+		task.setChangeVersion(ownerVersionService.bump(myId));
+		Task saved = taskRepository.save(task);
+		projectRepository.incrementTaskCounts(projectId, 1, saved.isActive() ? 1 : 0);
+		return saved;
 	}
 
 	/**
-	 * Updates an existing {@link Task} with the information supplied in the {@link TaskDto}.
+	 * Creates several tasks in the specified project in one transaction.
+	 * <p>
+	 * Names already taken, in the database or earlier in the same request, are reported as
+	 * {@link BulkResult.Status#DUPLICATE} instead of failing the whole request. The remaining
+	 * tasks are persisted together and flushed as JDBC batches (see {@code hibernate.jdbc.batch_size}).
+	 * A name taken by a concurrent request between the check and the insert fails the whole request
+	 * with a {@link ConflictException}, since the transaction cannot continue past the violation.
 	 *
-	 * @param dto the data transfer object containing the updated task information
-	 * @return the updated {@link Task} entity
+	 * @param projectId the identifier of the project to which the tasks will be added
+	 * @param dtos the tasks to create
+	 * @return one result per requested task, in request order
+	 * @throws AccessDeniedException if the current user is not authenticated
+	 * @throws EntityNotFoundException if the project with the given id does not exist or does not belong to the current user
+	 * @throws ConflictException if a name was taken by another request after it was checked
 	 */
-	public Task update(TaskDto dto) {
-		Task existing = taskRepository.findById(dto.id())
+	@Transactional
+	public List<BulkResult> createAll(Long projectId, List<TaskDto> dtos) {
+		Long myId = userService.getCurrentUserId()
+			.orElseThrow(() -> new AccessDeniedException(NO_AUTH));
+		if (!projectRepository.existsByIdAndOwnerId(projectId, myId)) {
+			throw new EntityNotFoundException(NO_PROJECT);
+		}
+		if (dtos.isEmpty()) {
+			return List.of();
+		}
+		Project project = projectRepository.getReferenceById(projectId);
+		Set<String> taken = new HashSet<>(taskRepository.findNomsByNomIn(dtos.stream().map(TaskDto::nom).toList()));
+		Task[] created = new Task[dtos.size()];
+		List<Task> toInsert = new ArrayList<>(dtos.size());
+		for (int i = 0; i < dtos.size(); i++) {
+			TaskDto dto = dtos.get(i);
+			if (taken.add(dto.nom())) {
+				Task task = taskMapper.toEntity(dto);
+				task.setProject(project);
+				task.setOwnerId(myId);
+				created[i] = task;
+				toInsert.add(task);
+			}
+		}
+		if (!toInsert.isEmpty()) {
+			long version = ownerVersionService.bump(myId);
+			toInsert.forEach(task -> task.setChangeVersion(version));
+			// Les ids viennent de la séquence dès persist : les INSERT partent groupés au flush
+			taskRepository.saveAll(toInsert);
+			try {
+				// Flush ici pour reconnaître un nom pris entre la vérification et l'insertion
+				taskRepository.flush();
+			} catch (DataIntegrityViolationException e) {
+				if (!UniqueConstraints.isViolated(e, "nom")) {
+					throw e;
+				}
+				throw new ConflictException(TAKEN_NAME);
+			}
+			int active = (int) toInsert.stream().filter(Task::isActive).count();
+			projectRepository.incrementTaskCounts(projectId, toInsert.size(), active);
+		}
+		List<BulkResult> results = new ArrayList<>(dtos.size());
+		for (int i = 0; i < created.length; i++) {
+			results.add(created[i] == null
+				? new BulkResult(i, null, BulkResult.Status.DUPLICATE)
+				: new BulkResult(i, created[i].getId(), BulkResult.Status.CREATED));
+		}
+		return results;
+	}
+
+	/**
+	 * Sets the {@code active} flag of several tasks of the specified project in one transaction.
+	 * <p>
+	 * Tasks are updated with at most two set-based {@code UPDATE} statements, one per target
+	 * state, scoped to the projects of the current user; no task is loaded. When the same task
+	 * appears more than once, the last change wins.
+	 *
+	 * @param projectId the identifier of the project owning the tasks
+	 * @param changes the requested changes
+	 * @return one result per requested change, in request order; tasks outside the project are
+	 *         reported as {@link BulkResult.Status#NOT_FOUND}
+	 * @throws AccessDeniedException if the current user is not authenticated
+	 * @throws EntityNotFoundException if the project with the given id does not exist or does not belong to the current user
+	 */
+	@Transactional
+	public List<BulkResult> updateStatus(Long projectId, List<TaskStatusChange> changes) {
+		Long myId = userService.getCurrentUserId()
+			.orElseThrow(() -> new AccessDeniedException(NO_AUTH));
+		if (!projectRepository.existsByIdAndOwnerId(projectId, myId)) {
+			throw new EntityNotFoundException(NO_PROJECT);
+		}
+		if (changes.isEmpty()) {
+			return List.of();
+		}
+		Map<Long, Boolean> wanted = new LinkedHashMap<>();
+		changes.forEach(change -> wanted.put(change.id(), change.active()));
+		Set<Long> found = taskRepository.findIdsByProjectIdAndIdIn(projectId, wanted.keySet());
+		Map<Boolean, List<Long>> byState = found.stream()
+			.collect(Collectors.partitioningBy(wanted::get));
+		if (!found.isEmpty()) {
+			long version = ownerVersionService.bump(myId);
+			byState.forEach((active, ids) -> {
+				if (!ids.isEmpty()) {
+					// Compteur ajusté d'après l'état avant modification
+					projectRepository.adjustActiveTaskCount(projectId, ids, active, active ? 1 : -1);
+					taskRepository.updateActive(projectId, myId, ids, active, version);
+				}
+			});
+		}
+		List<BulkResult> results = new ArrayList<>(changes.size());
+		for (int i = 0; i < changes.size(); i++) {
+			Long id = changes.get(i).id();
+			results.add(new BulkResult(i, id, found.contains(id) ? BulkResult.Status.UPDATED : BulkResult.Status.NOT_FOUND));
+		}
+		return results;
+	}
+
+	/**
+	 * Returns a task of a project of the currently authenticated user.
+	 *
+	 * @param projectId the unique identifier of the project the task belongs to
+	 * @param id the unique identifier of the task
+	 * @return the task
+	 * @throws AccessDeniedException if there is no authenticated user in the security context
+	 * @throws EntityNotFoundException if no such task exists in a project of the current user
+	 */
+	@Transactional(readOnly = true)
+	public TaskDto getTask(Long projectId, Long id) {
+		Long myId = userService.getCurrentUserId()
+			.orElseThrow(() -> new AccessDeniedException(NO_AUTH));
+		return taskRepository.findRowByIdAndOwnerId(id, myId)
+			.filter(row -> row.projectId().equals(projectId))
+			.map(row -> new TaskDto(row.id(), row.nom(), row.active()))
+			.orElseThrow(() -> new EntityNotFoundException(NO_TASK));
+	}
+
+	/**
+	 * Returns the optimistic-locking version of a task of the currently authenticated user,
+	 * with a single lookup that loads nothing else.
+	 *
+	 * @param projectId the unique identifier of the project the task belongs to
+	 * @param id the unique identifier of the task
+	 * @return the current version of the task
+	 * @throws AccessDeniedException if there is no authenticated user in the security context
+	 * @throws EntityNotFoundException if no such task exists in a project of the current user
+	 */
+	@Transactional(readOnly = true)
+	public long getVersion(Long projectId, Long id) {
+		Long myId = userService.getCurrentUserId()
+			.orElseThrow(() -> new AccessDeniedException(NO_AUTH));
+		return taskRepository.findVersionByIdAndProjectIdAndOwnerId(id, projectId, myId)
 			.orElseThrow(() -> new EntityNotFoundException(NO_TASK));
-		existing.setNom(dto.nom());
-		existing.setActive(dto.active());
-		return taskRepository.save(existing);
 	}
 
 	/**
-	 * Deletes the {@link Task} identified by the given {@code id}.
+	 * Updates an existing task with the information supplied in the {@link TaskDto}, with an
+	 * {@code UPDATE} restricted to the projects of the current user. The task is never loaded.
 	 *
-	 * @param id the unique identifier of the {@link Task} to delete
+	 * @param projectId the unique identifier of the project the task belongs to
+	 * @param dto the data transfer object containing the updated task information
+	 * @return the updated task
+	 * @throws AccessDeniedException if the current user is not authenticated
+	 * @throws EntityNotFoundException if the task does not exist in a project of the current user
 	 */
-	public void delete(Long id) {
-		Task existing = taskRepository.findById(id)
+	@Transactional
+	public TaskDto update(Long projectId, TaskDto dto) {
+		return update(projectId, dto, null).value();
+	}
+
+	/**
+	 * Updates an existing task if it is still at {@code expectedVersion}. The version check and
+	 * increment are part of the owner-scoped {@code UPDATE}; only when no row matches is
+	 * the task looked up, to tell a stale version from a missing task.
+	 * <p>
+	 * The {@code UPDATE} is first restricted to a task whose state changes, then to one whose state stays:
+	 * whichever matches tells, under the row lock, whether the active counter of the project must move.
+	 * The project is written only after the task write has matched, so a foreign task id never
+	 * touches, nor locks, another user's project.
+	 *
+	 * @param projectId the unique identifier of the project the task belongs to
+	 * @param dto the data transfer object containing the updated task information
+	 * @param expectedVersion the version the caller last read, or {@code null} for an unconditional update
+	 * @return the updated task, with the owner tag and task version its new ETag is built from
+	 * @throws AccessDeniedException if the current user is not authenticated
+	 * @throws EntityNotFoundException if the task does not exist in a project of the current user
+	 * @throws PreconditionFailedException if the task has been modified since {@code expectedVersion}
+	 */
+	@Transactional
+	public Versioned<TaskDto> update(Long projectId, TaskDto dto, Long expectedVersion) {
+		Long myId = userService.getCurrentUserId()
+			.orElseThrow(() -> new AccessDeniedException(NO_AUTH));
+		// Version prise avant toute écriture : même ordre de verrouillage que les autres chemins
+		long version = ownerVersionService.bump(myId);
+		boolean toggled = taskRepository.updateByIdAndOwnerId(dto.id(), projectId, myId, dto.nom(), dto.active(),
+			!dto.active(), expectedVersion, version) == 1;
+		if (!toggled && taskRepository.updateByIdAndOwnerId(dto.id(), projectId, myId, dto.nom(), dto.active(),
+			dto.active(), expectedVersion, version) == 0) {
+			throw notUpdated(projectId, dto.id(), myId, expectedVersion);
+		}
+		if (toggled) {
+			// La mise à jour a trouvé la tâche dans ce projet, qui est donc à l'utilisateur
+			projectRepository.incrementTaskCounts(projectId, 0, dto.active() ? 1 : -1);
+		}
+		// Version attendue : celle écrite en est le successeur, sans relecture
+		long taskVersion = expectedVersion != null ? expectedVersion + 1
+			: taskRepository.findVersionByIdAndProjectIdAndOwnerId(dto.id(), projectId, myId)
+				.orElseThrow(() -> new EntityNotFoundException(NO_TASK));
+		return new Versioned<>(new TaskDto(dto.id(), dto.nom(), dto.active()),
+			OwnerVersionService.eTag(myId, version), taskVersion);
+	}
+
+	/**
+	 * Deletes the task identified by the given {@code id}, with a {@code DELETE} restricted
+	 * to the projects of the current user.
+	 *
+	 * @param projectId the unique identifier of the project the task belongs to
+	 * @param id the unique identifier of the task to delete
+	 * @throws AccessDeniedException if the current user is not authenticated
+	 * @throws EntityNotFoundException if the task does not exist in a project of the current user
+	 */
+	@Transactional
+	public void delete(Long projectId, Long id) {
+		delete(projectId, id, null);
+	}
+
+	/**
+	 * Deletes the task identified by the given {@code id} if it is still at {@code expectedVersion},
+	 * with a {@code DELETE} restricted to the projects of the current user.
+	 * <p>
+	 * The task is first looked up among the current user's projects, which yields its project without
+	 * writing anything: a foreign task id is rejected before any row is written or locked. The
+	 * {@code DELETE} then re-checks the state read, so the counters of the project follow the task actually deleted.
+	 *
+	 * @param projectId the unique identifier of the project the task belongs to
+	 * @param id the unique identifier of the task to delete
+	 * @param expectedVersion the version the caller last read, or {@code null} for an unconditional delete
+	 * @throws AccessDeniedException if the current user is not authenticated
+	 * @throws EntityNotFoundException if the task does not exist in a project of the current user
+	 * @throws PreconditionFailedException if the task has been modified since {@code expectedVersion}
+	 */
+	@Transactional
+	public void delete(Long projectId, Long id, Long expectedVersion) {
+		Long myId = userService.getCurrentUserId()
+			.orElseThrow(() -> new AccessDeniedException(NO_AUTH));
+		TaskRow task = taskRepository.findRowByIdAndOwnerId(id, myId)
+			.filter(row -> row.projectId().equals(projectId))
 			.orElseThrow(() -> new EntityNotFoundException(NO_TASK));
-		taskRepository.delete(existing);
+		long version = ownerVersionService.bump(myId);
+		boolean wasActive = task.active();
+		int deleted = taskRepository.deleteByIdAndOwnerId(id, myId, wasActive, expectedVersion);
+		if (deleted == 0) {
+			// Activée ou désactivée entre la lecture et la suppression
+			wasActive = !wasActive;
+			deleted = taskRepository.deleteByIdAndOwnerId(id, myId, wasActive, expectedVersion);
+		}
+		if (deleted == 0) {
+			throw notUpdated(projectId, id, myId, expectedVersion);
+		}
+		// Projet lu parmi ceux de l'utilisateur, et une tâche ne change jamais de projet
+		projectRepository.incrementTaskCounts(projectId, -1, wasActive ? -1 : 0);
+		tombstoneRepository.save(new Tombstone(myId, Tombstone.Type.TASK, id, version));
+	}
+
+	// Aucune ligne écrite : version périmée si la tâche existe encore, sinon tâche introuvable
+	private RuntimeException notUpdated(Long projectId, Long id, Long myId, Long expectedVersion) {
+		if (expectedVersion != null && taskRepository.findVersionByIdAndProjectIdAndOwnerId(id, projectId, myId).isPresent()) {
+			return new PreconditionFailedException(STALE_TASK);
+		}
+		return new EntityNotFoundException(NO_TASK);
 	}
 }
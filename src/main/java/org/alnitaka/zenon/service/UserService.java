@@ -1,13 +1,22 @@
 package org.alnitaka.zenon.service;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.alnitaka.zenon.dto.UserDto;
 import org.alnitaka.zenon.entity.User;
 import org.alnitaka.zenon.repository.UserRepository;
+import org.alnitaka.zenon.security.UserPrincipal;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @RequiredArgsConstructor
 @Service
@@ -15,14 +24,57 @@ public class UserService {
 
 	private final UserRepository userRepository;
 
+	/**
+	 * Loads the {@link User} entity of the currently authenticated user.
+	 * <p>
+	 * Prefer {@link #getCurrentUserId()} when only the identifier is needed: it does not hit the database.
+	 *
+	 * @return the current user, or empty if no user is authenticated or it no longer exists
+	 */
+	@Transactional(readOnly = true)
 	public Optional<User> getCurrentUser() {
+		return getCurrentUserDetails()
+			.flatMap(principal -> userRepository.findUserByEmail(principal.getUsername()));
+	}
+
+	/**
+	 * Returns the identifier of the currently authenticated user.
+	 * <p>
+	 * The identifier is read from the {@link UserPrincipal} held in the security context, which the JWT
+	 * filter builds from the token claims, so no query is issued. Other {@link UserDetails} principals fall
+	 * back to {@link #getCurrentUser()}.
+	 *
+	 * @return the current user's id, or empty if no user is authenticated
+	 */
+	public Optional<Long> getCurrentUserId() {
+		return getCurrentUserDetails()
+			.flatMap(principal -> principal instanceof UserPrincipal userPrincipal
+				? Optional.ofNullable(userPrincipal.getId())
+				: getCurrentUser().map(User::getId));
+	}
+
+	/**
+	 * Loads the given users as {@link UserDto}s, without managed entities.
+	 *
+	 * @param ids the user identifiers; {@code null} values are ignored
+	 * @return the users found, indexed by id
+	 */
+	@Transactional(readOnly = true)
+	public Map<Long, UserDto> getUsersById(Collection<Long> ids) {
+		Set<Long> wanted = ids.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+		if (wanted.isEmpty()) {
+			return Map.of();
+		}
+		return userRepository.findDtosByIdIn(wanted).stream()
+			.collect(Collectors.toMap(UserDto::id, Function.identity()));
+	}
+
+	private Optional<UserDetails> getCurrentUserDetails() {
 		Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-		if (auth == null || !auth.isAuthenticated() || auth.getPrincipal() instanceof String) {
+		if (auth == null || !auth.isAuthenticated() || !(auth.getPrincipal() instanceof UserDetails principal)) {
 			// Pas d’utilisateur authentifié
 			return Optional.empty();
 		}
-
-		String email = ((UserDetails) auth.getPrincipal()).getUsername();
-		return userRepository.findUserByEmail(email);
+		return Optional.of(principal);
 	}
 }
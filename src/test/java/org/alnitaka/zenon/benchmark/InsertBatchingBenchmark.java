@@ -0,0 +1,124 @@
+package org.alnitaka.zenon.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare le débit d'insertion selon la stratégie de génération des ids.
+ * <p>
+ * {@code identity} reproduit ce que fait Hibernate avec {@code GenerationType.IDENTITY} : une
+ * requête par ligne, suivie de la lecture de la clé générée, ce qui empêche tout regroupement.
+ * {@code pooledSequence} reproduit l'optimiseur "pooled" : un appel à la séquence pour un bloc de
+ * {@value #BATCH} ids, puis un seul lot JDBC. Le résultat est exprimé par ligne insérée.
+ * <p>
+ * Lancement : {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=InsertBatching}.
+ * La base H2 en mémoire ne mesure que le coût côté JDBC ; pour inclure les allers-retours réseau,
+ * passer une URL MariaDB : {@code -Dbenchmark="InsertBatching -p url=jdbc:mariadb://... -p user=... -p password=..."}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InsertBatchingBenchmark {
+
+	private static final int BATCH = 50;
+
+	@Param("jdbc:h2:mem:bench;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+	public String url;
+
+	@Param("sa")
+	public String user;
+
+	@Param("")
+	public String password;
+
+	private Connection connection;
+	private long counter;
+
+	@Setup
+	public void setUp() throws SQLException {
+		connection = DriverManager.getConnection(url, user, password);
+		try (Statement st = connection.createStatement()) {
+			st.execute("DROP TABLE IF EXISTS bench_task");
+			st.execute("DROP SEQUENCE IF EXISTS bench_task_seq");
+			st.execute("CREATE TABLE bench_task (id BIGINT AUTO_INCREMENT PRIMARY KEY, nom VARCHAR(255) NOT NULL UNIQUE, active BOOLEAN NOT NULL)");
+			st.execute("CREATE SEQUENCE bench_task_seq START WITH " + BATCH + " INCREMENT BY " + BATCH);
+		}
+		connection.setAutoCommit(false);
+	}
+
+	@TearDown
+	public void tearDown() throws SQLException {
+		connection.setAutoCommit(true);
+		try (Statement st = connection.createStatement()) {
+			st.execute("DROP TABLE bench_task");
+			st.execute("DROP SEQUENCE bench_task_seq");
+		}
+		connection.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public long identity() throws SQLException {
+		long last = 0;
+		try (PreparedStatement ps = connection.prepareStatement(
+			"INSERT INTO bench_task (nom, active) VALUES (?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+			for (int i = 0; i < BATCH; i++) {
+				ps.setString(1, "task-" + counter++);
+				ps.setBoolean(2, true);
+				ps.executeUpdate();
+				try (ResultSet keys = ps.getGeneratedKeys()) {
+					keys.next();
+					last = keys.getLong(1);
+				}
+			}
+		}
+		connection.commit();
+		return last;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public long pooledSequence() throws SQLException {
+		long hi;
+		try (Statement st = connection.createStatement();
+			 ResultSet rs = st.executeQuery("SELECT NEXT VALUE FOR bench_task_seq")) {
+			rs.next();
+			hi = rs.getLong(1);
+		}
+		// Comme l'optimiseur "pooled" : la valeur lue est le haut du bloc
+		long id = hi - BATCH + 1;
+		try (PreparedStatement ps = connection.prepareStatement(
+			"INSERT INTO bench_task (id, nom, active) VALUES (?, ?, ?)")) {
+			for (int i = 0; i < BATCH; i++) {
+				ps.setLong(1, id + i);
+				ps.setString(2, "task-" + counter++);
+				ps.setBoolean(3, true);
+				ps.addBatch();
+			}
+			ps.executeBatch();
+		}
+		connection.commit();
+		return hi;
+	}
+}
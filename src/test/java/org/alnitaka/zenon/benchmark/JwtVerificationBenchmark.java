@@ -0,0 +1,75 @@
+package org.alnitaka.zenon.benchmark;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.alnitaka.zenon.security.JwtTokenProvider;
+import org.alnitaka.zenon.security.Role;
+import org.alnitaka.zenon.security.TokenVerification;
+import org.alnitaka.zenon.security.UserPrincipal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+/**
+ * Compare le coût par requête de la vérification d'un JWT.
+ * <p>
+ * {@code legacyValidateThenParse} reproduit l'ancien chemin du filtre (validation du jeton puis
+ * lecture de son sujet, chacune reconstruisant la clé et le parser) ; {@code singleParse}
+ * utilise {@link JwtTokenProvider#verify(String)}. Le second doit coûter environ la moitié du premier.
+ * <p>
+ * Lancement : {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=JwtVerification}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+	private static final String SECRET =
+		"0123456789ABCDEF0123456789ABCDEF0123456789ABCDEF0123456789ABCDEF";
+
+	private JwtTokenProvider provider;
+	private String token;
+
+	@Setup
+	public void setUp() {
+		provider = new JwtTokenProvider(SECRET, 3_600_000L);
+		UserPrincipal principal = new UserPrincipal(1L, "bench@example.com", null, Set.of(Role.ROLE_USER), 0, true);
+		token = provider.generateToken(
+			new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+	}
+
+	@Benchmark
+	public String legacyValidateThenParse() {
+		Jwts.parser()
+			.verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+			.build()
+			.parseSignedClaims(token);
+		return Jwts.parser()
+			.verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+			.build()
+			.parseSignedClaims(token)
+			.getPayload()
+			.getSubject();
+	}
+
+	@Benchmark
+	public Object singleParse() {
+		if (provider.verify(token) instanceof TokenVerification.Valid valid) {
+			return provider.getPrincipal(valid.claims()).orElseThrow();
+		}
+		throw new IllegalStateException("Jeton de benchmark invalide");
+	}
+}
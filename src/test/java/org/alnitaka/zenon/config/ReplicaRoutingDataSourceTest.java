@@ -0,0 +1,112 @@
+package org.alnitaka.zenon.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routage primaire / réplica sur deux bases H2 embarquées, chacune portant son nom dans une table témoin.
+ */
+class ReplicaRoutingDataSourceTest {
+
+	private final AtomicLong nanos = new AtomicLong();
+
+	private JdbcTemplate jdbc;
+	private TransactionTemplate readOnly;
+	private TransactionTemplate readWrite;
+
+	@BeforeEach
+	void setUp() {
+		DataSource primary = database("primary");
+		DataSource replica = database("replica");
+		ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofSeconds(5), 1_000, nanos::get);
+		DataSource routing = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, tracker));
+
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+		transactionManager.addListener(tracker);
+		jdbc = new JdbcTemplate(routing);
+		readWrite = new TransactionTemplate(transactionManager);
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+	}
+
+	@AfterEach
+	void clearSecurityContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void readOnlyTransaction_goesToReplica() {
+		assertThat(readOnly.execute(status -> currentDatabase())).isEqualTo("replica");
+	}
+
+	@Test
+	void readWriteTransaction_andNoTransaction_goToPrimary() {
+		assertThat(readWrite.execute(status -> currentDatabase())).isEqualTo("primary");
+		assertThat(currentDatabase()).isEqualTo("primary");
+	}
+
+	@Test
+	void readsAfterOwnWrite_goToPrimary_untilWindowElapses() {
+		authenticate("alice@example.com");
+		readWrite.executeWithoutResult(status -> currentDatabase());
+
+		assertThat(readOnly.execute(status -> currentDatabase())).isEqualTo("primary");
+
+		nanos.addAndGet(TimeUnit.SECONDS.toNanos(6));
+		assertThat(readOnly.execute(status -> currentDatabase())).isEqualTo("replica");
+	}
+
+	@Test
+	void readsAfterAnotherUsersWrite_stayOnReplica() {
+		authenticate("alice@example.com");
+		readWrite.executeWithoutResult(status -> currentDatabase());
+
+		authenticate("bob@example.com");
+		assertThat(readOnly.execute(status -> currentDatabase())).isEqualTo("replica");
+	}
+
+	@Test
+	void rolledBackWrite_doesNotPinToPrimary() {
+		authenticate("alice@example.com");
+		readWrite.executeWithoutResult(status -> {
+			currentDatabase();
+			status.setRollbackOnly();
+		});
+
+		assertThat(readOnly.execute(status -> currentDatabase())).isEqualTo("replica");
+	}
+
+	private String currentDatabase() {
+		return jdbc.queryForObject("select name from whoami", String.class);
+	}
+
+	private static void authenticate(String email) {
+		SecurityContextHolder.getContext().setAuthentication(
+			UsernamePasswordAuthenticationToken.authenticated(email, null, List.of()));
+	}
+
+	private static DataSource database(String name) {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		jdbc.execute("create table if not exists whoami (name varchar(16))");
+		jdbc.execute("delete from whoami");
+		jdbc.update("insert into whoami values (?)", name);
+		return dataSource;
+	}
+}
@@ -0,0 +1,50 @@
+package org.alnitaka.zenon.controller;
+
+import org.alnitaka.zenon.exception.PreconditionFailedException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EntityTagsTest {
+
+	@Test
+	void ifMatch_readsEntityVersion_fromTagBuiltForGet() {
+		String tag = "\"" + EntityTags.of("1.42", 7) + "\"";
+
+		assertThat(EntityTags.expectedVersion(tag, 1L)).isEqualTo(7L);
+	}
+
+	@Test
+	void missingOrWildcardIfMatch_meansUnconditional() {
+		assertThat(EntityTags.expectedVersion(null, 1L)).isNull();
+		assertThat(EntityTags.expectedVersion(" ", 1L)).isNull();
+		assertThat(EntityTags.expectedVersion("*", 1L)).isNull();
+	}
+
+	@Test
+	void weakOrMalformedTags_cannotMatch() {
+		assertThatThrownBy(() -> EntityTags.expectedVersion("W/\"1.42.7\"", 1L)).isInstanceOf(PreconditionFailedException.class);
+		assertThatThrownBy(() -> EntityTags.expectedVersion("\"abc\"", 1L)).isInstanceOf(PreconditionFailedException.class);
+		// Autre forme que <utilisateur>.<version des données>.<version de l'entité>
+		assertThatThrownBy(() -> EntityTags.expectedVersion("\"7\"", 1L)).isInstanceOf(PreconditionFailedException.class);
+		assertThatThrownBy(() -> EntityTags.expectedVersion("\"1.42\"", 1L)).isInstanceOf(PreconditionFailedException.class);
+		assertThatThrownBy(() -> EntityTags.expectedVersion("\"x.1.42.7\"", 1L)).isInstanceOf(PreconditionFailedException.class);
+		assertThatThrownBy(() -> EntityTags.expectedVersion("\"1.42.99999999999999999999\"", 1L))
+			.isInstanceOf(PreconditionFailedException.class);
+	}
+
+	@Test
+	void listTag_cannotMatch() {
+		assertThatThrownBy(() -> EntityTags.expectedVersion("\"1.42.7\", \"1.42.8\"", 1L)).isInstanceOf(PreconditionFailedException.class);
+		assertThatThrownBy(() -> EntityTags.expectedVersion("\"1.42.7\",\"1.42.8\"", 1L)).isInstanceOf(PreconditionFailedException.class);
+	}
+
+	@Test
+	void foreignTag_cannotMatch() {
+		String tag = "\"" + EntityTags.of("2.42", 7) + "\"";
+
+		assertThatThrownBy(() -> EntityTags.expectedVersion(tag, 1L)).isInstanceOf(PreconditionFailedException.class);
+		assertThatThrownBy(() -> EntityTags.expectedVersion(tag, null)).isInstanceOf(PreconditionFailedException.class);
+	}
+}
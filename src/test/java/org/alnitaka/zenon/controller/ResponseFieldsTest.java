@@ -0,0 +1,75 @@
+package org.alnitaka.zenon.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.alnitaka.zenon.dto.ClientDto;
+import org.alnitaka.zenon.dto.Expand;
+import org.alnitaka.zenon.dto.ProjectDto;
+import org.alnitaka.zenon.dto.TaskDto;
+import org.alnitaka.zenon.dto.UserDto;
+import org.alnitaka.zenon.exception.InvalidFieldsException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResponseFieldsTest {
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	private static final UserDto OWNER = new UserDto(1L, null, "me@mail.test", null, null, true, Set.of());
+	private static final ProjectDto PROJECT = new ProjectDto(10L, "P1", OWNER,
+		new ClientDto(5L, "Client", "client@mail.test", OWNER), List.of(new TaskDto(100L, "T1", true)));
+
+	@Test
+	void defaults_expandEverything_andKeepAllFields() throws Exception {
+		ResponseFields.Selection selection = ResponseFields.forProjects(null, null);
+
+		assertThat(selection.expand()).containsExactlyInAnyOrder(Expand.values());
+		assertThat(fieldNames(write(selection.projects(PROJECT))))
+			.containsExactlyInAnyOrder("id", "nom", "owner", "client", "tasks");
+	}
+
+	@Test
+	void fields_limitProperties_andTheAssociationsToRead() throws Exception {
+		ResponseFields.Selection selection = ResponseFields.forProjects("id,nom,tasks", null);
+
+		assertThat(selection.expand()).containsExactly(Expand.TASKS);
+		assertThat(fieldNames(write(selection.projects(PROJECT)))).containsExactlyInAnyOrder("id", "nom", "tasks");
+	}
+
+	@Test
+	void expand_dropsAssociationsNotRead_andOwnerOfEmbeddedClient() throws Exception {
+		ResponseFields.Selection selection = ResponseFields.forProjects(null, "client");
+
+		assertThat(selection.expand()).containsExactly(Expand.CLIENT);
+		JsonNode json = write(selection.projects(PROJECT));
+		assertThat(fieldNames(json)).containsExactlyInAnyOrder("id", "nom", "client");
+		assertThat(fieldNames(json.get("client"))).containsExactlyInAnyOrder("id", "nom", "email");
+	}
+
+	@Test
+	void emptyExpand_readsNoAssociation() {
+		assertThat(ResponseFields.forClients(null, "").expand()).isEmpty();
+		assertThat(ResponseFields.forClients(null, "").fields()).containsExactlyInAnyOrder("id", "nom", "email");
+	}
+
+	@Test
+	void unknownNames_areRejected() {
+		assertThatThrownBy(() -> ResponseFields.forProjects("id,budget", null)).isInstanceOf(InvalidFieldsException.class);
+		// Les clients n'ont ni tâches ni client
+		assertThatThrownBy(() -> ResponseFields.forClients(null, "tasks")).isInstanceOf(InvalidFieldsException.class);
+	}
+
+	private JsonNode write(MappingJacksonValue value) throws Exception {
+		return mapper.readTree(mapper.writer(value.getFilters()).writeValueAsString(value.getValue()));
+	}
+
+	private static List<String> fieldNames(JsonNode node) {
+		return node.properties().stream().map(Map.Entry::getKey).toList();
+	}
+}
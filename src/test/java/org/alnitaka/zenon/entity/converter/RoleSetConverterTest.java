@@ -0,0 +1,43 @@
+package org.alnitaka.zenon.entity.converter;
+
+import java.util.EnumSet;
+import java.util.Set;
+import org.alnitaka.zenon.security.Role;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoleSetConverterTest {
+
+	private final RoleSetConverter converter = new RoleSetConverter();
+
+	@Test
+	void convertToDatabaseColumn_setsOneBitPerRole() {
+		assertThat(converter.convertToDatabaseColumn(Set.of(Role.ROLE_USER))).isEqualTo(1);
+		assertThat(converter.convertToDatabaseColumn(Set.of(Role.ROLE_ADMIN))).isEqualTo(2);
+		assertThat(converter.convertToDatabaseColumn(Set.of(Role.ROLE_USER, Role.ROLE_ADMIN))).isEqualTo(3);
+	}
+
+	@Test
+	void convertToDatabaseColumn_returnsZero_forNullOrEmpty() {
+		assertThat(converter.convertToDatabaseColumn(null)).isZero();
+		assertThat(converter.convertToDatabaseColumn(Set.of())).isZero();
+	}
+
+	@Test
+	void convertToEntityAttribute_roundTrips() {
+		for (Set<Role> roles : Set.of(
+			EnumSet.noneOf(Role.class),
+			EnumSet.of(Role.ROLE_USER),
+			EnumSet.of(Role.ROLE_ADMIN),
+			EnumSet.allOf(Role.class))) {
+			assertThat(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(roles)))
+				.isEqualTo(roles);
+		}
+	}
+
+	@Test
+	void convertToEntityAttribute_returnsEmptySet_forNull() {
+		assertThat(converter.convertToEntityAttribute(null)).isEmpty();
+	}
+}
@@ -0,0 +1,34 @@
+package org.alnitaka.zenon.exception;
+
+import java.sql.SQLException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.ConstraintViolationException.ConstraintKind;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UniqueConstraintsTest {
+
+	@Test
+	void isViolated_onTheColumnsUniqueConstraint() {
+		// Noms rapportés par MariaDB puis par H2
+		assertThat(UniqueConstraints.isViolated(violation(ConstraintKind.UNIQUE, "email"), "email")).isTrue();
+		assertThat(UniqueConstraints.isViolated(
+			violation(ConstraintKind.UNIQUE, "PUBLIC.CONSTRAINT_INDEX_2 ON PUBLIC.USER(EMAIL NULLS FIRST)"), "email")).isTrue();
+	}
+
+	@Test
+	void isNotViolated_byAnyOtherIntegrityError() {
+		assertThat(UniqueConstraints.isViolated(violation(ConstraintKind.UNIQUE, "nom"), "email")).isFalse();
+		assertThat(UniqueConstraints.isViolated(violation(ConstraintKind.NOT_NULL, "email"), "email")).isFalse();
+		assertThat(UniqueConstraints.isViolated(violation(ConstraintKind.FOREIGN_KEY, "fk_user_roles_user"), "email")).isFalse();
+		assertThat(UniqueConstraints.isViolated(violation(ConstraintKind.UNIQUE, null), "email")).isFalse();
+		assertThat(UniqueConstraints.isViolated(new DataIntegrityViolationException("sans cause"), "email")).isFalse();
+	}
+
+	private static DataIntegrityViolationException violation(ConstraintKind kind, String constraintName) {
+		return new DataIntegrityViolationException("violation", new ConstraintViolationException(
+			"violation", new SQLException("violation"), "insert", kind, constraintName));
+	}
+}
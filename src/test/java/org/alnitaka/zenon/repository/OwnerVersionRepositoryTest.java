@@ -0,0 +1,58 @@
+package org.alnitaka.zenon.repository;
+
+import java.util.Set;
+import org.alnitaka.zenon.entity.User;
+import org.alnitaka.zenon.security.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie l'upsert de la version par propriétaire, qui sert d'ETag aux lectures.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class OwnerVersionRepositoryTest {
+
+	@Autowired
+	TestEntityManager em;
+	@Autowired
+	OwnerVersionRepository ownerVersionRepository;
+
+	private User owner;
+	private User other;
+
+	@BeforeEach
+	void setUp() {
+		owner = new User("owner@example.com", "hash");
+		owner.setRoles(Set.of(Role.ROLE_USER));
+		em.persist(owner);
+		other = new User("other@example.com", "hash");
+		other.setRoles(Set.of(Role.ROLE_USER));
+		em.persist(other);
+		em.flush();
+	}
+
+	@Test
+	void bump_insertsFirstVersion_thenIncrements() {
+		assertThat(ownerVersionRepository.findVersionByUserId(owner.getId())).isEmpty();
+
+		ownerVersionRepository.bump(owner.getId());
+		assertThat(ownerVersionRepository.findVersionByUserId(owner.getId())).contains(1L);
+
+		ownerVersionRepository.bump(owner.getId());
+		assertThat(ownerVersionRepository.findVersionByUserId(owner.getId())).contains(2L);
+	}
+
+	@Test
+	void bump_leavesOtherOwnersUntouched() {
+		ownerVersionRepository.bump(owner.getId());
+
+		assertThat(ownerVersionRepository.findVersionByUserId(other.getId())).isEmpty();
+	}
+}
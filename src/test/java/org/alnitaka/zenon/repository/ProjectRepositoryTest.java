@@ -0,0 +1,201 @@
+package org.alnitaka.zenon.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Set;
+import org.alnitaka.zenon.dto.ProjectSummaryDto;
+import org.alnitaka.zenon.dto.UserDto;
+import org.alnitaka.zenon.entity.Client;
+import org.alnitaka.zenon.entity.Project;
+import org.alnitaka.zenon.entity.Task;
+import org.alnitaka.zenon.entity.User;
+import org.alnitaka.zenon.repository.projection.ProjectRow;
+import org.alnitaka.zenon.repository.projection.TaskRow;
+import org.alnitaka.zenon.security.Role;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie que les lectures de projets se font en projection, en un nombre de requêtes
+ * indépendant du nombre de projets et sans charger d'entité.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProjectRepositoryTest {
+
+	private static final int PROJECTS = 30;
+
+	@Autowired
+	TestEntityManager em;
+	@Autowired
+	ProjectRepository projectRepository;
+	@Autowired
+	TaskRepository taskRepository;
+	@Autowired
+	UserRepository userRepository;
+	@Autowired
+	EntityManagerFactory emf;
+
+	private Statistics statistics;
+	private User owner;
+	private Project first;
+
+	@BeforeEach
+	void setUp() {
+		owner = new User("owner@example.com", "hash");
+		owner.setRoles(Set.of(Role.ROLE_USER));
+		em.persist(owner);
+
+		for (int i = 0; i < PROJECTS; i++) {
+			Client client = new Client();
+			client.setNom("client-" + i);
+			client.setOwner(owner);
+			em.persist(client);
+
+			Project project = new Project();
+			project.setNom("project-" + i);
+			project.setOwner(owner);
+			// Un projet sur trois sans client
+			project.setClient(i % 3 == 0 ? null : client);
+			for (int t = 0; t < 3; t++) {
+				Task task = new Task();
+				task.setNom("task-" + i + "-" + t);
+				task.setActive(true);
+				task.setProject(project);
+				task.setOwnerId(owner.getId());
+				project.getTasks().add(task);
+			}
+			em.persist(project);
+			if (first == null) {
+				first = project;
+			}
+		}
+		em.flush();
+		em.clear();
+
+		statistics = emf.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void findRowsByOwnerIdAfter_readsPage_inSingleQuery_withoutEntities() {
+		List<ProjectRow> rows = projectRepository.findRowsByOwnerIdAfter(owner.getId(), 0L, Limit.of(PROJECTS + 1));
+
+		assertThat(rows).hasSize(PROJECTS);
+		assertThat(rows).filteredOn(row -> row.clientId() == null).hasSize(PROJECTS / 3);
+		assertThat(rows).filteredOn(row -> row.clientId() != null)
+			.allSatisfy(row -> assertThat(row.clientOwnerId()).isEqualTo(owner.getId()));
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	@Test
+	void findRowsByOwnerIdAfter_resumesAfterCursor() {
+		List<ProjectRow> page = projectRepository.findRowsByOwnerIdAfter(owner.getId(), first.getId(), Limit.of(5));
+
+		assertThat(page).hasSize(5);
+		assertThat(page).extracting(ProjectRow::id).isSorted().allMatch(id -> id > first.getId());
+	}
+
+	@Test
+	void findRowsByProjectIdIn_readsTasksOfWholePage_inSingleQuery() {
+		List<Long> projectIds = projectRepository.findRowsByOwnerIdAfter(owner.getId(), 0L, Limit.of(PROJECTS + 1))
+			.stream().map(ProjectRow::id).toList();
+		statistics.clear();
+
+		List<TaskRow> tasks = taskRepository.findRowsByProjectIdIn(projectIds);
+
+		assertThat(tasks).hasSize(PROJECTS * 3);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	@Test
+	void findDtosByIdIn_projectsUser_withRoles() {
+		List<UserDto> users = userRepository.findDtosByIdIn(List.of(owner.getId()));
+
+		assertThat(users).singleElement().satisfies(user -> {
+			assertThat(user.email()).isEqualTo("owner@example.com");
+			assertThat(user.roles()).containsExactly(Role.ROLE_USER);
+		});
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	@Test
+	void findRowByIdAndOwnerId_isEmpty_forAnotherOwner() {
+		assertThat(projectRepository.findRowByIdAndOwnerId(first.getId(), owner.getId())).isPresent();
+		assertThat(projectRepository.findRowByIdAndOwnerId(first.getId(), owner.getId() + 1)).isEmpty();
+	}
+
+	@Test
+	void deleteByIdAndOwnerId_removesTasksThroughDatabaseCascade() {
+		assertThat(projectRepository.deleteByIdAndOwnerId(first.getId(), owner.getId() + 1)).isZero();
+		statistics.clear();
+
+		assertThat(projectRepository.deleteByIdAndOwnerId(first.getId(), owner.getId())).isEqualTo(1);
+
+		// Une seule requête, aucune tâche chargée ni supprimée une à une
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertThat(taskRepository.findRowsByProjectIdIn(List.of(first.getId()))).isEmpty();
+	}
+
+	@Test
+	void repair_findsDriftedProjects_inSingleQuery_andRecountsThem() {
+		// Les tâches du jeu d'essai sont insérées sans passer par TaskService : tous les compteurs sont à zéro
+		List<Long> drifted = projectRepository.findIdsWithDriftedTaskCounts(0L, Long.MAX_VALUE);
+
+		assertThat(drifted).hasSize(PROJECTS);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+		drifted.forEach(projectRepository::recountTasks);
+		assertThat(projectRepository.findIdsWithDriftedTaskCounts(0L, Long.MAX_VALUE)).isEmpty();
+		assertThat(projectRepository.findSummariesByOwnerIdAfter(owner.getId(), 0L, Limit.of(1)))
+			.containsExactly(new ProjectSummaryDto(first.getId(), "project-0", 3, 3));
+	}
+
+	@Test
+	void repair_scansOnlyTheGivenIdRange() {
+		Long maxId = projectRepository.findMaxId();
+
+		// Tranche ]first - 1, first] : seul le premier projet est lu
+		assertThat(projectRepository.findIdsWithDriftedTaskCounts(first.getId() - 1, first.getId())).containsExactly(first.getId());
+		assertThat(projectRepository.findIdsWithDriftedTaskCounts(maxId, Long.MAX_VALUE)).isEmpty();
+	}
+
+	@Test
+	void counterQueries_followTaskChanges() {
+		projectRepository.recountTasks(first.getId());
+		List<Long> taskIds = taskRepository.findRowsByProjectIdIn(List.of(first.getId())).stream().map(TaskRow::id).toList();
+
+		// Deux tâches désactivées, dont une déjà inactive au second appel : comptée une seule fois
+		projectRepository.adjustActiveTaskCount(first.getId(), taskIds.subList(0, 1), false, -1);
+		taskRepository.updateActive(first.getId(), owner.getId(), taskIds.subList(0, 1), false, 1L);
+		projectRepository.adjustActiveTaskCount(first.getId(), taskIds.subList(0, 2), false, -1);
+		taskRepository.updateActive(first.getId(), owner.getId(), taskIds.subList(0, 2), false, 1L);
+		assertThat(summaryOfFirst()).isEqualTo(new ProjectSummaryDto(first.getId(), "project-0", 3, 1));
+
+		// Réactivation d'une tâche, puis suppression d'une tâche active
+		taskRepository.updateByIdAndOwnerId(taskIds.get(0), first.getId(), owner.getId(), "task-0-0", true, false, null, 1L);
+		projectRepository.incrementTaskCounts(first.getId(), 0, 1);
+		taskRepository.deleteByIdAndOwnerId(taskIds.get(2), owner.getId(), true, null);
+		projectRepository.incrementTaskCounts(first.getId(), -1, -1);
+		assertThat(summaryOfFirst()).isEqualTo(new ProjectSummaryDto(first.getId(), "project-0", 2, 1));
+
+		projectRepository.incrementTaskCounts(first.getId(), 2, 1);
+		assertThat(summaryOfFirst()).isEqualTo(new ProjectSummaryDto(first.getId(), "project-0", 4, 2));
+	}
+
+	private ProjectSummaryDto summaryOfFirst() {
+		return projectRepository.findSummariesByOwnerIdAfter(owner.getId(), first.getId() - 1, Limit.of(1)).getFirst();
+	}
+}
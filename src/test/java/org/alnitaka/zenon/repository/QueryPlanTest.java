@@ -0,0 +1,166 @@
+package org.alnitaka.zenon.repository;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.alnitaka.zenon.entity.Client;
+import org.alnitaka.zenon.entity.Project;
+import org.alnitaka.zenon.entity.Task;
+import org.alnitaka.zenon.entity.Tombstone;
+import org.alnitaka.zenon.entity.User;
+import org.alnitaka.zenon.security.Role;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Passe le SQL réellement généré par les requêtes des dépôts à {@code EXPLAIN} (H2) et échoue
+ * si l'une d'elles parcourt une table entière au lieu d'utiliser un index (cf. 06-indexes.xml, 10-sync.xml).
+ * Les clés étrangères sont déjà indexées d'office : les chemins servis par un index déclaré le nomment.
+ */
+@DataJpaTest(properties =
+	"spring.jpa.properties.hibernate.session_factory.statement_inspector=org.alnitaka.zenon.repository.QueryPlanTest$Capture")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class QueryPlanTest {
+
+	private static final int OWNERS = 10;
+	private static final int PROJECTS_PER_OWNER = 10;
+
+	@Autowired
+	TestEntityManager em;
+	@Autowired
+	JdbcTemplate jdbc;
+	@Autowired
+	ClientRepository clientRepository;
+	@Autowired
+	ProjectRepository projectRepository;
+	@Autowired
+	TaskRepository taskRepository;
+	@Autowired
+	TombstoneRepository tombstoneRepository;
+
+	private User owner;
+	private Project project;
+
+	// Conserve chaque ordre SQL préparé par Hibernate
+	public static class Capture implements StatementInspector {
+		static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			SQL.add(sql);
+			return sql;
+		}
+	}
+
+	@BeforeEach
+	void setUp() {
+		// Assez de lignes pour que l'optimiseur préfère un index à un parcours complet
+		for (int o = 0; o < OWNERS; o++) {
+			User user = new User("owner-" + o + "@example.com", "hash");
+			user.setRoles(Set.of(Role.ROLE_USER));
+			em.persist(user);
+			for (int i = 0; i < PROJECTS_PER_OWNER; i++) {
+				Client client = new Client();
+				client.setNom("client-" + o + "-" + i);
+				client.setOwner(user);
+				em.persist(client);
+
+				Project p = new Project();
+				p.setNom("project-" + o + "-" + i);
+				p.setOwner(user);
+				p.setClient(client);
+				em.persist(p);
+				for (int t = 0; t < 5; t++) {
+					Task task = new Task();
+					task.setNom("task-" + o + "-" + i + "-" + t);
+					task.setActive(t % 2 == 0);
+					task.setProject(p);
+					task.setOwnerId(user.getId());
+					em.persist(task);
+				}
+				em.persist(new Tombstone(user.getId(), Tombstone.Type.PROJECT, (long) i, 0L));
+				owner = user;
+				project = p;
+			}
+		}
+		em.flush();
+		em.clear();
+		jdbc.execute("ANALYZE");
+	}
+
+	@Test
+	void clientPage_usesOwnerIndex() {
+		assertThat(plansOf(() -> clientRepository.findRowsByOwnerIdAfter(owner.getId(), 0L, Limit.of(51))))
+			.containsIgnoringCase("idx_client_user_id_id");
+	}
+
+	@Test
+	void projectPage_usesOwnerIndex() {
+		assertThat(plansOf(() -> projectRepository.findRowsByOwnerIdAfter(owner.getId(), 0L, Limit.of(51))))
+			.containsIgnoringCase("idx_project_user_id_id");
+	}
+
+	@Test
+	void tasksOfProjects_useProjectIndex() {
+		// Index de la clé étrangère ou tout autre index commençant par project_id
+		assertNoTableScan(() -> taskRepository.findRowsByProjectIdIn(List.of(project.getId())));
+	}
+
+	@Test
+	void activeTasksOfProject_useStateIndex() {
+		assertThat(plansOf(() -> projectRepository.recountTasks(project.getId())))
+			.containsIgnoringCase("idx_task_project_id_active");
+	}
+
+	@Test
+	void taskIdsOfProject_useProjectIndex() {
+		assertNoTableScan(() -> taskRepository.findIdsByProjectIdAndIdIn(project.getId(), List.of(1L, 2L, 3L)));
+	}
+
+	@Test
+	void ownerScopedChecks_useIndexes() {
+		assertNoTableScan(() -> projectRepository.existsByIdAndOwnerId(project.getId(), owner.getId()));
+		assertNoTableScan(() -> clientRepository.findRowByIdAndOwnerId(1L, owner.getId()));
+	}
+
+	@Test
+	void syncChanges_useChangeVersionIndexes() {
+		assertNoTableScan(() -> clientRepository.findChangesByOwnerIdAfter(owner.getId(), 0L, 0L, Limit.of(51)));
+		assertNoTableScan(() -> projectRepository.findChangesByOwnerIdAfter(owner.getId(), 0L, 0L, Limit.of(51)));
+		// Lues dans l'ordre de l'index, sans jointure sur les projets
+		assertThat(plansOf(() -> taskRepository.findChangesByOwnerIdAfter(owner.getId(), 0L, 0L, Limit.of(51))))
+			.containsIgnoringCase("idx_task_user_id_change_version");
+		assertNoTableScan(() -> tombstoneRepository.findChangesByOwnerIdAfter(owner.getId(), 0L, 0L, Limit.of(51)));
+	}
+
+	private void assertNoTableScan(Runnable query) {
+		plansOf(query);
+	}
+
+	// Plans des requêtes émises, dont aucune ne doit parcourir une table entière
+	private String plansOf(Runnable query) {
+		Capture.SQL.clear();
+		query.run();
+		assertThat(Capture.SQL).isNotEmpty();
+		StringBuilder plans = new StringBuilder();
+		for (String sql : Capture.SQL) {
+			// Les valeurs n'influent pas sur le plan : chaque paramètre reçoit 1
+			Object[] args = new Object[(int) sql.chars().filter(c -> c == '?').count()];
+			Arrays.fill(args, 1L);
+			String plan = String.join("\n", jdbc.queryForList("EXPLAIN " + sql, String.class, args));
+			assertThat(plan).as(sql).doesNotContainIgnoringCase("tableScan");
+			plans.append(plan).append('\n');
+		}
+		return plans.toString();
+	}
+}
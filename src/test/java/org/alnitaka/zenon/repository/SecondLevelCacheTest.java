@@ -0,0 +1,145 @@
+package org.alnitaka.zenon.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Set;
+import org.alnitaka.zenon.entity.Client;
+import org.alnitaka.zenon.entity.Project;
+import org.alnitaka.zenon.entity.User;
+import org.alnitaka.zenon.security.Role;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Avec le cache de second niveau actif, les lectures répétées d'un même compte ou d'une même
+ * entité par son id sont servies depuis la mémoire, et une écriture reste visible.
+ */
+@DataJpaTest(properties = {
+	"spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+	"spring.jpa.properties.hibernate.cache.use_query_cache=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+// Chaque appel de repository a sa propre session : seul le cache partagé peut éviter la base
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+	@Autowired
+	UserRepository userRepository;
+	@Autowired
+	ClientRepository clientRepository;
+	@Autowired
+	ProjectRepository projectRepository;
+	@Autowired
+	EntityManagerFactory emf;
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	private Statistics statistics;
+	private User owner;
+	private Client client;
+	private Project project;
+	private Project other;
+
+	@BeforeEach
+	void setUp() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			owner = new User("cached@example.com", "hash");
+			owner.setRoles(Set.of(Role.ROLE_USER));
+			owner = userRepository.save(owner);
+			client = new Client();
+			client.setNom("cached-client");
+			client.setOwner(owner);
+			client = clientRepository.save(client);
+			project = projectRepository.save(newProject("cached-project"));
+			other = projectRepository.save(newProject("other-project"));
+		});
+		emf.getCache().evictAll();
+		statistics = emf.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@AfterEach
+	void tearDown() {
+		projectRepository.deleteByIdAndOwnerId(project.getId(), owner.getId());
+		projectRepository.deleteByIdAndOwnerId(other.getId(), owner.getId());
+		clientRepository.deleteById(client.getId());
+		userRepository.deleteById(owner.getId());
+	}
+
+	@Test
+	void findUserByEmail_isServedFromNaturalIdAndEntityCaches_onSecondLookup() {
+		assertThat(userRepository.findUserByEmail("cached@example.com")).isPresent();
+		long afterFirst = statistics.getPrepareStatementCount();
+
+		User again = userRepository.findUserByEmail("cached@example.com").orElseThrow();
+
+		assertThat(again.getRoles()).containsExactly(Role.ROLE_USER);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(afterFirst);
+		assertThat(statistics.getNaturalIdCacheHitCount()).isPositive();
+		assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+	}
+
+	@Test
+	void findById_isServedFromEntityCache_onSecondLookup() {
+		assertThat(clientRepository.findById(client.getId())).isPresent();
+		long afterFirst = statistics.getPrepareStatementCount();
+
+		assertThat(clientRepository.findById(client.getId())).isPresent();
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(afterFirst);
+		assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+	}
+
+	@Test
+	void write_isVisible_toNextRead() {
+		clientRepository.findById(client.getId()).orElseThrow();
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			Client managed = clientRepository.findById(client.getId()).orElseThrow();
+			managed.setNom("renamed-client");
+		});
+
+		assertThat(clientRepository.findById(client.getId()))
+			.get()
+			.extracting(Client::getNom)
+			.isEqualTo("renamed-client");
+	}
+
+	@Test
+	void taskCounterUpdate_evictsOnlyThatProject() {
+		clientRepository.findById(client.getId()).orElseThrow();
+		projectRepository.findById(project.getId()).orElseThrow();
+		projectRepository.findById(other.getId()).orElseThrow();
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+			projectRepository.incrementTaskCounts(project.getId(), 1, 1));
+
+		// Une mise à jour HQL en masse aurait vidé les régions du projet et le cache de requêtes
+		assertThat(emf.getCache().contains(Project.class, project.getId())).isFalse();
+		assertThat(emf.getCache().contains(Project.class, other.getId())).isTrue();
+		assertThat(emf.getCache().contains(Client.class, client.getId())).isTrue();
+		assertThat(projectRepository.findById(project.getId()))
+			.get()
+			.extracting(Project::getTaskCount)
+			.isEqualTo(1);
+	}
+
+	private Project newProject(String nom) {
+		Project p = new Project();
+		p.setNom(nom);
+		p.setOwner(owner);
+		p.setClient(client);
+		return p;
+	}
+}
@@ -0,0 +1,180 @@
+package org.alnitaka.zenon.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.alnitaka.zenon.entity.Project;
+import org.alnitaka.zenon.entity.Task;
+import org.alnitaka.zenon.entity.User;
+import org.alnitaka.zenon.repository.projection.TaskChange;
+import org.alnitaka.zenon.repository.projection.TaskRow;
+import org.alnitaka.zenon.security.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie les requêtes des opérations groupées sur les tâches, en particulier la restriction
+ * de la mise à jour ensembliste au propriétaire du projet.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TaskRepositoryTest {
+
+	@Autowired
+	TestEntityManager em;
+	@Autowired
+	TaskRepository taskRepository;
+
+	private User owner;
+	private User stranger;
+	private Project project;
+	private final List<Long> taskIds = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		owner = new User("owner@example.com", "hash");
+		owner.setRoles(Set.of(Role.ROLE_USER));
+		em.persist(owner);
+		stranger = new User("stranger@example.com", "hash");
+		stranger.setRoles(Set.of(Role.ROLE_USER));
+		em.persist(stranger);
+
+		project = new Project();
+		project.setNom("project");
+		project.setOwner(owner);
+		em.persist(project);
+		for (int i = 0; i < 5; i++) {
+			Task task = new Task();
+			task.setNom("task-" + i);
+			task.setActive(true);
+			task.setProject(project);
+			task.setOwnerId(owner.getId());
+			em.persist(task);
+			taskIds.add(task.getId());
+		}
+		em.flush();
+		em.clear();
+	}
+
+	@Test
+	void updateActive_updatesAllTasks_inSingleStatement() {
+		int updated = taskRepository.updateActive(project.getId(), owner.getId(), taskIds, false, 1L);
+
+		assertThat(updated).isEqualTo(taskIds.size());
+		em.clear();
+		assertThat(taskRepository.findAllById(taskIds)).noneMatch(Task::isActive);
+	}
+
+	@Test
+	void updateActive_changesNothing_forAnotherOwner() {
+		int updated = taskRepository.updateActive(project.getId(), stranger.getId(), taskIds, false, 1L);
+
+		assertThat(updated).isZero();
+		em.clear();
+		assertThat(taskRepository.findAllById(taskIds)).allMatch(Task::isActive);
+	}
+
+	@Test
+	void findIdsByProjectIdAndIdIn_ignoresTasksOutsideProject() {
+		List<Long> ids = new ArrayList<>(taskIds);
+		ids.add(-1L);
+
+		assertThat(taskRepository.findIdsByProjectIdAndIdIn(project.getId(), ids)).containsExactlyInAnyOrderElementsOf(taskIds);
+		assertThat(taskRepository.findIdsByProjectIdAndIdIn(project.getId() + 1, ids)).isEmpty();
+	}
+
+	@Test
+	void findNomsByNomIn_returnsTakenNamesOnly() {
+		assertThat(taskRepository.findNomsByNomIn(List.of("task-0", "task-3", "free"))).containsExactlyInAnyOrder("task-0", "task-3");
+	}
+
+	@Test
+	void updateByIdAndOwnerId_isScopedToOwner() {
+		Long id = taskIds.getFirst();
+
+		assertThat(taskRepository.updateByIdAndOwnerId(id, project.getId(), stranger.getId(), "renamed", false, true, null, 1L)).isZero();
+		assertThat(taskRepository.updateByIdAndOwnerId(id, project.getId(), owner.getId(), "renamed", false, true, null, 1L)).isEqualTo(1);
+		em.clear();
+		assertThat(taskRepository.findById(id)).get().extracting(Task::getNom).isEqualTo("renamed");
+	}
+
+	@Test
+	void updateByIdAndOwnerId_checksAndIncrementsVersion() {
+		Long id = taskIds.getFirst();
+
+		assertThat(taskRepository.updateByIdAndOwnerId(id, project.getId(), owner.getId(), "v1", true, true, 0L, 1L)).isEqualTo(1);
+		// Deuxième écriture sur la même version lue : refusée
+		assertThat(taskRepository.updateByIdAndOwnerId(id, project.getId(), owner.getId(), "stale", true, true, 0L, 1L)).isZero();
+		assertThat(taskRepository.updateByIdAndOwnerId(id, project.getId(), owner.getId(), "v2", true, true, 1L, 1L)).isEqualTo(1);
+		em.clear();
+		assertThat(taskRepository.findById(id)).get().satisfies(task -> {
+			assertThat(task.getNom()).isEqualTo("v2");
+			assertThat(task.getVersion()).isEqualTo(2L);
+		});
+		assertThat(taskRepository.findVersionByIdAndProjectIdAndOwnerId(id, project.getId(), owner.getId())).contains(2L);
+		assertThat(taskRepository.findVersionByIdAndProjectIdAndOwnerId(id, project.getId(), stranger.getId())).isEmpty();
+		assertThat(taskRepository.findVersionByIdAndProjectIdAndOwnerId(id, project.getId() + 1, owner.getId())).isEmpty();
+	}
+
+	@Test
+	void updateByIdAndOwnerId_isScopedToProject() {
+		Long id = taskIds.getFirst();
+
+		assertThat(taskRepository.updateByIdAndOwnerId(id, project.getId() + 1, owner.getId(), "moved", true, true, null, 1L)).isZero();
+	}
+
+	@Test
+	void deleteByIdAndOwnerId_checksVersion() {
+		Long id = taskIds.getFirst();
+
+		assertThat(taskRepository.deleteByIdAndOwnerId(id, owner.getId(), true, 1L)).isZero();
+		assertThat(taskRepository.deleteByIdAndOwnerId(id, owner.getId(), true, 0L)).isEqualTo(1);
+	}
+
+	@Test
+	void deleteByIdAndOwnerId_isScopedToOwner() {
+		Long id = taskIds.getFirst();
+
+		assertThat(taskRepository.deleteByIdAndOwnerId(id, stranger.getId(), true, null)).isZero();
+		assertThat(taskRepository.deleteByIdAndOwnerId(id, owner.getId(), true, null)).isEqualTo(1);
+		assertThat(taskRepository.existsById(id)).isFalse();
+	}
+
+	@Test
+	void writes_matchOnlyTheCurrentState() {
+		Long id = taskIds.getFirst();
+
+		// La tâche est active : seules les écritures qui l'attendent active passent
+		assertThat(taskRepository.updateByIdAndOwnerId(id, project.getId(), owner.getId(), "task-0", false, false, null, 1L)).isZero();
+		assertThat(taskRepository.deleteByIdAndOwnerId(id, owner.getId(), false, null)).isZero();
+		assertThat(taskRepository.updateByIdAndOwnerId(id, project.getId(), owner.getId(), "task-0", false, true, null, 1L)).isEqualTo(1);
+		assertThat(taskRepository.deleteByIdAndOwnerId(id, owner.getId(), false, null)).isEqualTo(1);
+	}
+
+	@Test
+	void findRowByIdAndOwnerId_isEmpty_forAnotherOwner() {
+		Long id = taskIds.getFirst();
+
+		assertThat(taskRepository.findRowByIdAndOwnerId(id, owner.getId()))
+			.get().extracting(TaskRow::projectId).isEqualTo(project.getId());
+		assertThat(taskRepository.findRowByIdAndOwnerId(id, stranger.getId())).isEmpty();
+	}
+
+	@Test
+	void updateOwnerIdByProjectId_movesTasksToTheNewOwnersSync() {
+		assertThat(taskRepository.findChangesByOwnerIdAfter(owner.getId(), 0L, 0L, Limit.of(10))).hasSize(5);
+
+		assertThat(taskRepository.updateOwnerIdByProjectId(project.getId(), stranger.getId(), 3L)).isEqualTo(5);
+
+		assertThat(taskRepository.findChangesByOwnerIdAfter(owner.getId(), 0L, 0L, Limit.of(10))).isEmpty();
+		assertThat(taskRepository.findChangesByOwnerIdAfter(stranger.getId(), 0L, 0L, Limit.of(10)))
+			.extracting(TaskChange::changeVersion).containsOnly(3L).hasSize(5);
+	}
+}
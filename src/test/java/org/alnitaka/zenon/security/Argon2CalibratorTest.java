@@ -0,0 +1,64 @@
+package org.alnitaka.zenon.security;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Argon2CalibratorTest {
+
+	// Temps simulé proportionnel au coût : 1 ms pour 4 096 KB x 1 itération
+	private static Duration linear(Argon2Settings settings) {
+		return Duration.ofMillis(settings.cost() / 4096);
+	}
+
+	@Test
+	void calibrate_picksStrongestSettingWithinBudget() {
+		Argon2Calibrator calibrator = new Argon2Calibrator(Duration.ofMillis(12), 65536, 10, Argon2CalibratorTest::linear);
+
+		Argon2Settings result = calibrator.calibrate(Argon2Settings.SPRING_V5_8_DEFAULTS);
+
+		// 16 384 KB x 3 = coût 12 ; 32 768 KB x 1 = coût 8 ; 8 192 KB x 6 = coût 12 -> plus de mémoire à coût égal
+		assertThat(result.cost() / 4096).isEqualTo(12);
+		assertThat(result.memoryKb()).isEqualTo(16384);
+		assertThat(result.iterations()).isEqualTo(3);
+		assertThat(result.saltLength()).isEqualTo(16);
+		assertThat(result.hashLength()).isEqualTo(32);
+	}
+
+	@Test
+	void calibrate_keepsBaseline_whenNothingFitsBudget() {
+		Argon2Calibrator calibrator = new Argon2Calibrator(Duration.ZERO, 65536, 10, settings -> Duration.ofMillis(5));
+
+		Argon2Settings result = calibrator.calibrate(Argon2Settings.SPRING_V5_8_DEFAULTS);
+
+		assertThat(result).isEqualTo(Argon2Settings.SPRING_V5_8_DEFAULTS);
+	}
+
+	@Test
+	void upgradeEncoding_detectsHashesWithWeakerParameters() {
+		TunedArgon2PasswordEncoder current = new TunedArgon2PasswordEncoder(Argon2Settings.SPRING_V5_8_DEFAULTS);
+		TunedArgon2PasswordEncoder stronger = new TunedArgon2PasswordEncoder(
+			Argon2Settings.SPRING_V5_8_DEFAULTS.withCost(8192, 2));
+
+		String hash = current.encode("secret");
+
+		assertThat(current.upgradeEncoding(hash)).isFalse();
+		assertThat(stronger.upgradeEncoding(hash)).isTrue();
+		assertThat(stronger.matches("secret", hash)).isTrue();
+		assertThat(current.upgradeEncoding("{bcrypt}$2a$10$abc")).isTrue();
+	}
+
+	@Test
+	void upgradeEncoding_keepsHashesAtLeastAsStrong() {
+		TunedArgon2PasswordEncoder current = new TunedArgon2PasswordEncoder(Argon2Settings.SPRING_V5_8_DEFAULTS);
+		TunedArgon2PasswordEncoder weaker = new TunedArgon2PasswordEncoder(
+			Argon2Settings.SPRING_V5_8_DEFAULTS.withCost(2048, 2));
+
+		// Un hash plus coûteux n'est jamais ramené aux paramètres courants
+		assertThat(weaker.upgradeEncoding(current.encode("secret"))).isFalse();
+		assertThat(current.upgradeEncoding("$argon2id$v=19$m=8192,t=3,p=2$c2FsdA$aGFzaA")).isFalse();
+		// Plus de mémoire mais moins d'itérations : recalculé
+		assertThat(current.upgradeEncoding("$argon2id$v=19$m=8192,t=2,p=1$c2FsdA$aGFzaA")).isTrue();
+	}
+}
@@ -0,0 +1,74 @@
+package org.alnitaka.zenon.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.alnitaka.zenon.exception.TooManyRequestsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class BoundedPasswordEncoderTest {
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	// Encodeur factice qui bloque jusqu'à la libération du verrou
+	private final PasswordEncoder slow = new PasswordEncoder() {
+		@Override
+		public String encode(CharSequence rawPassword) {
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return "hash:" + rawPassword;
+		}
+
+		@Override
+		public boolean matches(CharSequence rawPassword, String encodedPassword) {
+			return encode(rawPassword).equals(encodedPassword);
+		}
+	};
+
+	private final BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(slow, 1, 1, 3, registry);
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		encoder.destroy();
+	}
+
+	@Test
+	void encode_delegates_andRecordsLatency() {
+		release.countDown();
+
+		assertThat(encoder.encode("secret")).isEqualTo("hash:secret");
+		assertThat(encoder.matches("secret", "hash:secret")).isTrue();
+		assertThat(registry.get("security.argon2.hash").tag("operation", "encode").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	void encode_rejectsImmediately_whenPoolAndQueueAreFull() {
+		// 1 thread occupé + 1 tâche en file
+		CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+		await().atMost(5, TimeUnit.SECONDS).until(() -> registry.get("security.argon2.active").gauge().value() == 1);
+		CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+		await().atMost(5, TimeUnit.SECONDS).until(() -> encoder.getQueueDepth() == 1);
+
+		assertThatThrownBy(() -> encoder.encode("c"))
+			.isInstanceOf(TooManyRequestsException.class)
+			.extracting(e -> ((TooManyRequestsException) e).getRetryAfterSeconds())
+			.isEqualTo(3L);
+
+		release.countDown();
+		assertThat(running.join()).isEqualTo("hash:a");
+		assertThat(queued.join()).isEqualTo("hash:b");
+	}
+}
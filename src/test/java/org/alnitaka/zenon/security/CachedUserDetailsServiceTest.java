@@ -0,0 +1,83 @@
+package org.alnitaka.zenon.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachedUserDetailsServiceTest {
+	@Mock
+	UserDetailsService delegate;
+
+	CachedUserDetailsService service;
+
+	private final UserPrincipal alice =
+		new UserPrincipal(1L, "alice@example.com", "hash", Set.of(Role.ROLE_USER), 0, true);
+
+	@BeforeEach
+	void setUp() {
+		service = new CachedUserDetailsService(delegate, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+	}
+
+	@Test
+	void loadUserByUsername_hitsDelegateOnce_forRepeatedCalls() {
+		when(delegate.loadUserByUsername("alice@example.com")).thenReturn(alice);
+
+		UserDetails first = service.loadUserByUsername("alice@example.com");
+		UserDetails second = service.loadUserByUsername("alice@example.com");
+
+		assertThat(first).isSameAs(alice);
+		assertThat(second).isSameAs(alice);
+		verify(delegate, times(1)).loadUserByUsername("alice@example.com");
+	}
+
+	@Test
+	void loadUserByUsername_reloads_afterAccountChangedEvent() {
+		UserPrincipal disabled = new UserPrincipal(1L, "alice@example.com", "hash", Set.of(Role.ROLE_USER), 1, false);
+		when(delegate.loadUserByUsername("alice@example.com")).thenReturn(alice, disabled);
+
+		service.loadUserByUsername("alice@example.com");
+		service.onUserAccountChanged(new UserAccountChangedEvent(1L, "alice@example.com"));
+		UserDetails reloaded = service.loadUserByUsername("alice@example.com");
+
+		assertThat(reloaded.isEnabled()).isFalse();
+		verify(delegate, times(2)).loadUserByUsername("alice@example.com");
+	}
+
+	@Test
+	void evict_removesEntry_cachedUnderPreviousEmail() {
+		when(delegate.loadUserByUsername("alice@example.com")).thenReturn(alice);
+		service.loadUserByUsername("alice@example.com");
+
+		// l'email a changé : l'événement porte le nouvel email mais le même id
+		service.onUserAccountChanged(new UserAccountChangedEvent(1L, "alice@new.example.com"));
+		service.loadUserByUsername("alice@example.com");
+
+		verify(delegate, times(2)).loadUserByUsername("alice@example.com");
+	}
+
+	@Test
+	void loadUserByUsername_doesNotCache_unknownUser() {
+		when(delegate.loadUserByUsername("ghost@example.com"))
+			.thenThrow(new UsernameNotFoundException("ghost"));
+
+		assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("ghost@example.com"));
+		assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("ghost@example.com"));
+
+		verify(delegate, times(2)).loadUserByUsername("ghost@example.com");
+	}
+}
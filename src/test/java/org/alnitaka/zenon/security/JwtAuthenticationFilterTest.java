@@ -1,10 +1,14 @@
 package org.alnitaka.zenon.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,9 +20,10 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -30,6 +35,8 @@ class JwtAuthenticationFilterTest {
 	@Mock
 	JwtTokenProvider tokenProvider;
 	@Mock
+	VerifiedTokenCache tokenCache;
+	@Mock
 	UserDetailsService userDetailsService;
 	@Mock
 	HttpServletRequest request;
@@ -42,7 +49,7 @@ class JwtAuthenticationFilterTest {
 
 	@BeforeEach
 	void setUp() {
-		filter = new JwtAuthenticationFilter(tokenProvider, userDetailsService);
+		filter = new JwtAuthenticationFilter(tokenProvider, tokenCache, userDetailsService);
 		SecurityContextHolder.clearContext();
 	}
 
@@ -62,7 +69,7 @@ class JwtAuthenticationFilterTest {
 		// Assert
 		assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
 		verify(chain).doFilter(request, response);
-		verifyNoInteractions(tokenProvider, userDetailsService);
+		verifyNoInteractions(tokenProvider, tokenCache, userDetailsService);
 	}
 
 	@Test
@@ -76,22 +83,23 @@ class JwtAuthenticationFilterTest {
 		// Assert
 		assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
 		verify(chain).doFilter(request, response);
-		verifyNoInteractions(tokenProvider, userDetailsService);
+		verifyNoInteractions(tokenProvider, tokenCache, userDetailsService);
 	}
 
 	@Test
 	void doFilterInternal_doesNothing_whenTokenInvalid() throws ServletException, IOException {
 		// Arrange
 		when(request.getHeader("Authorization")).thenReturn("Bearer bad.token");
-		when(tokenProvider.validateToken("bad.token")).thenReturn(false);
+		when(tokenCache.verify("bad.token"))
+			.thenReturn(new TokenVerification.Invalid(TokenVerification.Failure.MALFORMED));
 
 		// Act
 		filter.doFilterInternal(request, response, chain);
 
 		// Assert
 		assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
-		verify(tokenProvider).validateToken("bad.token");
-		verify(tokenProvider, never()).getUsernameFromJwt(anyString());
+		verify(tokenCache).verify("bad.token");
+		verify(tokenProvider, never()).getPrincipal(any());
 		verifyNoInteractions(userDetailsService);
 		verify(chain).doFilter(request, response);
 	}
@@ -100,8 +108,10 @@ class JwtAuthenticationFilterTest {
 	void doFilterInternal_setsAuthentication_whenTokenValid() throws ServletException, IOException {
 		// Arrange
 		when(request.getHeader("Authorization")).thenReturn("Bearer good.token");
-		when(tokenProvider.validateToken("good.token")).thenReturn(true);
-		when(tokenProvider.getUsernameFromJwt("good.token")).thenReturn("alice@example.com");
+		Claims claims = Jwts.claims().subject("alice@example.com").build();
+		when(tokenCache.verify("good.token")).thenReturn(new TokenVerification.Valid(claims));
+		// Jeton sans claims : chargement via le UserDetailsService
+		when(tokenProvider.getPrincipal(claims)).thenReturn(Optional.empty());
 
 		UserDetails user = User.withUsername("alice@example.com")
 			.password("x")
@@ -127,10 +137,116 @@ class JwtAuthenticationFilterTest {
 			);
 		assertThat(auth.getDetails()).isNotNull(); // détails construits depuis la requête
 
-		verify(tokenProvider).validateToken("good.token");
-		verify(tokenProvider).getUsernameFromJwt("good.token");
+		verify(tokenCache).verify("good.token");
+		verify(tokenProvider).getPrincipal(claims);
 		verify(userDetailsService).loadUserByUsername("alice@example.com");
 		verify(chain).doFilter(request, response);
 		verifyNoMoreInteractions(tokenProvider, userDetailsService);
 	}
+
+	@Test
+	void doFilterInternal_usesClaims_withoutLoadingUser_whenRevalidationDisabled() throws ServletException, IOException {
+		// Arrange
+		ReflectionTestUtils.setField(filter, "revalidate", false);
+		when(request.getHeader("Authorization")).thenReturn("Bearer good.token");
+		Claims claims = Jwts.claims().subject("alice@example.com").build();
+		when(tokenCache.verify("good.token")).thenReturn(new TokenVerification.Valid(claims));
+		UserPrincipal principal = new UserPrincipal(7L, "alice@example.com", null, Set.of(Role.ROLE_USER), 3, true);
+		when(tokenProvider.getPrincipal(claims)).thenReturn(Optional.of(principal));
+
+		// Act
+		filter.doFilterInternal(request, response, chain);
+
+		// Assert
+		var auth = SecurityContextHolder.getContext().getAuthentication();
+		assertThat(auth).isNotNull();
+		assertThat(auth.getPrincipal()).isSameAs(principal);
+		assertThat(auth.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_USER");
+		verifyNoInteractions(userDetailsService);
+		verify(chain).doFilter(request, response);
+	}
+
+	@Test
+	void doFilterInternal_revalidates_andAcceptsMatchingVersion() throws ServletException, IOException {
+		// Arrange
+		ReflectionTestUtils.setField(filter, "revalidate", true);
+		when(request.getHeader("Authorization")).thenReturn("Bearer good.token");
+		Claims claims = Jwts.claims().subject("alice@example.com").build();
+		when(tokenCache.verify("good.token")).thenReturn(new TokenVerification.Valid(claims));
+		UserPrincipal principal = new UserPrincipal(7L, "alice@example.com", null, Set.of(Role.ROLE_USER), 3, true);
+		when(tokenProvider.getPrincipal(claims)).thenReturn(Optional.of(principal));
+		UserPrincipal current = new UserPrincipal(7L, "alice@example.com", "hash", Set.of(Role.ROLE_USER), 3, true);
+		when(userDetailsService.loadUserByUsername("alice@example.com")).thenReturn(current);
+
+		// Act
+		filter.doFilterInternal(request, response, chain);
+
+		// Assert
+		assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isSameAs(principal);
+		verify(userDetailsService).loadUserByUsername("alice@example.com");
+		verify(chain).doFilter(request, response);
+	}
+
+	@Test
+	void doFilterInternal_revalidates_andRejectsChangedAccount() throws ServletException, IOException {
+		// Arrange
+		ReflectionTestUtils.setField(filter, "revalidate", true);
+		when(request.getHeader("Authorization")).thenReturn("Bearer good.token");
+		Claims claims = Jwts.claims().subject("alice@example.com").build();
+		when(tokenCache.verify("good.token")).thenReturn(new TokenVerification.Valid(claims));
+		UserPrincipal principal = new UserPrincipal(7L, "alice@example.com", null, Set.of(Role.ROLE_USER), 3, true);
+		when(tokenProvider.getPrincipal(claims)).thenReturn(Optional.of(principal));
+		// version incrémentée depuis l'émission du jeton
+		UserPrincipal current = new UserPrincipal(7L, "alice@example.com", "hash", Set.of(Role.ROLE_USER), 4, true);
+		when(userDetailsService.loadUserByUsername("alice@example.com")).thenReturn(current);
+
+		// Act
+		filter.doFilterInternal(request, response, chain);
+
+		// Assert
+		assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+		verify(chain).doFilter(request, response);
+	}
+
+	@Test
+	void doFilterInternal_revalidates_andRejectsDisabledAccount() throws ServletException, IOException {
+		// Arrange
+		ReflectionTestUtils.setField(filter, "revalidate", true);
+		when(request.getHeader("Authorization")).thenReturn("Bearer good.token");
+		Claims claims = Jwts.claims().subject("alice@example.com").build();
+		when(tokenCache.verify("good.token")).thenReturn(new TokenVerification.Valid(claims));
+		UserPrincipal principal = new UserPrincipal(7L, "alice@example.com", null, Set.of(Role.ROLE_USER), 3, true);
+		when(tokenProvider.getPrincipal(claims)).thenReturn(Optional.of(principal));
+		UserPrincipal disabled = new UserPrincipal(7L, "alice@example.com", "hash", Set.of(Role.ROLE_USER), 3, false);
+		when(userDetailsService.loadUserByUsername("alice@example.com")).thenReturn(disabled);
+
+		// Act
+		filter.doFilterInternal(request, response, chain);
+
+		// Assert
+		assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+		verify(chain).doFilter(request, response);
+	}
+
+	@Test
+	void doFilterInternal_rejectsTokenIssuedBeforeDeactivation_byDefault() throws ServletException, IOException {
+		// Arrange : jeton émis pour le compte actif, puis compte désactivé
+		org.alnitaka.zenon.entity.User account = new org.alnitaka.zenon.entity.User("alice@example.com", "hash");
+		account.setId(7L);
+		account.setRoles(Set.of(Role.ROLE_USER));
+		UserPrincipal issued = UserPrincipal.from(account);
+		account.setActive(false);
+		when(request.getHeader("Authorization")).thenReturn("Bearer good.token");
+		Claims claims = Jwts.claims().subject("alice@example.com").build();
+		when(tokenCache.verify("good.token")).thenReturn(new TokenVerification.Valid(claims));
+		when(tokenProvider.getPrincipal(claims)).thenReturn(Optional.of(issued));
+		when(userDetailsService.loadUserByUsername("alice@example.com")).thenReturn(UserPrincipal.from(account));
+
+		// Act
+		filter.doFilterInternal(request, response, chain);
+
+		// Assert
+		assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+		verify(chain).doFilter(request, response);
+	}
 }
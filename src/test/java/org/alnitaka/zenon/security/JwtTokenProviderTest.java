@@ -1,14 +1,12 @@
 package org.alnitaka.zenon.security;
 
-import io.jsonwebtoken.JwtException;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class JwtTokenProviderTest {
 	private JwtTokenProvider provider;
@@ -18,10 +16,8 @@ class JwtTokenProviderTest {
 
 	@BeforeEach
 	void setUp() {
-		provider = new JwtTokenProvider();
-		ReflectionTestUtils.setField(provider, "jwtSecret", SECRET_64B);
 		// 1 heure
-		ReflectionTestUtils.setField(provider, "jwtExpirationMs", 3_600_000L);
+		provider = new JwtTokenProvider(SECRET_64B, 3_600_000L);
 	}
 
 	private Authentication authWithName(String name) {
@@ -30,53 +26,84 @@ class JwtTokenProviderTest {
 	}
 
 	@Test
-	void generateToken_and_getUsername_roundTrip() {
+	void generateToken_and_verify_roundTrip() {
 		Authentication auth = authWithName("alice@example.com");
 
 		String token = provider.generateToken(auth);
 		assertThat(token).isNotBlank();
 
-		String username = provider.getUsernameFromJwt(token);
-		assertThat(username).isEqualTo("alice@example.com");
+		assertThat(provider.verify(token)).isInstanceOfSatisfying(TokenVerification.Valid.class,
+			valid -> assertThat(valid.claims().getSubject()).isEqualTo("alice@example.com"));
 	}
 
 	@Test
-	void validateToken_returnsTrue_forValidToken() {
-		String token = provider.generateToken(authWithName("bob@example.com"));
-		assertThat(provider.validateToken(token)).isTrue();
+	void generateToken_embedsPrincipalClaims_forUserPrincipal() {
+		UserPrincipal principal = new UserPrincipal(42L, "erin@example.com", "hash",
+			Set.of(Role.ROLE_USER, Role.ROLE_ADMIN), 5, true);
+		Authentication auth = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+
+		String token = provider.generateToken(auth);
+
+		TokenVerification verification = provider.verify(token);
+		assertThat(verification).isInstanceOf(TokenVerification.Valid.class);
+		UserPrincipal fromClaims = provider.getPrincipal(((TokenVerification.Valid) verification).claims()).orElseThrow();
+		assertThat(fromClaims.getId()).isEqualTo(42L);
+		assertThat(fromClaims.getEmail()).isEqualTo("erin@example.com");
+		assertThat(fromClaims.getRoles()).containsExactlyInAnyOrder(Role.ROLE_USER, Role.ROLE_ADMIN);
+		assertThat(fromClaims.getTokenVersion()).isEqualTo(5);
+		assertThat(fromClaims.getPassword()).isNull();
+	}
+
+	@Test
+	void getPrincipalFromJwt_returnsEmpty_forTokenWithoutClaims() {
+		String token = provider.generateToken(authWithName("frank@example.com"));
+		TokenVerification.Valid verification = (TokenVerification.Valid) provider.verify(token);
+		assertThat(provider.getPrincipal(verification.claims())).isEmpty();
 	}
 
 	@Test
-	void validateToken_returnsFalse_forMalformedToken() {
-		String malformed = "not.a.jwt";
-		assertThat(provider.validateToken(malformed)).isFalse();
+	void verify_returnsValid_forValidToken() {
+		String token = provider.generateToken(authWithName("bob@example.com"));
+		assertThat(provider.verify(token)).isInstanceOf(TokenVerification.Valid.class);
 	}
 
 	@Test
-	void validateToken_returnsFalse_forExpiredToken() {
+	void verify_returnsExpired_forExpiredToken() {
 		// Génère un token déjà expiré
-		ReflectionTestUtils.setField(provider, "jwtExpirationMs", -1_000L);
-		String expired = provider.generateToken(authWithName("carol@example.com"));
+		JwtTokenProvider expiring = new JwtTokenProvider(SECRET_64B, -1_000L);
+		String expired = expiring.generateToken(authWithName("carol@example.com"));
 
-		assertThat(provider.validateToken(expired)).isFalse();
+		assertThat(provider.verify(expired))
+			.isEqualTo(new TokenVerification.Invalid(TokenVerification.Failure.EXPIRED));
 	}
 
 	@Test
-	void validateToken_returnsFalse_forWrongSignature() {
+	void verify_returnsBadSignature_forWrongSignature() {
 		// Génère un token avec une AUTRE clé
-		JwtTokenProvider other = new JwtTokenProvider();
-		ReflectionTestUtils.setField(other, "jwtSecret",
-			"FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF"); // 64 chars
-		ReflectionTestUtils.setField(other, "jwtExpirationMs", 3_600_000L);
+		JwtTokenProvider other = new JwtTokenProvider(
+			"FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF", 3_600_000L); // 64 chars
 
 		String forged = other.generateToken(authWithName("dave@example.com"));
 
 		// Validation avec la clé du provider courant -> doit échouer
-		assertThat(provider.validateToken(forged)).isFalse();
+		assertThat(provider.verify(forged))
+			.isEqualTo(new TokenVerification.Invalid(TokenVerification.Failure.BAD_SIGNATURE));
+	}
+
+	@Test
+	void verify_returnsMalformed_forGarbage() {
+		assertThat(provider.verify("not.a.jwt"))
+			.isEqualTo(new TokenVerification.Invalid(TokenVerification.Failure.MALFORMED));
+	}
+
+	@Test
+	void verify_returnsEmpty_forBlankToken() {
+		assertThat(provider.verify(""))
+			.isEqualTo(new TokenVerification.Invalid(TokenVerification.Failure.EMPTY));
 	}
 
 	@Test
-	void getUsernameFromJwt_throws_forInvalidToken() {
-		assertThrows(JwtException.class, () -> provider.getUsernameFromJwt("invalid.jwt.token"));
+	void verify_rejects_insteadOfThrowing_forInvalidToken() {
+		assertThat(provider.verify("invalid.jwt.token")).isInstanceOf(TokenVerification.Invalid.class);
 	}
 }
@@ -0,0 +1,107 @@
+package org.alnitaka.zenon.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.alnitaka.zenon.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginRateLimiterTest {
+
+	private final AtomicLong now = new AtomicLong();
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	// 3 tentatives par IP (1 jeton / s), 2 par compte (1 jeton / 10 s)
+	private LoginRateLimiter limiter(boolean enabled) {
+		return new LoginRateLimiter(registry, enabled, 3, 1_000L, 2, 10_000L, 1_000L, now::get);
+	}
+
+	@Test
+	void check_rejectsAccount_onceItsBucketIsEmpty() {
+		LoginRateLimiter limiter = limiter(true);
+
+		limiter.check("10.0.0.1", "alice@example.com");
+		limiter.check("10.0.0.2", "alice@example.com");
+
+		assertThatThrownBy(() -> limiter.check("10.0.0.3", "alice@example.com"))
+			.isInstanceOf(TooManyRequestsException.class)
+			.extracting(e -> ((TooManyRequestsException) e).getRetryAfterSeconds())
+			.isEqualTo(10L);
+		assertThat(registry.get("security.login.throttled").tag("key", "account").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void check_normalizesEmail() {
+		LoginRateLimiter limiter = limiter(true);
+
+		limiter.check("10.0.0.1", "Alice@Example.com");
+		limiter.check("10.0.0.2", " alice@example.com ");
+
+		assertThatThrownBy(() -> limiter.check("10.0.0.3", "ALICE@EXAMPLE.COM"))
+			.isInstanceOf(TooManyRequestsException.class);
+	}
+
+	@Test
+	void check_rejectsIp_acrossDifferentAccounts() {
+		LoginRateLimiter limiter = limiter(true);
+
+		limiter.check("10.0.0.1", "a@example.com");
+		limiter.check("10.0.0.1", "b@example.com");
+		limiter.check("10.0.0.1", "c@example.com");
+
+		assertThatThrownBy(() -> limiter.check("10.0.0.1", "d@example.com"))
+			.isInstanceOf(TooManyRequestsException.class);
+		assertThat(registry.get("security.login.throttled").tag("key", "ip").counter().count()).isEqualTo(1);
+		// Le compte visé n'a pas été débité par la tentative refusée
+		assertThatCode(() -> limiter.check("10.0.0.2", "d@example.com")).doesNotThrowAnyException();
+	}
+
+	@Test
+	void check_doesNotDebitIp_whenAccountIsThrottled() {
+		LoginRateLimiter limiter = limiter(true);
+		limiter.check("10.0.0.9", "alice@example.com");
+		limiter.check("10.0.0.9", "alice@example.com");
+
+		// Compte épuisé : refusé depuis une autre adresse, sans entamer ses 3 jetons
+		for (int i = 0; i < 3; i++) {
+			assertThatThrownBy(() -> limiter.check("10.0.0.1", "alice@example.com"))
+				.isInstanceOf(TooManyRequestsException.class);
+		}
+		assertThatCode(() -> {
+			limiter.check("10.0.0.1", "a@example.com");
+			limiter.check("10.0.0.1", "b@example.com");
+			limiter.check("10.0.0.1", "c@example.com");
+		}).doesNotThrowAnyException();
+		assertThat(registry.get("security.login.throttled").tag("key", "ip").counter().count()).isZero();
+	}
+
+	@Test
+	void check_refillsOverTime() {
+		LoginRateLimiter limiter = limiter(true);
+		limiter.check("10.0.0.1", "alice@example.com");
+		limiter.check("10.0.0.1", "alice@example.com");
+
+		now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+		assertThatCode(() -> limiter.check("10.0.0.1", "alice@example.com")).doesNotThrowAnyException();
+	}
+
+	@Test
+	void check_allowsEverything_whenDisabled() {
+		LoginRateLimiter limiter = limiter(false);
+
+		// Bien au-delà des 3 tentatives par IP et 2 par compte : ni 429 ni autre exception
+		assertThatCode(() -> {
+			for (int i = 0; i < 10; i++) {
+				limiter.check("10.0.0.1", "alice@example.com");
+			}
+		}).doesNotThrowAnyException();
+		assertThat(registry.find("security.login.throttled").counters())
+			.allSatisfy(counter -> assertThat(counter.count()).isZero());
+	}
+}
@@ -0,0 +1,84 @@
+package org.alnitaka.zenon.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Date;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class VerifiedTokenCacheTest {
+	private static final String SECRET_64B =
+		"0123456789ABCDEF0123456789ABCDEF0123456789ABCDEF0123456789ABCDEF";
+
+	private final JwtTokenProvider provider = spy(new JwtTokenProvider(SECRET_64B, 3_600_000L));
+
+	private VerifiedTokenCache cache(boolean enabled) {
+		return new VerifiedTokenCache(provider, new SimpleMeterRegistry(), enabled, 100, 60_000L);
+	}
+
+	@Test
+	void verify_reusesResult_forSameValidToken() {
+		VerifiedTokenCache cache = cache(true);
+		String token = provider.generateToken(new UsernamePasswordAuthenticationToken("alice@example.com", null, null));
+
+		TokenVerification first = cache.verify(token);
+		TokenVerification second = cache.verify(token);
+
+		assertThat(first).isInstanceOf(TokenVerification.Valid.class);
+		assertThat(second).isSameAs(first);
+		verify(provider, times(1)).verify(token);
+	}
+
+	@Test
+	void verify_cachesRejection_forSameInvalidToken() {
+		VerifiedTokenCache cache = cache(true);
+
+		TokenVerification first = cache.verify("not.a.jwt");
+		TokenVerification second = cache.verify("not.a.jwt");
+
+		assertThat(first).isInstanceOf(TokenVerification.Invalid.class);
+		assertThat(second).isSameAs(first);
+		verify(provider, times(1)).verify("not.a.jwt");
+	}
+
+	@Test
+	void verify_rejectsExpiredToken() {
+		VerifiedTokenCache cache = cache(true);
+		JwtTokenProvider expiring = new JwtTokenProvider(SECRET_64B, -1_000L);
+		String expired = expiring.generateToken(new UsernamePasswordAuthenticationToken("bob@example.com", null, null));
+
+		assertThat(cache.verify(expired)).isInstanceOf(TokenVerification.Invalid.class);
+	}
+
+	@Test
+	void verify_reverifiesToken_onceItHasExpired() {
+		VerifiedTokenCache cache = cache(true);
+		String token = provider.generateToken(new UsernamePasswordAuthenticationToken("dave@example.com", null, null));
+		// Jeton valide à la vérification mais expiré depuis : le résultat ne doit pas être resservi
+		Claims expired = Jwts.claims().subject("dave@example.com").expiration(new Date(System.currentTimeMillis() - 1_000L)).build();
+		doReturn(new TokenVerification.Valid(expired)).when(provider).verify(token);
+
+		cache.verify(token);
+		cache.verify(token);
+
+		verify(provider, times(2)).verify(token);
+	}
+
+	@Test
+	void verify_delegatesEachTime_whenDisabled() {
+		VerifiedTokenCache cache = cache(false);
+		String token = provider.generateToken(new UsernamePasswordAuthenticationToken("carol@example.com", null, null));
+
+		cache.verify(token);
+		cache.verify(token);
+
+		verify(provider, times(2)).verify(token);
+	}
+}
@@ -1,33 +1,46 @@
 package org.alnitaka.zenon.service;
 
 import jakarta.persistence.EntityNotFoundException;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import org.alnitaka.zenon.dto.ClientDto;
+import org.alnitaka.zenon.dto.CursorPage;
 import org.alnitaka.zenon.dto.UserDto;
+import org.alnitaka.zenon.dto.Versioned;
 import org.alnitaka.zenon.entity.Client;
+import org.alnitaka.zenon.entity.Tombstone;
 import org.alnitaka.zenon.entity.User;
+import org.alnitaka.zenon.exception.InvalidCursorException;
+import org.alnitaka.zenon.exception.PreconditionFailedException;
 import org.alnitaka.zenon.mapper.ClientMapper;
 import org.alnitaka.zenon.repository.ClientRepository;
+import org.alnitaka.zenon.repository.ProjectRepository;
+import org.alnitaka.zenon.repository.TombstoneRepository;
 import org.alnitaka.zenon.repository.UserRepository;
+import org.alnitaka.zenon.repository.projection.ClientRow;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.Mockito.lenient;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -48,72 +61,95 @@ class ClientServiceTest {
 	private UserService userService;
 	@Mock
 	private ClientMapper clientMapper;
+	@Mock
+	private ProjectRepository projectRepository;
+	@Mock
+	private OwnerVersionService ownerVersionService;
+	@Mock
+	private TombstoneRepository tombstoneRepository;
 
 	// listMyClients()
 	@Test
 	void testListMyClients_NoAuth() {
-		when(userService.getCurrentUser()).thenReturn(Optional.empty());
-		assertThrows(AccessDeniedException.class, () -> clientService.listMyClients());
+		when(userService.getCurrentUserId()).thenReturn(Optional.empty());
+		assertThrows(AccessDeniedException.class, () -> clientService.listMyClients(null, 50));
 	}
 
 	@Test
 	void testListMyClients_EmptyClientList() {
-		User user = new User();
-		user.setEmail("test@example.com");
-		when(userService.getCurrentUser()).thenReturn(Optional.of(user));
-		when(clientRepo.findByOwnerEmail("test@example.com")).thenReturn(List.of());
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(42L));
+		when(clientRepo.findRowsByOwnerIdAfter(42L, 0L, Limit.of(51))).thenReturn(List.of());
+		when(userService.getUsersById(List.of())).thenReturn(Map.of());
 
-		List<Client> clients = clientService.listMyClients();
-		assertTrue(clients.isEmpty());
+		CursorPage<ClientDto> page = clientService.listMyClients(null, 50);
+		assertTrue(page.items().isEmpty());
+		assertNull(page.next());
 	}
 
 	@Test
 	void testListMyClients_WithClients() {
-		User user = new User();
-		user.setEmail("test@example.com");
-		when(userService.getCurrentUser()).thenReturn(Optional.of(user));
-
-		Client client1 = new Client();
-		client1.setNom("Client 1");
-		client1.setEmail("client1@example.com");
-		client1.setOwner(user);
-
-		Client client2 = new Client();
-		client2.setNom("Client 2");
-		client2.setEmail("client2@example.com");
-		client2.setOwner(user);
-
-		when(clientRepo.findByOwnerEmail("test@example.com")).thenReturn(Arrays.asList(client1, client2));
-
-		List<Client> clients = clientService.listMyClients();
-		assertEquals(2, clients.size());
-		assertTrue(clients.contains(client1));
-		assertTrue(clients.contains(client2));
+		UserDto owner = new UserDto(42L, new Date(), "test@example.com", null, null, true, Set.of());
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(42L));
+
+		ClientRow client1 = new ClientRow(1L, "Client 1", "client1@example.com", 42L);
+		ClientRow client2 = new ClientRow(2L, "Client 2", "client2@example.com", 42L);
+		when(clientRepo.findRowsByOwnerIdAfter(42L, 0L, Limit.of(51))).thenReturn(List.of(client1, client2));
+		when(userService.getUsersById(List.of(42L, 42L))).thenReturn(Map.of(42L, owner));
+
+		List<ClientDto> clients = clientService.listMyClients(null, 50).items();
+		assertEquals(List.of(
+			new ClientDto(1L, "Client 1", "client1@example.com", owner),
+			new ClientDto(2L, "Client 2", "client2@example.com", owner)
+		), clients);
+		// Lecture en projection : aucune entité chargée, aucun mapping MapStruct
+		verifyNoInteractions(clientMapper, userRepository);
+	}
+
+	@Test
+	void testListMyClients_ReturnsCursor_WhenMoreRowsThanLimit() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(42L));
+		List<ClientRow> rows = new ArrayList<>();
+		for (long id = 11; id <= 13; id++) {
+			rows.add(new ClientRow(id, "client-" + id, null, 42L));
+		}
+		// limit 2 -> 3 lignes demandées, la troisième signale seulement la page suivante
+		when(clientRepo.findRowsByOwnerIdAfter(42L, 10L, Limit.of(3))).thenReturn(rows);
+		when(userService.getUsersById(List.of(42L, 42L))).thenReturn(Map.of());
+
+		CursorPage<ClientDto> page = clientService.listMyClients(CursorPage.encode(10L), 2);
+
+		assertThat(page.items()).extracting(ClientDto::id).containsExactly(11L, 12L);
+		assertEquals(12L, CursorPage.decode(page.next()));
+	}
+
+	@Test
+	void testListMyClients_RejectsUnreadableCursor() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(42L));
+
+		assertThrows(InvalidCursorException.class, () -> clientService.listMyClients("not-a-cursor!", 50));
+		verifyNoInteractions(clientRepo);
 	}
 
 	// getClient()
 	@Test
 	void getClient_returnsClient_whenUserAuthenticatedAndFound() {
 		// Arrange
-		User me = new User();
-		me.setId(42L);
-
-		Client client = new Client();
-		client.setId(10L);
-
-		when(userService.getCurrentUser()).thenReturn(Optional.of(me));
-		when(clientRepo.findByIdAndOwnerId(10L, 42L)).thenReturn(Optional.of(client));
+		UserDto owner = new UserDto(42L, new Date(), "me@example.com", null, null, true, Set.of());
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(42L));
+		when(clientRepo.findRowByIdAndOwnerId(10L, 42L))
+			.thenReturn(Optional.of(new ClientRow(10L, "nom", "client@example.com", 42L)));
+		when(userService.getUsersById(List.of(42L))).thenReturn(Map.of(42L, owner));
 
 		// Act
-		Client result = clientService.getClient(10L);
+		ClientDto result = clientService.getClient(10L);
 
 		// Assert
-		assertThat(result).isSameAs(client);
+		assertThat(result).isEqualTo(new ClientDto(10L, "nom", "client@example.com", owner));
 
 		// Vérifie les bons arguments transmis au repo
 		ArgumentCaptor<Long> idCap = ArgumentCaptor.forClass(Long.class);
 		ArgumentCaptor<Long> ownerCap = ArgumentCaptor.forClass(Long.class);
-		verify(clientRepo).findByIdAndOwnerId(idCap.capture(), ownerCap.capture());
+		verify(clientRepo).findRowByIdAndOwnerId(idCap.capture(), ownerCap.capture());
 		assertThat(idCap.getValue()).isEqualTo(10L);
 		assertThat(ownerCap.getValue()).isEqualTo(42L);
 
@@ -123,7 +159,7 @@ class ClientServiceTest {
 	@Test
 	void getClient_throwsAccessDenied_whenNoCurrentUser() {
 		// Arrange
-		when(userService.getCurrentUser()).thenReturn(Optional.empty());
+		when(userService.getCurrentUserId()).thenReturn(Optional.empty());
 
 		// Act + Assert
 		assertThrows(AccessDeniedException.class, () -> clientService.getClient(123L));
@@ -135,14 +171,12 @@ class ClientServiceTest {
 	@Test
 	void getClient_throwsEntityNotFound_whenClientMissingForOwner() {
 		// Arrange
-		User me = new User();
-		me.setId(42L);
-		when(userService.getCurrentUser()).thenReturn(Optional.of(me));
-		when(clientRepo.findByIdAndOwnerId(123L, 42L)).thenReturn(Optional.empty());
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(42L));
+		when(clientRepo.findRowByIdAndOwnerId(123L, 42L)).thenReturn(Optional.empty());
 
 		// Act + Assert
 		assertThrows(EntityNotFoundException.class, () -> clientService.getClient(123L));
-		verify(clientRepo).findByIdAndOwnerId(123L, 42L);
+		verify(clientRepo).findRowByIdAndOwnerId(123L, 42L);
 		verifyNoMoreInteractions(clientRepo);
 	}
 
@@ -158,7 +192,8 @@ class ClientServiceTest {
 
 		User me = new User();
 		me.setId(42L);
-		when(userService.getCurrentUser()).thenReturn(Optional.of(me));
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(me.getId()));
+		when(userRepository.getReferenceById(42L)).thenReturn(me);
 
 		Client saved = new Client();
 		saved.setId(100L);
@@ -188,7 +223,7 @@ class ClientServiceTest {
 		// Arrange
 		UserDto userDto = new UserDto(114L, new Date(), "test@123.fr", "lastname", "firstname", true, new HashSet<>());
 		ClientDto clientDto = new ClientDto(10L, "nom", "email@test.fr", userDto);
-		when(userService.getCurrentUser()).thenReturn(Optional.empty());
+		when(userService.getCurrentUserId()).thenReturn(Optional.empty());
 
 		// Act + Assert
 		assertThrows(AccessDeniedException.class, () -> clientService.create(clientDto));
@@ -202,88 +237,78 @@ class ClientServiceTest {
 	@Test
 	void update_succeeds_withoutOwnerChange() {
 		// Arrange
-		User me = new User(); me.setId(1L);
-		when(userService.getCurrentUser()).thenReturn(Optional.of(me));
-
-		Client existing = new Client();
-		existing.setId(10L);
-		User currentOwner = new User(); currentOwner.setId(99L);
-		existing.setOwner(currentOwner);
-		existing.setNom("Old");
-		existing.setEmail("old@mail.test");
-
-		when(clientRepo.findByIdAndOwnerId(10L, 1L)).thenReturn(Optional.of(existing));
-
-		ClientDto dto = mock(ClientDto.class);
-		when(dto.id()).thenReturn(10L);
-		when(dto.nom()).thenReturn("New Name");
-		when(dto.email()).thenReturn("new@mail.test");
-		when(dto.owner()).thenReturn(null); // pas de changement d’owner
+		UserDto me = new UserDto(1L, new Date(), "me@mail.test", null, null, true, Set.of());
+		User meRef = new User(); meRef.setId(1L);
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		when(userRepository.getReferenceById(1L)).thenReturn(meRef);
+		when(ownerVersionService.bump(List.of(1L, 1L))).thenReturn(Map.of(1L, 4L));
+		when(clientRepo.updateByIdAndOwnerId(10L, 1L, "New Name", "new@mail.test", meRef, null, 4L)).thenReturn(1);
+		when(clientRepo.findVersionByIdAndOwnerId(10L, 1L)).thenReturn(Optional.of(6L));
+		when(userService.getUsersById(List.of(1L))).thenReturn(Map.of(1L, me));
 
-		// on renvoie "existing" tel quel lors du save
-		when(clientRepo.save(existing)).thenAnswer(inv -> inv.getArgument(0));
+		ClientDto dto = new ClientDto(10L, "New Name", "new@mail.test", null); // pas de changement d’owner
 
 		// Act
-		Client result = clientService.update(dto);
+		ClientDto result = clientService.update(dto);
 
-		// Assert
-		assertThat(result).isSameAs(existing);
-		assertThat(result.getNom()).isEqualTo("New Name");
-		assertThat(result.getEmail()).isEqualTo("new@mail.test");
-		assertThat(result.getOwner()).isSameAs(currentOwner); // owner intact
-
-		// le repo user n’est pas sollicité si pas de changement d’owner
-		verifyNoInteractions(userRepository);
-		verify(clientRepo).findByIdAndOwnerId(10L, 1L);
-		verify(clientRepo).save(existing);
+		// Assert : une seule requête UPDATE, aucun chargement du client ; seule sa version est relue
+		assertEquals(new ClientDto(10L, "New Name", "new@mail.test", me), result);
+		verify(clientRepo).updateByIdAndOwnerId(10L, 1L, "New Name", "new@mail.test", meRef, null, 4L);
+		verify(clientRepo).findVersionByIdAndOwnerId(10L, 1L);
 		verifyNoMoreInteractions(clientRepo);
+		verifyNoInteractions(tombstoneRepository);
 	}
 
 	@Test
 	void update_succeeds_withOwnerChange() {
 		// Arrange
-		User me = new User(); me.setId(1L);
-		when(userService.getCurrentUser()).thenReturn(Optional.of(me));
-
-		Client existing = new Client();
-		existing.setId(10L);
-		User oldOwner = new User(); oldOwner.setId(99L);
-		existing.setOwner(oldOwner);
-
-		when(clientRepo.findByIdAndOwnerId(10L, 1L)).thenReturn(Optional.of(existing));
-
-		UserDto ownerDto = mock(UserDto.class);
-		when(ownerDto.id()).thenReturn(77L);
-
-		ClientDto dto = mock(ClientDto.class);
-		when(dto.id()).thenReturn(10L);
-		when(dto.nom()).thenReturn("N");
-		when(dto.email()).thenReturn("n@test");
-		when(dto.owner()).thenReturn(ownerDto);
-
-		User newOwner = new User(); newOwner.setId(77L);
-		when(userRepository.findById(77L)).thenReturn(Optional.of(newOwner));
-
-		when(clientRepo.save(existing)).thenAnswer(inv -> inv.getArgument(0));
+		UserDto newOwner = new UserDto(77L, new Date(), "new@owner.test", null, null, true, Set.of());
+		User newOwnerRef = new User(); newOwnerRef.setId(77L);
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		when(userRepository.existsById(77L)).thenReturn(true);
+		when(userRepository.getReferenceById(77L)).thenReturn(newOwnerRef);
+		when(projectRepository.findOwnerIdsByClientId(10L)).thenReturn(List.of(5L));
+		// Ancien et nouveau propriétaire, et propriétaire d'un projet qui embarque le client
+		when(ownerVersionService.bump(List.of(1L, 77L, 5L))).thenReturn(Map.of(1L, 4L, 77L, 9L, 5L, 2L));
+		when(clientRepo.updateByIdAndOwnerId(10L, 1L, "N", "n@test", newOwnerRef, null, 9L)).thenReturn(1);
+		when(clientRepo.findVersionByIdAndOwnerId(10L, 77L)).thenReturn(Optional.of(6L));
+		when(userService.getUsersById(List.of(77L))).thenReturn(Map.of(77L, newOwner));
+
+		ClientDto dto = new ClientDto(10L, "N", "n@test", newOwner);
 
 		// Act
-		Client result = clientService.update(dto);
+		ClientDto result = clientService.update(dto);
 
 		// Assert
-		assertThat(result.getOwner()).isSameAs(newOwner);
-		assertThat(result.getNom()).isEqualTo("N");
-		assertThat(result.getEmail()).isEqualTo("n@test");
-
-		verify(userRepository).findById(77L);
-		verify(clientRepo).findByIdAndOwnerId(10L, 1L);
-		verify(clientRepo).save(existing);
+		assertThat(result.owner()).isEqualTo(newOwner);
+		verify(userRepository).existsById(77L);
+		verify(userRepository).getReferenceById(77L);
+		verify(userRepository, never()).findById(anyLong());
+		verify(clientRepo).updateByIdAndOwnerId(10L, 1L, "N", "n@test", newOwnerRef, null, 9L);
+		verify(clientRepo).findVersionByIdAndOwnerId(10L, 77L);
 		verifyNoMoreInteractions(userRepository, clientRepo);
+		// Sort des données synchronisées de l'ancien propriétaire, à sa nouvelle version
+		verify(tombstoneRepository).save(argThat(tombstone -> tombstone.getOwnerId() == 1L
+			&& tombstone.getEntityType() == Tombstone.Type.CLIENT && tombstone.getChangeVersion() == 4L));
+	}
+
+	@Test
+	void update_throwsEntityNotFound_whenNewOwnerMissing() {
+		// Arrange
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		when(userRepository.existsById(404L)).thenReturn(false);
+		UserDto unknown = new UserDto(404L, new Date(), "ghost@mail.test", null, null, true, Set.of());
+
+		// Act + Assert : 404 avant toute écriture, pas de violation de clé étrangère
+		assertThrows(EntityNotFoundException.class, () -> clientService.update(new ClientDto(10L, "N", "n@test", unknown)));
+
+		verifyNoInteractions(clientRepo, ownerVersionService, tombstoneRepository);
 	}
 
 	@Test
 	void update_throwsAccessDenied_whenNoCurrentUser() {
 		// Arrange
-		when(userService.getCurrentUser()).thenReturn(Optional.empty());
+		when(userService.getCurrentUserId()).thenReturn(Optional.empty());
 		ClientDto dto = mock(ClientDto.class);
 
 		// Act + Assert
@@ -295,102 +320,58 @@ class ClientServiceTest {
 	@Test
 	void update_throwsEntityNotFound_whenClientMissingForOwner() {
 		// Arrange
-		User me = new User(); me.setId(1L);
-		when(userService.getCurrentUser()).thenReturn(Optional.of(me));
-
-		ClientDto dto = mock(ClientDto.class);
-		when(dto.id()).thenReturn(123L);
+		User meRef = new User(); meRef.setId(1L);
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		when(userRepository.getReferenceById(1L)).thenReturn(meRef);
+		when(ownerVersionService.bump(List.of(1L, 1L))).thenReturn(Map.of(1L, 4L));
+		when(clientRepo.updateByIdAndOwnerId(123L, 1L, "X", "x@test", meRef, null, 4L)).thenReturn(0);
 
-		when(clientRepo.findByIdAndOwnerId(123L, 1L)).thenReturn(Optional.empty());
+		ClientDto dto = new ClientDto(123L, "X", "x@test", null);
 
 		// Act + Assert
 		assertThrows(EntityNotFoundException.class, () -> clientService.update(dto));
 
-		verify(clientRepo).findByIdAndOwnerId(123L, 1L);
+		verify(userService, never()).getUsersById(any());
 		verifyNoMoreInteractions(clientRepo);
-		verifyNoInteractions(userRepository);
+		// La version prise avant l'écriture est annulée avec la transaction
+		verifyNoInteractions(tombstoneRepository);
 	}
 
 	@Test
-	void update_ownerIsNull_onExisting_shouldNotChangeOwner_evenIfDtoOwnerProvided() {
+	void update_returnsNewETagParts_withoutRereading_whenVersionMatches() {
 		// Arrange
-		User me = new User(); me.setId(1L);
-		when(userService.getCurrentUser()).thenReturn(Optional.of(me));
-
-		Client existing = new Client();
-		existing.setId(10L);
-		existing.setOwner(null); // owner inexistant
-
-		when(clientRepo.findByIdAndOwnerId(10L, 1L)).thenReturn(Optional.of(existing));
-
-		UserDto ownerDto = mock(UserDto.class);
-		lenient().when(ownerDto.id()).thenReturn(77L);
-
-		ClientDto dto = mock(ClientDto.class);
-		when(dto.id()).thenReturn(10L);
-		when(dto.nom()).thenReturn("X");
-		when(dto.email()).thenReturn("x@test");
-		lenient().when(dto.owner()).thenReturn(ownerDto);
-
-		when(clientRepo.save(existing)).thenAnswer(inv -> inv.getArgument(0));
+		UserDto me = new UserDto(1L, new Date(), "me@mail.test", null, null, true, Set.of());
+		User meRef = new User(); meRef.setId(1L);
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		when(userRepository.getReferenceById(1L)).thenReturn(meRef);
+		when(ownerVersionService.bump(List.of(1L, 1L))).thenReturn(Map.of(1L, 4L));
+		when(clientRepo.updateByIdAndOwnerId(10L, 1L, "X", "x@test", meRef, 3L, 4L)).thenReturn(1);
+		when(userService.getUsersById(List.of(1L))).thenReturn(Map.of(1L, me));
 
 		// Act
-		Client result = clientService.update(dto);
-
-		// Assert
-		// Comme la condition exige owner != null, rien ne change côté owner
-		assertThat(result.getOwner()).isNull();
+		Versioned<ClientDto> result = clientService.update(new ClientDto(10L, "X", "x@test", null), 3L);
 
-		// userRepository ne doit PAS être appelé
-		verifyNoInteractions(userRepository);
-		verify(clientRepo).findByIdAndOwnerId(10L, 1L);
-		verify(clientRepo).save(existing);
+		// Assert : version 3 passée à 4 par l'UPDATE, données de l'utilisateur à la version prise
+		assertEquals(new Versioned<>(new ClientDto(10L, "X", "x@test", me), "1.4", 4L), result);
+		verify(clientRepo).updateByIdAndOwnerId(10L, 1L, "X", "x@test", meRef, 3L, 4L);
 		verifyNoMoreInteractions(clientRepo);
 	}
 
 	@Test
-	void update_keepsOwner_whenDtoOwnerIdEqualsExistingOwnerId() {
+	void update_throwsPreconditionFailed_whenVersionIsStale() {
 		// Arrange
-		User me = new User(); me.setId(1L);
-		when(userService.getCurrentUser()).thenReturn(Optional.of(me));
-
-		Client existing = new Client();
-		existing.setId(10L);
-		User currentOwner = new User(); currentOwner.setId(42L);
-		existing.setOwner(currentOwner);
-
-		when(clientRepo.findByIdAndOwnerId(10L, 1L)).thenReturn(Optional.of(existing));
-
-		// dto.owner().id() == existing.owner.id -> pas de changement d'owner attendu
-		org.alnitaka.zenon.dto.UserDto ownerDto = mock(org.alnitaka.zenon.dto.UserDto.class);
-		when(ownerDto.id()).thenReturn(42L);
-
-		org.alnitaka.zenon.dto.ClientDto dto = mock(org.alnitaka.zenon.dto.ClientDto.class);
-		when(dto.id()).thenReturn(10L);
-		when(dto.nom()).thenReturn("New Name");
-		when(dto.email()).thenReturn("new@mail.test");
-		when(dto.owner()).thenReturn(ownerDto);
-
-		when(clientRepo.save(existing)).thenAnswer(inv -> inv.getArgument(0));
-
-		// Act
-		Client result = clientService.update(dto);
-
-		// Assert
-		// 1) Les champs simples sont bien mis à jour
-		assertThat(result.getNom()).isEqualTo("New Name");
-		assertThat(result.getEmail()).isEqualTo("new@mail.test");
-
-		// 2) L’owner ne bouge pas
-		assertThat(result.getOwner()).isSameAs(currentOwner);
-
-		// 3) On NE va pas chercher un nouvel owner en base
-		verify(userRepository, never()).findById(anyLong());
-
-		// 4) Le repo client est bien utilisé
-		verify(clientRepo).findByIdAndOwnerId(10L, 1L);
-		verify(clientRepo).save(existing);
-		verifyNoMoreInteractions(clientRepo, userRepository);
+		User meRef = new User(); meRef.setId(1L);
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		when(userRepository.getReferenceById(1L)).thenReturn(meRef);
+		when(ownerVersionService.bump(List.of(1L, 1L))).thenReturn(Map.of(1L, 4L));
+		when(clientRepo.updateByIdAndOwnerId(10L, 1L, "X", "x@test", meRef, 3L, 4L)).thenReturn(0);
+		when(clientRepo.existsByIdAndOwnerId(10L, 1L)).thenReturn(true);
+
+		// Act + Assert : le client existe mais a changé depuis la version 3
+		assertThrows(PreconditionFailedException.class, () -> clientService.update(new ClientDto(10L, "X", "x@test", null), 3L));
+
+		verify(userService, never()).getUsersById(any());
+		verifyNoInteractions(tombstoneRepository);
 	}
 
 	// delete()
@@ -398,25 +379,24 @@ class ClientServiceTest {
 	void delete_succeeds_whenUserAuthenticatedAndClientFound() {
 		// Arrange
 		long id = 10L;
-		User me = new User(); me.setId(1L);
-		when(userService.getCurrentUser()).thenReturn(Optional.of(me));
-
-		Client existing = new Client(); existing.setId(id);
-		when(clientRepo.findByIdAndOwnerId(id, 1L)).thenReturn(Optional.of(existing));
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		when(ownerVersionService.bump(1L)).thenReturn(4L);
+		when(clientRepo.deleteByIdAndOwnerId(id, 1L)).thenReturn(1);
 
 		// Act
 		clientService.delete(id);
 
-		// Assert
-		verify(clientRepo).findByIdAndOwnerId(id, 1L);
-		verify(clientRepo).delete(existing);
+		// Assert : une seule requête DELETE, aucun chargement du client
+		verify(clientRepo).deleteByIdAndOwnerId(id, 1L);
 		verifyNoMoreInteractions(clientRepo);
+		verify(tombstoneRepository).save(argThat(tombstone -> tombstone.getEntityType() == Tombstone.Type.CLIENT
+			&& tombstone.getEntityId() == id && tombstone.getChangeVersion() == 4L));
 	}
 
 	@Test
 	void delete_throwsAccessDenied_whenNoCurrentUser() {
 		// Arrange
-		when(userService.getCurrentUser()).thenReturn(Optional.empty());
+		when(userService.getCurrentUserId()).thenReturn(Optional.empty());
 
 		// Act + Assert
 		assertThatThrownBy(() -> clientService.delete(123L))
@@ -429,15 +409,15 @@ class ClientServiceTest {
 	void delete_throwsEntityNotFound_whenClientMissingForOwner() {
 		// Arrange
 		long id = 999L;
-		User me = new User(); me.setId(1L);
-		when(userService.getCurrentUser()).thenReturn(Optional.of(me));
-		when(clientRepo.findByIdAndOwnerId(id, 1L)).thenReturn(Optional.empty());
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		when(clientRepo.deleteByIdAndOwnerId(id, 1L)).thenReturn(0);
 
 		// Act + Assert
 		assertThatThrownBy(() -> clientService.delete(id))
 			.isInstanceOf(EntityNotFoundException.class);
 
-		verify(clientRepo).findByIdAndOwnerId(id, 1L);
+		verify(clientRepo).deleteByIdAndOwnerId(id, 1L);
 		verifyNoMoreInteractions(clientRepo);
+		verifyNoInteractions(tombstoneRepository);
 	}
 }
@@ -1,29 +1,48 @@
 package org.alnitaka.zenon.service;
 
 import jakarta.persistence.EntityNotFoundException;
+import java.util.Date;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import org.alnitaka.zenon.dto.ClientDto;
+import org.alnitaka.zenon.dto.CursorPage;
+import org.alnitaka.zenon.dto.Expand;
 import org.alnitaka.zenon.dto.ProjectDto;
+import org.alnitaka.zenon.dto.TaskDto;
 import org.alnitaka.zenon.dto.UserDto;
+import org.alnitaka.zenon.dto.Versioned;
 import org.alnitaka.zenon.entity.Client;
 import org.alnitaka.zenon.entity.Project;
+import org.alnitaka.zenon.entity.Tombstone;
 import org.alnitaka.zenon.entity.User;
+import org.alnitaka.zenon.exception.PreconditionFailedException;
 import org.alnitaka.zenon.mapper.ProjectMapper;
 import org.alnitaka.zenon.repository.ClientRepository;
 import org.alnitaka.zenon.repository.ProjectRepository;
+import org.alnitaka.zenon.repository.TaskRepository;
+import org.alnitaka.zenon.repository.TombstoneRepository;
 import org.alnitaka.zenon.repository.UserRepository;
+import org.alnitaka.zenon.repository.projection.ProjectRow;
+import org.alnitaka.zenon.repository.projection.TaskRow;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import static org.mockito.Mockito.lenient;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -39,36 +58,95 @@ class ProjectServiceTest {
 	@Mock
 	ClientRepository clientRepository;
 	@Mock
+	TaskRepository taskRepository;
+	@Mock
 	ProjectMapper projectMapper;
 	@Mock
 	UserService userService;
+	@Mock
+	OwnerVersionService ownerVersionService;
+	@Mock
+	TombstoneRepository tombstoneRepository;
 
 	@InjectMocks
 	ProjectService service;
 
 	// ---------- listProjects
 	@Test
-	void listProjects_returnsProjects_forAuthenticatedUser() {
-		User me = new User();
-		me.setId(1L);
-		me.setEmail("me@mail.test");
-		when(userService.getCurrentUser()).thenReturn(Optional.of(me));
+	void listProjects_assemblesDtos_fromRows_forAuthenticatedUser() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		UserDto me = new UserDto(1L, new Date(), "me@mail.test", null, null, true, Set.of());
+
+		when(projectRepo.findRowsByOwnerIdAfter(1L, 0L, Limit.of(51))).thenReturn(List.of(
+			new ProjectRow(10L, "P1", 1L, 5L, "Client", "client@mail.test", 1L),
+			new ProjectRow(11L, "P2", 1L, null, null, null, null)
+		));
+		when(taskRepository.findRowsByProjectIdIn(List.of(10L, 11L))).thenReturn(List.of(
+			new TaskRow(10L, 100L, "T1", true),
+			new TaskRow(10L, 101L, "T2", false)
+		));
+		when(userService.getUsersById(anyCollection())).thenReturn(Map.of(1L, me));
+
+		CursorPage<ProjectDto> result = service.listProjects(null, 50);
+
+		assertThat(result.next()).isNull();
+		assertThat(result.items()).containsExactly(
+			new ProjectDto(10L, "P1", me, new ClientDto(5L, "Client", "client@mail.test", me),
+				List.of(new TaskDto(100L, "T1", true), new TaskDto(101L, "T2", false))),
+			new ProjectDto(11L, "P2", me, null, List.of())
+		);
+		verify(projectRepo).findRowsByOwnerIdAfter(1L, 0L, Limit.of(51));
+		verifyNoMoreInteractions(projectRepo);
+		// Lecture en projection : aucun mapping MapStruct
+		verifyNoInteractions(projectMapper);
+	}
 
-		List<Project> expected = List.of(new Project(), new Project());
-		when(projectRepo.findByOwnerEmail("me@mail.test")).thenReturn(expected);
+	@Test
+	void listProjects_skipsTaskAndUserQueries_whenPageIsEmpty() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		when(projectRepo.findRowsByOwnerIdAfter(1L, 0L, Limit.of(51))).thenReturn(List.of());
 
-		List<Project> result = service.listProjects();
+		assertThat(service.listProjects(null, 50).items()).isEmpty();
 
-		assertThat(result).isSameAs(expected);
-		verify(projectRepo).findByOwnerEmail("me@mail.test");
-		verifyNoMoreInteractions(projectRepo);
+		verifyNoInteractions(taskRepository);
+		verify(userService, never()).getUsersById(anyCollection());
+	}
+
+	@Test
+	void listProjects_readsOnlyProjectColumns_whenNothingIsExpanded() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		when(projectRepo.findHeadRowsByOwnerIdAfter(1L, 0L, Limit.of(51)))
+			.thenReturn(List.of(new ProjectRow(10L, "P1", 1L)));
+
+		CursorPage<ProjectDto> result = service.listProjects(null, 50, EnumSet.noneOf(Expand.class));
+
+		assertThat(result.items()).containsExactly(new ProjectDto(10L, "P1", null, null, null));
+		// Ni jointure client, ni tâches, ni utilisateurs
+		verify(projectRepo, never()).findRowsByOwnerIdAfter(anyLong(), anyLong(), any());
+		verifyNoInteractions(taskRepository);
+		verify(userService, never()).getUsersById(anyCollection());
+	}
+
+	@Test
+	void listProjects_readsTasksOnly_whenOnlyTasksAreExpanded() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		when(projectRepo.findHeadRowsByOwnerIdAfter(1L, 0L, Limit.of(51)))
+			.thenReturn(List.of(new ProjectRow(10L, "P1", 1L)));
+		when(taskRepository.findRowsByProjectIdIn(List.of(10L)))
+			.thenReturn(List.of(new TaskRow(10L, 100L, "T1", true)));
+
+		CursorPage<ProjectDto> result = service.listProjects(null, 50, EnumSet.of(Expand.TASKS));
+
+		assertThat(result.items()).containsExactly(
+			new ProjectDto(10L, "P1", null, null, List.of(new TaskDto(100L, "T1", true))));
+		verify(userService, never()).getUsersById(anyCollection());
 	}
 
 	@Test
 	void listProjects_throwsAccessDenied_whenNoUser() {
-		when(userService.getCurrentUser()).thenReturn(Optional.empty());
+		when(userService.getCurrentUserId()).thenReturn(Optional.empty());
 
-		assertThatThrownBy(() -> service.listProjects()).isInstanceOf(AccessDeniedException.class);
+		assertThatThrownBy(() -> service.listProjects(null, 50)).isInstanceOf(AccessDeniedException.class);
 
 		verifyNoInteractions(projectRepo);
 	}
@@ -77,24 +155,24 @@ class ProjectServiceTest {
 
 	@Test
 	void getProject_returnsProject_whenFoundForOwner() {
-		User me = new User();
-		me.setId(1L);
-		when(userService.getCurrentUser()).thenReturn(Optional.of(me));
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		UserDto me = new UserDto(1L, new Date(), "me@mail.test", null, null, true, Set.of());
 
-		Project p = new Project();
-		p.setId(10L);
-		when(projectRepo.findByIdAndOwnerId(10L, 1L)).thenReturn(Optional.of(p));
+		when(projectRepo.findRowByIdAndOwnerId(10L, 1L))
+			.thenReturn(Optional.of(new ProjectRow(10L, "P1", 1L, null, null, null, null)));
+		when(taskRepository.findRowsByProjectIdIn(List.of(10L))).thenReturn(List.of(new TaskRow(10L, 100L, "T1", true)));
+		when(userService.getUsersById(anyCollection())).thenReturn(Map.of(1L, me));
 
-		Project result = service.getProject(10L);
+		ProjectDto result = service.getProject(10L);
 
-		assertThat(result).isSameAs(p);
-		verify(projectRepo).findByIdAndOwnerId(10L, 1L);
+		assertThat(result).isEqualTo(new ProjectDto(10L, "P1", me, null, List.of(new TaskDto(100L, "T1", true))));
+		verify(projectRepo).findRowByIdAndOwnerId(10L, 1L);
 		verifyNoMoreInteractions(projectRepo);
 	}
 
 	@Test
 	void getProject_throwsAccessDenied_whenNoUser() {
-		when(userService.getCurrentUser()).thenReturn(Optional.empty());
+		when(userService.getCurrentUserId()).thenReturn(Optional.empty());
 
 		assertThatThrownBy(() -> service.getProject(10L)).isInstanceOf(AccessDeniedException.class);
 
@@ -103,14 +181,12 @@ class ProjectServiceTest {
 
 	@Test
 	void getProject_throwsEntityNotFound_whenMissingForOwner() {
-		User me = new User();
-		me.setId(1L);
-		when(userService.getCurrentUser()).thenReturn(Optional.of(me));
-		when(projectRepo.findByIdAndOwnerId(123L, 1L)).thenReturn(Optional.empty());
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		when(projectRepo.findRowByIdAndOwnerId(123L, 1L)).thenReturn(Optional.empty());
 
 		assertThatThrownBy(() -> service.getProject(123L)).isInstanceOf(EntityNotFoundException.class);
 
-		verify(projectRepo).findByIdAndOwnerId(123L, 1L);
+		verify(projectRepo).findRowByIdAndOwnerId(123L, 1L);
 		verifyNoMoreInteractions(projectRepo);
 	}
 
@@ -125,7 +201,8 @@ class ProjectServiceTest {
 
 		User me = new User();
 		me.setId(7L);
-		when(userService.getCurrentUser()).thenReturn(Optional.of(me));
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(me.getId()));
+		when(userRepository.getReferenceById(7L)).thenReturn(me);
 
 		when(dto.client()).thenReturn(null); // pas de client
 		when(projectRepo.save(mapped)).thenAnswer(inv -> inv.getArgument(0));
@@ -140,8 +217,9 @@ class ProjectServiceTest {
 
 		verify(projectMapper).toEntity(dto);
 		verify(projectRepo).save(mapped);
-		verifyNoMoreInteractions(projectMapper, projectRepo);
-		verifyNoInteractions(clientRepository, userRepository);
+		verify(userRepository).getReferenceById(7L);
+		verifyNoMoreInteractions(projectMapper, projectRepo, userRepository);
+		verifyNoInteractions(clientRepository);
 	}
 
 	@Test
@@ -152,7 +230,8 @@ class ProjectServiceTest {
 
 		User me = new User();
 		me.setId(7L);
-		when(userService.getCurrentUser()).thenReturn(Optional.of(me));
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(me.getId()));
+		when(userRepository.getReferenceById(7L)).thenReturn(me);
 
 		ClientDto clientDto = mock(ClientDto.class);
 		when(dto.client()).thenReturn(clientDto);
@@ -173,15 +252,15 @@ class ProjectServiceTest {
 		verify(clientRepository).findById(55L);
 		verify(projectMapper).toEntity(dto);
 		verify(projectRepo).save(mapped);
-		verifyNoMoreInteractions(clientRepository, projectMapper, projectRepo);
-		verifyNoInteractions(userRepository);
+		verify(userRepository).getReferenceById(7L);
+		verifyNoMoreInteractions(clientRepository, projectMapper, projectRepo, userRepository);
 	}
 
 	@Test
 	void create_throwsAccessDenied_whenNoUser() {
 		// Dans ton implémentation, le mapper est appelé AVANT la vérif d’auth :
 		// on stubbe donc toEntity pour éviter un NullPointer et un UnnecessaryStubbing.
-		when(userService.getCurrentUser()).thenReturn(Optional.empty());
+		when(userService.getCurrentUserId()).thenReturn(Optional.empty());
 		ProjectDto dto = mock(ProjectDto.class);
 
 		assertThatThrownBy(() -> service.create(dto)).isInstanceOf(AccessDeniedException.class);
@@ -195,7 +274,8 @@ class ProjectServiceTest {
 		// Arrange
 		User me = new User();
 		me.setId(7L);
-		when(userService.getCurrentUser()).thenReturn(Optional.of(me));
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(me.getId()));
+		when(userRepository.getReferenceById(7L)).thenReturn(me);
 
 		// dto.client() existe mais son id est null
 		ClientDto clientDto = mock(ClientDto.class);
@@ -220,135 +300,96 @@ class ProjectServiceTest {
 		verify(projectMapper).toEntity(dto);
 		verify(projectRepo).save(mapped);
 		verifyNoInteractions(clientRepository);   // ❗ aucun lookup client
-		verifyNoInteractions(userRepository);
+		verify(userRepository).getReferenceById(7L);
+		verifyNoMoreInteractions(userRepository);
 	}
 
 	// ---------- update
-
 	@Test
-	void update_succeeds_withoutOwnerChange_butUpdatesName_andSetsClientWhenProvided() {
-		User me = new User();
-		me.setId(1L);
-		when(userService.getCurrentUser()).thenReturn(Optional.of(me));
-
-		Project existing = new Project();
-		existing.setId(10L);
-		User currentOwner = new User();
-		currentOwner.setId(99L);
-		existing.setOwner(currentOwner);
-
-		when(projectRepo.findByIdAndOwnerId(10L, 1L)).thenReturn(Optional.of(existing));
-
-		// dto.owner.id == existing.owner.id => pas de changement d'owner
-		UserDto ownerDto = mock(UserDto.class);
-		when(ownerDto.id()).thenReturn(99L);
-
-		// client différent => doit setClient(newClient)
-		ClientDto clientDto = mock(ClientDto.class);
-		when(clientDto.id()).thenReturn(55L);
-
-		ProjectDto dto = mock(ProjectDto.class);
-		when(dto.id()).thenReturn(10L);
-		when(dto.nom()).thenReturn("New Name");
-		when(dto.owner()).thenReturn(ownerDto);
-		when(dto.client()).thenReturn(clientDto);
-
-		Client newClient = new Client();
-		newClient.setId(55L);
-		when(clientRepository.findById(55L)).thenReturn(Optional.of(newClient));
-
-		when(projectRepo.save(existing)).thenAnswer(inv -> inv.getArgument(0));
-
-		Project result = service.update((ProjectDto) dto);
-
-		assertThat(result).isSameAs(existing);
-		assertThat(result.getNom()).isEqualTo("New Name");
-		assertThat(result.getOwner()).isSameAs(currentOwner);
-		assertThat(result.getClient()).isSameAs(newClient);
-
-		verify(clientRepository).findById(55L);
-		verify(projectRepo).findByIdAndOwnerId(10L, 1L);
-		verify(projectRepo).save(existing);
-		verifyNoMoreInteractions(clientRepository, projectRepo);
-		verifyNoInteractions(userRepository);
+	void update_singleOwnerScopedStatement_withClient() {
+		UserDto me = new UserDto(1L, new Date(), "me@mail.test", null, null, true, Set.of());
+		User meRef = new User();
+		meRef.setId(1L);
+		Client clientRef = new Client();
+		clientRef.setId(55L);
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		when(userRepository.getReferenceById(1L)).thenReturn(meRef);
+		when(clientRepository.existsById(55L)).thenReturn(true);
+		when(clientRepository.getReferenceById(55L)).thenReturn(clientRef);
+		when(ownerVersionService.bump(List.of(1L, 1L))).thenReturn(Map.of(1L, 4L));
+		when(projectRepo.updateByIdAndOwnerId(10L, 1L, "New Name", meRef, clientRef, null, 4L)).thenReturn(1);
+		when(projectRepo.findRowByIdAndOwnerId(10L, 1L))
+			.thenReturn(Optional.of(new ProjectRow(10L, "New Name", 1L, 55L, "Client", null, 1L)));
+		when(userService.getUsersById(anyCollection())).thenReturn(Map.of(1L, me));
+		when(projectRepo.findVersionByIdAndOwnerId(10L, 1L)).thenReturn(Optional.of(6L));
+
+		ProjectDto dto = new ProjectDto(10L, "New Name", null, new ClientDto(55L, "Client", null, null), null);
+		ProjectDto result = service.update(dto);
+
+		assertThat(result).isEqualTo(new ProjectDto(10L, "New Name", me, new ClientDto(55L, "Client", null, me), List.of()));
+		// Ni chargement du projet, ni du client, ni du propriétaire
+		verify(projectRepo, never()).findById(any());
+		verify(clientRepository, never()).findById(anyLong());
+		verify(userRepository, never()).findById(anyLong());
+		verifyNoInteractions(taskRepository, tombstoneRepository);
 	}
 
 	@Test
-	void update_succeeds_withOwnerChange() {
-		User me = new User();
-		me.setId(1L);
-		when(userService.getCurrentUser()).thenReturn(Optional.of(me));
-
-		Project existing = new Project();
-		existing.setId(10L);
-		User oldOwner = new User();
-		oldOwner.setId(99L);
-		existing.setOwner(oldOwner);
-
-		when(projectRepo.findByIdAndOwnerId(10L, 1L)).thenReturn(Optional.of(existing));
-
-		UserDto ownerDto = mock(UserDto.class);
-		when(ownerDto.id()).thenReturn(77L);
-
-		ProjectDto dto = mock(ProjectDto.class);
-		when(dto.id()).thenReturn(10L);
-		when(dto.nom()).thenReturn("N");
-		when(dto.owner()).thenReturn(ownerDto);
-		when(dto.client()).thenReturn(null); // pas de client
-
-		User newOwner = new User();
-		newOwner.setId(77L);
-		when(userRepository.findById(77L)).thenReturn(Optional.of(newOwner));
-
-		when(projectRepo.save(existing)).thenAnswer(inv -> inv.getArgument(0));
-
-		Project result = service.update(dto);
-
-		assertThat(result.getOwner()).isSameAs(newOwner);
-		assertThat(result.getNom()).isEqualTo("N");
-		assertThat(result.getClient()).isNull();
-
-		verify(userRepository).findById(77L);
-		verify(projectRepo).findByIdAndOwnerId(10L, 1L);
-		verify(projectRepo).save(existing);
-		verifyNoMoreInteractions(userRepository, projectRepo);
+	void update_handsProjectOver_andDropsClient() {
+		User newOwnerRef = new User();
+		newOwnerRef.setId(77L);
+		UserDto newOwner = new UserDto(77L, new Date(), "new@owner.test", null, null, true, Set.of());
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		when(userRepository.existsById(77L)).thenReturn(true);
+		when(userRepository.getReferenceById(77L)).thenReturn(newOwnerRef);
+		// L'ancien et le nouveau propriétaire voient leurs données changer
+		when(ownerVersionService.bump(List.of(1L, 77L))).thenReturn(Map.of(1L, 4L, 77L, 9L));
+		when(projectRepo.updateByIdAndOwnerId(10L, 1L, "N", newOwnerRef, null, null, 9L)).thenReturn(1);
+		// Relu sous son nouveau propriétaire
+		when(projectRepo.findRowByIdAndOwnerId(10L, 77L))
+			.thenReturn(Optional.of(new ProjectRow(10L, "N", 77L, null, null, null, null)));
+		when(projectRepo.findVersionByIdAndOwnerId(10L, 77L)).thenReturn(Optional.of(6L));
+		when(userService.getUsersById(anyCollection())).thenReturn(Map.of(77L, newOwner));
+
+		ProjectDto result = service.update(new ProjectDto(10L, "N", newOwner, null, null));
+
+		assertThat(result.owner()).isEqualTo(newOwner);
+		assertThat(result.client()).isNull();
 		verifyNoInteractions(clientRepository);
+		// Les tâches suivent le projet dans la synchronisation du nouveau propriétaire ; l'ancien le perd
+		verify(taskRepository).updateOwnerIdByProjectId(10L, 77L, 9L);
+		verify(tombstoneRepository).save(argThat(tombstone -> tombstone.getOwnerId() == 1L
+			&& tombstone.getEntityType() == Tombstone.Type.PROJECT && tombstone.getChangeVersion() == 4L));
 	}
 
 	@Test
-	void update_setsClientNull_whenDtoClientIsNull() {
-		User me = new User();
-		me.setId(1L);
-		when(userService.getCurrentUser()).thenReturn(Optional.of(me));
+	void update_throwsEntityNotFound_whenNewOwnerMissing() {
+		UserDto unknown = new UserDto(404L, new Date(), "ghost@mail.test", null, null, true, Set.of());
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		when(userRepository.existsById(404L)).thenReturn(false);
 
-		Project existing = new Project();
-		existing.setId(10L);
-		existing.setClient(new Client()); // il y avait un client avant
+		assertThatThrownBy(() -> service.update(new ProjectDto(10L, "N", unknown, null, null)))
+			.isInstanceOf(EntityNotFoundException.class);
 
-		when(projectRepo.findByIdAndOwnerId(10L, 1L)).thenReturn(Optional.of(existing));
-
-		ProjectDto dto = mock(ProjectDto.class);
-		when(dto.id()).thenReturn(10L);
-		when(dto.nom()).thenReturn("X");
-		when(dto.client()).thenReturn(null);
-		when(dto.owner()).thenReturn(null);
+		// 404 avant toute écriture, pas de violation de clé étrangère
+		verifyNoInteractions(projectRepo, ownerVersionService, taskRepository, tombstoneRepository);
+	}
 
-		when(projectRepo.save(existing)).thenAnswer(inv -> inv.getArgument(0));
+	@Test
+	void update_throwsEntityNotFound_whenClientMissing() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		when(clientRepository.existsById(404L)).thenReturn(false);
 
-		Project result = service.update(dto);
+		assertThatThrownBy(() -> service.update(new ProjectDto(10L, "N", null, new ClientDto(404L, "C", null, null), null)))
+			.isInstanceOf(EntityNotFoundException.class);
 
-		assertThat(result.getClient()).isNull();
-		assertThat(result.getNom()).isEqualTo("X");
-
-		verify(projectRepo).findByIdAndOwnerId(10L, 1L);
-		verify(projectRepo).save(existing);
-		verifyNoMoreInteractions(projectRepo);
-		verifyNoInteractions(clientRepository, userRepository);
+		verify(clientRepository, never()).getReferenceById(any());
+		verifyNoInteractions(projectRepo, ownerVersionService, taskRepository, tombstoneRepository);
 	}
 
 	@Test
 	void update_throwsAccessDenied_whenNoUser() {
-		when(userService.getCurrentUser()).thenReturn(Optional.empty());
+		when(userService.getCurrentUserId()).thenReturn(Optional.empty());
 		ProjectDto dto = mock(ProjectDto.class);
 
 		assertThatThrownBy(() -> service.update(dto)).isInstanceOf(AccessDeniedException.class);
@@ -358,84 +399,94 @@ class ProjectServiceTest {
 
 	@Test
 	void update_throwsEntityNotFound_whenMissingForOwner() {
-		User me = new User();
-		me.setId(1L);
-		when(userService.getCurrentUser()).thenReturn(Optional.of(me));
-
-		ProjectDto dto = mock(ProjectDto.class);
-		when(dto.id()).thenReturn(123L);
-
-		when(projectRepo.findByIdAndOwnerId(123L, 1L)).thenReturn(Optional.empty());
-
-		assertThatThrownBy(() -> service.update(dto)).isInstanceOf(EntityNotFoundException.class);
-
-		verify(projectRepo).findByIdAndOwnerId(123L, 1L);
-		verifyNoMoreInteractions(projectRepo);
-		verifyNoInteractions(userRepository, clientRepository);
+		User meRef = new User();
+		meRef.setId(1L);
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		when(userRepository.getReferenceById(1L)).thenReturn(meRef);
+		when(ownerVersionService.bump(List.of(1L, 1L))).thenReturn(Map.of(1L, 4L));
+		when(projectRepo.updateByIdAndOwnerId(123L, 1L, "X", meRef, null, null, 4L)).thenReturn(0);
+
+		assertThatThrownBy(() -> service.update(new ProjectDto(123L, "X", null, null, null)))
+			.isInstanceOf(EntityNotFoundException.class);
+
+		// Écriture inconditionnelle : 0 ligne signifie forcément « introuvable », sans relecture
+		verify(projectRepo, never()).existsByIdAndOwnerId(any(), any());
+		verifyNoInteractions(tombstoneRepository);
 	}
 
 	@Test
-	void update_doesNotChangeOwner_whenExistingOwnerIsNull_evenIfDtoOwnerProvided() {
-		// Arrange
-		User me = new User();
-		me.setId(1L);
-		when(userService.getCurrentUser()).thenReturn(Optional.of(me));
-
-		Project existing = new Project();
-		existing.setId(10L);
-		existing.setOwner(null); // owner inexistant
-
-		when(projectRepo.findByIdAndOwnerId(10L, 1L)).thenReturn(Optional.of(existing));
-
-		UserDto ownerDto = mock(UserDto.class);
-		lenient().when(ownerDto.id()).thenReturn(77L); // fourni, mais ne doit pas être utilisé
-
-		ProjectDto dto = mock(ProjectDto.class);
-		when(dto.id()).thenReturn(10L);
-		when(dto.nom()).thenReturn("New Name");
-		when(dto.owner()).thenReturn(ownerDto);
-		when(dto.client()).thenReturn(null); // pas de client
-
-		when(projectRepo.save(existing)).thenAnswer(inv -> inv.getArgument(0));
-
-		// Act
-		Project result = service.update(dto);
+	void update_returnsNewETagParts_withoutRereadingVersion_whenVersionMatches() {
+		UserDto me = new UserDto(1L, new Date(), "me@mail.test", null, null, true, Set.of());
+		User meRef = new User();
+		meRef.setId(1L);
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		when(userRepository.getReferenceById(1L)).thenReturn(meRef);
+		when(ownerVersionService.bump(List.of(1L, 1L))).thenReturn(Map.of(1L, 4L));
+		when(projectRepo.updateByIdAndOwnerId(10L, 1L, "X", meRef, null, 3L, 4L)).thenReturn(1);
+		when(projectRepo.findRowByIdAndOwnerId(10L, 1L))
+			.thenReturn(Optional.of(new ProjectRow(10L, "X", 1L, null, null, null, null)));
+		when(userService.getUsersById(anyCollection())).thenReturn(Map.of(1L, me));
+
+		Versioned<ProjectDto> result = service.update(new ProjectDto(10L, "X", null, null, null), 3L);
+
+		// Version 3 passée à 4 par l'UPDATE, données de l'utilisateur à la version prise
+		assertThat(result.value().nom()).isEqualTo("X");
+		assertThat(result.ownerTag()).isEqualTo("1.4");
+		assertThat(result.version()).isEqualTo(4L);
+		verify(projectRepo, never()).findVersionByIdAndOwnerId(any(), any());
+	}
 
-		// Assert
-		assertThat(result).isSameAs(existing);
-		assertThat(result.getNom()).isEqualTo("New Name");
-		assertThat(result.getOwner()).isNull(); // inchangé
-		assertThat(result.getClient()).isNull();
+	@Test
+	void update_throwsPreconditionFailed_whenVersionIsStale() {
+		User meRef = new User();
+		meRef.setId(1L);
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		when(userRepository.getReferenceById(1L)).thenReturn(meRef);
+		when(ownerVersionService.bump(List.of(1L, 1L))).thenReturn(Map.of(1L, 4L));
+		when(projectRepo.updateByIdAndOwnerId(10L, 1L, "X", meRef, null, 3L, 4L)).thenReturn(0);
+		when(projectRepo.existsByIdAndOwnerId(10L, 1L)).thenReturn(true);
+
+		assertThatThrownBy(() -> service.update(new ProjectDto(10L, "X", null, null, null), 3L))
+			.isInstanceOf(PreconditionFailedException.class);
+
+		verify(projectRepo, never()).findRowByIdAndOwnerId(any(), any());
+		verifyNoInteractions(tombstoneRepository);
+	}
 
-		verify(projectRepo).findByIdAndOwnerId(10L, 1L);
-		verify(projectRepo).save(existing);
-		verifyNoMoreInteractions(projectRepo);
-		verifyNoInteractions(userRepository); // ❗ pas de lookup owner
-		verifyNoInteractions(clientRepository);
+	@Test
+	void update_throwsEntityNotFound_whenConditionalAndMissing() {
+		User meRef = new User();
+		meRef.setId(1L);
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		when(userRepository.getReferenceById(1L)).thenReturn(meRef);
+		when(ownerVersionService.bump(List.of(1L, 1L))).thenReturn(Map.of(1L, 4L));
+		when(projectRepo.updateByIdAndOwnerId(10L, 1L, "X", meRef, null, 3L, 4L)).thenReturn(0);
+		when(projectRepo.existsByIdAndOwnerId(10L, 1L)).thenReturn(false);
+
+		assertThatThrownBy(() -> service.update(new ProjectDto(10L, "X", null, null, null), 3L))
+			.isInstanceOf(EntityNotFoundException.class);
 	}
 
 	// ---------- delete
 
 	@Test
 	void delete_succeeds_whenFoundForOwner() {
-		User me = new User();
-		me.setId(1L);
-		when(userService.getCurrentUser()).thenReturn(Optional.of(me));
-
-		Project existing = new Project();
-		existing.setId(10L);
-		when(projectRepo.findByIdAndOwnerId(10L, 1L)).thenReturn(Optional.of(existing));
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		when(projectRepo.deleteByIdAndOwnerId(10L, 1L)).thenReturn(1);
 
 		service.delete(10L);
 
-		verify(projectRepo).findByIdAndOwnerId(10L, 1L);
-		verify(projectRepo).delete(existing);
+		// Une seule requête : les tâches partent par la cascade SQL, couvertes par la pierre tombale du projet
+		verify(projectRepo).deleteByIdAndOwnerId(10L, 1L);
 		verifyNoMoreInteractions(projectRepo);
+		verifyNoInteractions(taskRepository);
+		verify(tombstoneRepository).save(argThat(tombstone -> tombstone.getEntityType() == Tombstone.Type.PROJECT
+			&& tombstone.getEntityId() == 10L));
 	}
 
 	@Test
 	void delete_throwsAccessDenied_whenNoUser() {
-		when(userService.getCurrentUser()).thenReturn(Optional.empty());
+		when(userService.getCurrentUserId()).thenReturn(Optional.empty());
 
 		assertThatThrownBy(() -> service.delete(10L)).isInstanceOf(AccessDeniedException.class);
 
@@ -444,14 +495,12 @@ class ProjectServiceTest {
 
 	@Test
 	void delete_throwsEntityNotFound_whenMissingForOwner() {
-		User me = new User();
-		me.setId(1L);
-		when(userService.getCurrentUser()).thenReturn(Optional.of(me));
-		when(projectRepo.findByIdAndOwnerId(999L, 1L)).thenReturn(Optional.empty());
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		when(projectRepo.deleteByIdAndOwnerId(999L, 1L)).thenReturn(0);
 
 		assertThatThrownBy(() -> service.delete(999L)).isInstanceOf(EntityNotFoundException.class);
 
-		verify(projectRepo).findByIdAndOwnerId(999L, 1L);
+		verify(projectRepo).deleteByIdAndOwnerId(999L, 1L);
 		verifyNoMoreInteractions(projectRepo);
 	}
 }
@@ -0,0 +1,103 @@
+package org.alnitaka.zenon.service;
+
+import java.util.List;
+import java.util.Optional;
+import org.alnitaka.zenon.dto.SyncPage;
+import org.alnitaka.zenon.entity.Tombstone;
+import org.alnitaka.zenon.exception.InvalidCursorException;
+import org.alnitaka.zenon.repository.ClientRepository;
+import org.alnitaka.zenon.repository.ProjectRepository;
+import org.alnitaka.zenon.repository.TaskRepository;
+import org.alnitaka.zenon.repository.TombstoneRepository;
+import org.alnitaka.zenon.repository.projection.ClientChange;
+import org.alnitaka.zenon.repository.projection.ProjectChange;
+import org.alnitaka.zenon.repository.projection.TaskChange;
+import org.alnitaka.zenon.repository.projection.TombstoneChange;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.access.AccessDeniedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SyncServiceTest {
+
+	@InjectMocks
+	private SyncService syncService;
+	@Mock
+	private ClientRepository clientRepository;
+	@Mock
+	private ProjectRepository projectRepository;
+	@Mock
+	private TaskRepository taskRepository;
+	@Mock
+	private TombstoneRepository tombstoneRepository;
+	@Mock
+	private UserService userService;
+
+	@Test
+	void changesSince_mergesSources_byVersionThenKindThenId() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		when(clientRepository.findChangesByOwnerIdAfter(1L, 0L, 0L, Limit.of(4)))
+			.thenReturn(List.of(new ClientChange(2L, 5L, "C", null)));
+		when(projectRepository.findChangesByOwnerIdAfter(1L, 0L, 0L, Limit.of(4)))
+			.thenReturn(List.of(new ProjectChange(1L, 7L, "P1", 5L), new ProjectChange(2L, 8L, "P2", null)));
+		when(taskRepository.findChangesByOwnerIdAfter(1L, 0L, 0L, Limit.of(4)))
+			.thenReturn(List.of(new TaskChange(2L, 3L, 7L, "T", true)));
+		when(tombstoneRepository.findChangesByOwnerIdAfter(1L, 0L, 0L, Limit.of(4)))
+			.thenReturn(List.of(new TombstoneChange(1L, 1L, Tombstone.Type.TASK, 9L)));
+
+		SyncPage page = syncService.changesSince(null, 3);
+
+		// (1, projet 7), (1, suppression 1), (2, client 5) ; (2, projet 8) et (2, tâche 3) restent à venir
+		assertThat(page.projects()).containsExactly(new SyncPage.Project(7L, "P1", 5L));
+		assertThat(page.deleted()).containsExactly(new SyncPage.Deletion(Tombstone.Type.TASK, 9L));
+		assertThat(page.clients()).containsExactly(new SyncPage.Client(5L, "C", null));
+		assertThat(page.tasks()).isEmpty();
+		assertThat(page.hasMore()).isTrue();
+	}
+
+	@Test
+	void changesSince_resumesEachSource_afterTheCursor() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+		when(taskRepository.findChangesByOwnerIdAfter(1L, 0L, 0L, Limit.of(2)))
+			.thenReturn(List.of(new TaskChange(4L, 3L, 7L, "T", true)));
+		when(taskRepository.findChangesByOwnerIdAfter(1L, 4L, 3L, Limit.of(2))).thenReturn(List.of());
+
+		String cursor = syncService.changesSince(null, 1).cursor();
+		SyncPage next = syncService.changesSince(cursor, 1);
+
+		// Clients et projets de la version 4 déjà passés, tâches après l'id 3, pierres tombales toutes à venir
+		verify(clientRepository).findChangesByOwnerIdAfter(1L, 4L, Long.MAX_VALUE, Limit.of(2));
+		verify(projectRepository).findChangesByOwnerIdAfter(1L, 4L, Long.MAX_VALUE, Limit.of(2));
+		verify(tombstoneRepository).findChangesByOwnerIdAfter(1L, 4L, 0L, Limit.of(2));
+		// Rien de neuf : le même curseur est rendu
+		assertThat(next.cursor()).isEqualTo(cursor);
+		assertThat(next.hasMore()).isFalse();
+	}
+
+	@Test
+	void changesSince_rejectsForgedCursor() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(1L));
+
+		assertThatThrownBy(() -> syncService.changesSince("not-a-cursor", 50)).isInstanceOf(InvalidCursorException.class);
+		// Source inconnue
+		assertThatThrownBy(() -> syncService.changesSince("MS45LjE", 50)).isInstanceOf(InvalidCursorException.class);
+		verifyNoInteractions(clientRepository, projectRepository, taskRepository, tombstoneRepository);
+	}
+
+	@Test
+	void changesSince_NoAuth() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.empty());
+
+		assertThatThrownBy(() -> syncService.changesSince(null, 50)).isInstanceOf(AccessDeniedException.class);
+	}
+}
@@ -0,0 +1,73 @@
+package org.alnitaka.zenon.service;
+
+import java.util.List;
+import org.alnitaka.zenon.repository.JobLockRepository;
+import org.alnitaka.zenon.repository.ProjectRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TaskCounterRepairJobTest {
+
+	@Mock
+	private ProjectRepository projectRepository;
+	@Mock
+	private OwnerVersionService ownerVersionService;
+	@Mock
+	private JobLockRepository jobLockRepository;
+
+	private TaskCounterRepairJob job;
+
+	@BeforeEach
+	void setUp() {
+		job = new TaskCounterRepairJob(projectRepository, ownerVersionService, jobLockRepository,
+			new TransactionTemplate(mock(PlatformTransactionManager.class)));
+		ReflectionTestUtils.setField(job, "batchSize", 10L);
+	}
+
+	@Test
+	void repair_skips_whenAnotherInstanceHoldsTheLock() {
+		when(jobLockRepository.acquire(eq(TaskCounterRepairJob.LOCK), anyLong(), anyLong())).thenReturn(0);
+
+		assertThat(job.repair()).isZero();
+		verifyNoInteractions(projectRepository, ownerVersionService);
+	}
+
+	@Test
+	void repair_scansByIdRange_andRecountsOnlyDriftedProjects() {
+		when(jobLockRepository.acquire(eq(TaskCounterRepairJob.LOCK), anyLong(), anyLong())).thenReturn(1);
+		when(projectRepository.findMaxId()).thenReturn(25L);
+		when(projectRepository.findIdsWithDriftedTaskCounts(0L, 10L)).thenReturn(List.of());
+		when(projectRepository.findIdsWithDriftedTaskCounts(10L, 20L)).thenReturn(List.of(12L, 17L));
+		when(projectRepository.findIdsWithDriftedTaskCounts(20L, 30L)).thenReturn(List.of());
+		when(projectRepository.findOwnerIdsByIdIn(List.of(12L, 17L))).thenReturn(List.of(3L));
+
+		assertThat(job.repair()).isEqualTo(2);
+		verify(ownerVersionService).bump(List.of(3L));
+		verify(projectRepository).recountTasks(12L);
+		verify(projectRepository).recountTasks(17L);
+	}
+
+	@Test
+	void repair_doesNothing_withoutProjects() {
+		when(jobLockRepository.acquire(eq(TaskCounterRepairJob.LOCK), anyLong(), anyLong())).thenReturn(1);
+		when(projectRepository.findMaxId()).thenReturn(null);
+
+		assertThat(job.repair()).isZero();
+		verifyNoInteractions(ownerVersionService);
+	}
+}
@@ -0,0 +1,337 @@
+package org.alnitaka.zenon.service;
+
+import jakarta.persistence.EntityNotFoundException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.alnitaka.zenon.dto.BulkResult;
+import org.alnitaka.zenon.dto.TaskDto;
+import org.alnitaka.zenon.dto.TaskStatusChange;
+import org.alnitaka.zenon.dto.Versioned;
+import org.alnitaka.zenon.entity.Project;
+import org.alnitaka.zenon.entity.Task;
+import org.alnitaka.zenon.entity.Tombstone;
+import org.alnitaka.zenon.exception.ConflictException;
+import org.alnitaka.zenon.exception.PreconditionFailedException;
+import org.alnitaka.zenon.mapper.TaskMapper;
+import org.alnitaka.zenon.repository.ProjectRepository;
+import org.alnitaka.zenon.repository.TaskRepository;
+import org.alnitaka.zenon.repository.TombstoneRepository;
+import org.alnitaka.zenon.repository.projection.TaskRow;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.ConstraintViolationException.ConstraintKind;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.access.AccessDeniedException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TaskServiceTest {
+
+	@InjectMocks
+	private TaskService taskService;
+	@Mock
+	private TaskRepository taskRepository;
+	@Mock
+	private ProjectRepository projectRepository;
+	@Mock
+	private TaskMapper taskMapper;
+	@Mock
+	private UserService userService;
+	@Mock
+	private OwnerVersionService ownerVersionService;
+	@Mock
+	private TombstoneRepository tombstoneRepository;
+
+	// create()
+	@Test
+	void testCreate_NoAuth() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.empty());
+		assertThrows(AccessDeniedException.class, () -> taskService.create(new TaskDto(null, "Tâche", true), 1L));
+		verifyNoInteractions(projectRepository, taskRepository);
+	}
+
+	@Test
+	void testCreate_ProjectNotOwned() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(42L));
+		when(projectRepository.existsByIdAndOwnerId(1L, 42L)).thenReturn(false);
+
+		assertThrows(EntityNotFoundException.class, () -> taskService.create(new TaskDto(null, "Tâche", true), 1L));
+		verify(taskRepository, never()).save(any());
+	}
+
+	@Test
+	void testCreate_InsertsOnlyTheTask() {
+		TaskDto dto = new TaskDto(null, "Tâche", true);
+		Task task = new Task();
+		Project reference = new Project();
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(42L));
+		when(projectRepository.existsByIdAndOwnerId(1L, 42L)).thenReturn(true);
+		when(taskMapper.toEntity(dto)).thenReturn(task);
+		when(projectRepository.getReferenceById(1L)).thenReturn(reference);
+		when(taskRepository.save(task)).thenReturn(task);
+
+		assertSame(task, taskService.create(dto, 1L));
+		assertSame(reference, task.getProject());
+		assertEquals(42L, task.getOwnerId());
+		// Ni chargement du projet ni sauvegarde par cascade
+		verify(projectRepository, never()).findById(any());
+		verify(projectRepository, never()).save(any());
+		verify(projectRepository).incrementTaskCounts(1L, 1, 0);
+	}
+
+	// createAll()
+	@Test
+	void testCreateAll_ReportsDuplicates_AndSavesTheRest() {
+		TaskDto free = new TaskDto(null, "Libre", true);
+		TaskDto taken = new TaskDto(null, "Prise", true);
+		TaskDto repeated = new TaskDto(null, "Libre", false);
+		Task task = new Task();
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(42L));
+		when(projectRepository.existsByIdAndOwnerId(1L, 42L)).thenReturn(true);
+		when(projectRepository.getReferenceById(1L)).thenReturn(new Project());
+		when(taskRepository.findNomsByNomIn(List.of("Libre", "Prise", "Libre"))).thenReturn(Set.of("Prise"));
+		when(taskMapper.toEntity(free)).thenReturn(task);
+		when(taskRepository.saveAll(List.of(task))).thenAnswer(invocation -> {
+			task.setId(7L);
+			return List.of(task);
+		});
+
+		List<BulkResult> results = taskService.createAll(1L, List.of(free, taken, repeated));
+
+		assertEquals(List.of(
+			new BulkResult(0, 7L, BulkResult.Status.CREATED),
+			new BulkResult(1, null, BulkResult.Status.DUPLICATE),
+			new BulkResult(2, null, BulkResult.Status.DUPLICATE)
+		), results);
+		assertEquals(42L, task.getOwnerId());
+		verify(projectRepository).incrementTaskCounts(1L, 1, 0);
+	}
+
+	@Test
+	void testCreateAll_NameTakenConcurrently_IsAConflict() {
+		TaskDto dto = new TaskDto(null, "Libre", true);
+		Task task = new Task();
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(42L));
+		when(projectRepository.existsByIdAndOwnerId(1L, 42L)).thenReturn(true);
+		when(projectRepository.getReferenceById(1L)).thenReturn(new Project());
+		when(taskRepository.findNomsByNomIn(List.of("Libre"))).thenReturn(Set.of());
+		when(taskMapper.toEntity(dto)).thenReturn(task);
+		// Libre à la vérification, pris par une autre requête avant l'insertion
+		doThrow(uniqueViolation("nom")).when(taskRepository).flush();
+
+		assertThrows(ConflictException.class, () -> taskService.createAll(1L, List.of(dto)));
+		verify(projectRepository, never()).incrementTaskCounts(any(), anyInt(), anyInt());
+	}
+
+	@Test
+	void testCreateAll_OtherIntegrityViolation_IsRethrown() {
+		TaskDto dto = new TaskDto(null, "Libre", true);
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(42L));
+		when(projectRepository.existsByIdAndOwnerId(1L, 42L)).thenReturn(true);
+		when(projectRepository.getReferenceById(1L)).thenReturn(new Project());
+		when(taskRepository.findNomsByNomIn(List.of("Libre"))).thenReturn(Set.of());
+		when(taskMapper.toEntity(dto)).thenReturn(new Task());
+		doThrow(uniqueViolation("email")).when(taskRepository).flush();
+
+		assertThrows(DataIntegrityViolationException.class, () -> taskService.createAll(1L, List.of(dto)));
+	}
+
+	@Test
+	void testCreateAll_ProjectNotOwned() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(42L));
+		when(projectRepository.existsByIdAndOwnerId(1L, 42L)).thenReturn(false);
+
+		assertThrows(EntityNotFoundException.class, () -> taskService.createAll(1L, List.of(new TaskDto(null, "Tâche", true))));
+		verifyNoInteractions(taskRepository);
+	}
+
+	// updateStatus()
+	@Test
+	void testUpdateStatus_GroupsByState_AndReportsMissingTasks() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(42L));
+		when(projectRepository.existsByIdAndOwnerId(1L, 42L)).thenReturn(true);
+		when(taskRepository.findIdsByProjectIdAndIdIn(eq(1L), anyCollection())).thenReturn(Set.of(10L, 11L, 12L));
+		when(ownerVersionService.bump(42L)).thenReturn(8L);
+
+		List<BulkResult> results = taskService.updateStatus(1L, List.of(
+			new TaskStatusChange(10L, false),
+			new TaskStatusChange(11L, false),
+			new TaskStatusChange(12L, true),
+			new TaskStatusChange(99L, true)
+		));
+
+		assertEquals(List.of(
+			new BulkResult(0, 10L, BulkResult.Status.UPDATED),
+			new BulkResult(1, 11L, BulkResult.Status.UPDATED),
+			new BulkResult(2, 12L, BulkResult.Status.UPDATED),
+			new BulkResult(3, 99L, BulkResult.Status.NOT_FOUND)
+		), results);
+		verify(taskRepository).updateActive(eq(1L), eq(42L), argThat(ids -> Set.copyOf(ids).equals(Set.of(10L, 11L))), eq(false), eq(8L));
+		verify(taskRepository).updateActive(1L, 42L, List.of(12L), true, 8L);
+		verify(projectRepository).adjustActiveTaskCount(eq(1L), anyCollection(), eq(false), eq(-1));
+		verify(projectRepository).adjustActiveTaskCount(1L, List.of(12L), true, 1);
+		verify(taskRepository, never()).findById(any());
+	}
+
+	// update()
+	@Test
+	void testUpdate_ToggledTask_AdjustsCounterAfterTheWrite() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(42L));
+		when(taskRepository.updateByIdAndOwnerId(5L, 1L, 42L, "Renommée", false, true, null, 0L)).thenReturn(1);
+		when(taskRepository.findVersionByIdAndProjectIdAndOwnerId(5L, 1L, 42L)).thenReturn(Optional.of(3L));
+
+		assertEquals(new TaskDto(5L, "Renommée", false), taskService.update(1L, new TaskDto(5L, "Renommée", false)));
+		InOrder inOrder = inOrder(taskRepository, projectRepository);
+		inOrder.verify(taskRepository).updateByIdAndOwnerId(5L, 1L, 42L, "Renommée", false, true, null, 0L);
+		inOrder.verify(projectRepository).incrementTaskCounts(1L, 0, -1);
+		verify(taskRepository, never()).findById(any());
+	}
+
+	@Test
+	void testUpdate_UnchangedState_LeavesCounters() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(42L));
+		when(taskRepository.updateByIdAndOwnerId(5L, 1L, 42L, "Renommée", false, true, null, 0L)).thenReturn(0);
+		when(taskRepository.updateByIdAndOwnerId(5L, 1L, 42L, "Renommée", false, false, null, 0L)).thenReturn(1);
+		when(taskRepository.findVersionByIdAndProjectIdAndOwnerId(5L, 1L, 42L)).thenReturn(Optional.of(3L));
+
+		assertEquals(new TaskDto(5L, "Renommée", false), taskService.update(1L, new TaskDto(5L, "Renommée", false)));
+		verifyNoInteractions(projectRepository);
+	}
+
+	@Test
+	void testUpdate_NotOwned_LeavesTheOtherProjectUntouched() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(42L));
+		when(taskRepository.updateByIdAndOwnerId(5L, 1L, 42L, "Renommée", false, true, null, 0L)).thenReturn(0);
+		when(taskRepository.updateByIdAndOwnerId(5L, 1L, 42L, "Renommée", false, false, null, 0L)).thenReturn(0);
+
+		assertThrows(EntityNotFoundException.class, () -> taskService.update(1L, new TaskDto(5L, "Renommée", false)));
+		// Aucune écriture ni aucun verrou sur le projet d'un autre utilisateur
+		verifyNoInteractions(projectRepository);
+		// Écriture inconditionnelle : 0 ligne signifie forcément « introuvable », sans relecture
+		verify(taskRepository, never()).findVersionByIdAndProjectIdAndOwnerId(any(), any(), any());
+	}
+
+	@Test
+	void testUpdate_ExpectedVersion_ReturnsNewETagPartsWithoutRereading() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(42L));
+		when(ownerVersionService.bump(42L)).thenReturn(8L);
+		when(taskRepository.updateByIdAndOwnerId(5L, 1L, 42L, "Renommée", false, true, 3L, 8L)).thenReturn(0);
+		when(taskRepository.updateByIdAndOwnerId(5L, 1L, 42L, "Renommée", false, false, 3L, 8L)).thenReturn(1);
+
+		assertEquals(new Versioned<>(new TaskDto(5L, "Renommée", false), "42.8", 4L),
+			taskService.update(1L, new TaskDto(5L, "Renommée", false), 3L));
+		verify(taskRepository, never()).findVersionByIdAndProjectIdAndOwnerId(any(), any(), any());
+	}
+
+	@Test
+	void testUpdate_StaleVersion_PreconditionFailed() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(42L));
+		when(taskRepository.updateByIdAndOwnerId(5L, 1L, 42L, "Renommée", false, true, 3L, 0L)).thenReturn(0);
+		when(taskRepository.updateByIdAndOwnerId(5L, 1L, 42L, "Renommée", false, false, 3L, 0L)).thenReturn(0);
+		when(taskRepository.findVersionByIdAndProjectIdAndOwnerId(5L, 1L, 42L)).thenReturn(Optional.of(4L));
+
+		assertThrows(PreconditionFailedException.class,
+			() -> taskService.update(1L, new TaskDto(5L, "Renommée", false), 3L));
+		verifyNoInteractions(projectRepository);
+	}
+
+	@Test
+	void testUpdate_ExpectedVersion_MissingTask_NotFound() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(42L));
+		when(taskRepository.updateByIdAndOwnerId(5L, 1L, 42L, "Renommée", false, true, 3L, 0L)).thenReturn(0);
+		when(taskRepository.updateByIdAndOwnerId(5L, 1L, 42L, "Renommée", false, false, 3L, 0L)).thenReturn(0);
+		when(taskRepository.findVersionByIdAndProjectIdAndOwnerId(5L, 1L, 42L)).thenReturn(Optional.empty());
+
+		assertThrows(EntityNotFoundException.class,
+			() -> taskService.update(1L, new TaskDto(5L, "Renommée", false), 3L));
+	}
+
+	// delete()
+	@Test
+	void testDelete_OwnerScopedStatement_ThenCounters() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(42L));
+		when(taskRepository.findRowByIdAndOwnerId(5L, 42L)).thenReturn(Optional.of(new TaskRow(1L, 5L, "Tâche", true)));
+		when(ownerVersionService.bump(42L)).thenReturn(8L);
+		when(taskRepository.deleteByIdAndOwnerId(5L, 42L, true, null)).thenReturn(1);
+
+		taskService.delete(1L, 5L);
+		verify(taskRepository, never()).delete(any());
+		InOrder inOrder = inOrder(taskRepository, projectRepository);
+		inOrder.verify(taskRepository).deleteByIdAndOwnerId(5L, 42L, true, null);
+		inOrder.verify(projectRepository).incrementTaskCounts(1L, -1, -1);
+		// La suppression laisse une trace pour la synchronisation
+		verify(tombstoneRepository).save(argThat(tombstone -> tombstone.getEntityType() == Tombstone.Type.TASK
+			&& tombstone.getEntityId() == 5L && tombstone.getChangeVersion() == 8L));
+	}
+
+	@Test
+	void testDelete_TaskToggledMeanwhile_CountsTheStateDeleted() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(42L));
+		when(taskRepository.findRowByIdAndOwnerId(5L, 42L)).thenReturn(Optional.of(new TaskRow(1L, 5L, "Tâche", true)));
+		when(taskRepository.deleteByIdAndOwnerId(5L, 42L, true, null)).thenReturn(0);
+		when(taskRepository.deleteByIdAndOwnerId(5L, 42L, false, null)).thenReturn(1);
+
+		taskService.delete(1L, 5L);
+		verify(projectRepository).incrementTaskCounts(1L, -1, 0);
+	}
+
+	@Test
+	void testDelete_StaleVersion_PreconditionFailed() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(42L));
+		when(taskRepository.findRowByIdAndOwnerId(5L, 42L)).thenReturn(Optional.of(new TaskRow(1L, 5L, "Tâche", true)));
+		when(taskRepository.deleteByIdAndOwnerId(5L, 42L, true, 3L)).thenReturn(0);
+		when(taskRepository.deleteByIdAndOwnerId(5L, 42L, false, 3L)).thenReturn(0);
+		when(taskRepository.findVersionByIdAndProjectIdAndOwnerId(5L, 1L, 42L)).thenReturn(Optional.of(4L));
+
+		assertThrows(PreconditionFailedException.class, () -> taskService.delete(1L, 5L, 3L));
+		verifyNoInteractions(projectRepository, tombstoneRepository);
+	}
+
+	@Test
+	void testDelete_NotOwned_WritesNothing() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(42L));
+		when(taskRepository.findRowByIdAndOwnerId(5L, 42L)).thenReturn(Optional.empty());
+
+		assertThrows(EntityNotFoundException.class, () -> taskService.delete(1L, 5L));
+		verify(taskRepository, never()).deleteByIdAndOwnerId(any(), any(), anyBoolean(), any());
+		verifyNoInteractions(projectRepository, ownerVersionService, tombstoneRepository);
+	}
+
+	@Test
+	void testDelete_OtherProject_WritesNothing() {
+		when(userService.getCurrentUserId()).thenReturn(Optional.of(42L));
+		when(taskRepository.findRowByIdAndOwnerId(5L, 42L)).thenReturn(Optional.of(new TaskRow(2L, 5L, "Tâche", true)));
+
+		// Tâche de l'utilisateur, mais pas dans le projet du chemin
+		assertThrows(EntityNotFoundException.class, () -> taskService.delete(1L, 5L));
+		verify(taskRepository, never()).deleteByIdAndOwnerId(any(), any(), anyBoolean(), any());
+		verifyNoInteractions(projectRepository, ownerVersionService, tombstoneRepository);
+	}
+
+	private static DataIntegrityViolationException uniqueViolation(String constraintName) {
+		return new DataIntegrityViolationException("violation", new ConstraintViolationException(
+			"violation", new SQLException("violation"), "insert", ConstraintKind.UNIQUE, constraintName));
+	}
+}
@@ -1,8 +1,11 @@
 package org.alnitaka.zenon.service;
 
 import java.util.Optional;
+import java.util.Set;
 import org.alnitaka.zenon.entity.User;
 import org.alnitaka.zenon.repository.UserRepository;
+import org.alnitaka.zenon.security.Role;
+import org.alnitaka.zenon.security.UserPrincipal;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -122,4 +125,47 @@ class UserServiceTest {
 		verify(userRepository).findUserByEmail(email);
 		verifyNoMoreInteractions(userRepository);
 	}
+
+	@Test
+	void getCurrentUserId_readsIdFromPrincipal_withoutQuery() {
+		// Arrange
+		UserPrincipal principal =
+			new UserPrincipal(42L, "jane@example.com", null, Set.of(Role.ROLE_USER), 0, true);
+		var auth = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+		SecurityContextHolder.getContext().setAuthentication(auth);
+
+		// Act
+		Optional<Long> result = service.getCurrentUserId();
+
+		// Assert
+		assertThat(result).contains(42L);
+		verifyNoInteractions(userRepository);
+	}
+
+	@Test
+	void getCurrentUserId_fallsBackToRepo_forOtherUserDetails() {
+		// Arrange
+		String email = "jane@example.com";
+		UserDetails principal = org.springframework.security.core.userdetails.User
+			.withUsername(email).password("x").authorities("ROLE_USER").build();
+		var auth = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+		SecurityContextHolder.getContext().setAuthentication(auth);
+
+		User jane = new User();
+		jane.setId(123L);
+		when(userRepository.findUserByEmail(email)).thenReturn(Optional.of(jane));
+
+		// Act
+		Optional<Long> result = service.getCurrentUserId();
+
+		// Assert
+		assertThat(result).contains(123L);
+		verify(userRepository).findUserByEmail(email);
+	}
+
+	@Test
+	void getCurrentUserId_returnsEmpty_whenNoAuthenticationInContext() {
+		assertThat(service.getCurrentUserId()).isEmpty();
+		verifyNoInteractions(userRepository);
+	}
 }